@@ -0,0 +1,93 @@
+package at.ac.tuwien.sepr.assignment.individual.config;
+
+import at.ac.tuwien.sepr.assignment.individual.persistence.TournamentDao;
+import at.ac.tuwien.sepr.assignment.individual.service.FormPointsLedger;
+import at.ac.tuwien.sepr.assignment.individual.service.HeadToHead;
+import at.ac.tuwien.sepr.assignment.individual.service.HorseRatings;
+import at.ac.tuwien.sepr.assignment.individual.service.StandingsCache;
+import at.ac.tuwien.sepr.assignment.individual.service.TournamentSimulator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.Duration;
+import java.util.concurrent.ForkJoinPool;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Configuration class for the in-memory state the tournament service keeps next to the persistent data store:
+ * the ledger of points, the ratings, the head-to-head records, the cache of the standings and the simulator.
+ * Their sizes are read from the {@code tournaments.*} properties of the application configuration.
+ */
+@Configuration
+public class TournamentConfiguration {
+
+  /**
+   * Default constructor for the TournamentConfiguration class.
+   * No parameters are needed.
+   */
+  public TournamentConfiguration() { }
+
+  /**
+   * Creates the ledger of the points of all horses, loaded from the results of all tournaments.
+   *
+   * @param dao the TournamentDao the results are read with
+   * @return the ledger of points
+   */
+  @Bean
+  public FormPointsLedger formPointsLedger(TournamentDao dao) {
+    return new FormPointsLedger(dao::findPointContributions);
+  }
+
+  /**
+   * Creates the ratings of all horses, loaded from the history of all matches.
+   *
+   * @param dao the TournamentDao the matches are read with
+   * @return the ratings
+   */
+  @Bean
+  public HorseRatings horseRatings(TournamentDao dao) {
+    return new HorseRatings(dao::findMatchHistory);
+  }
+
+  /**
+   * Creates the head-to-head records of all pairs of horses, loaded from the history of all matches.
+   *
+   * @param dao the TournamentDao the matches are read with
+   * @return the head-to-head records
+   */
+  @Bean
+  public HeadToHead headToHead(TournamentDao dao) {
+    return new HeadToHead(dao::findMatchHistory);
+  }
+
+  /**
+   * Creates the cache of the standings of tournaments.
+   *
+   * @param objectMapper the ObjectMapper of the REST endpoints, used to serialize the cached standings
+   * @param maxSize      the maximum number of tournaments whose standings are cached;
+   *                     only the tournaments running at the moment are asked for often
+   * @param maxAge       the time after which cached standings are not used any more; standings saved through the service
+   *                     update the cache anyway, so this only bounds how long changes bypassing it can go unnoticed
+   * @return the cache of the standings
+   */
+  @Bean
+  public StandingsCache standingsCache(
+      ObjectMapper objectMapper,
+      @Value("${tournaments.standings-cache.max-size:1024}") int maxSize,
+      @Value("${tournaments.standings-cache.max-age:30s}") Duration maxAge) {
+    return new StandingsCache(objectMapper.writer(), maxSize, maxAge.toNanos());
+  }
+
+  /**
+   * Creates the simulator of tournaments, on a fork/join pool of its own,
+   * so that simulations do not hold up the parallel streams of the application on the common pool.
+   * The pool is shut down with the application, as the simulator is closed.
+   *
+   * @param parallelism the number of threads of the pool; 0 for one per available processor
+   * @return the simulator
+   */
+  @Bean
+  public TournamentSimulator tournamentSimulator(@Value("${tournaments.simulation.parallelism:0}") int parallelism) {
+    return new TournamentSimulator(new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors()));
+  }
+}
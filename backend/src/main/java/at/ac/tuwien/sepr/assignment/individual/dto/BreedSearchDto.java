@@ -5,9 +5,11 @@ package at.ac.tuwien.sepr.assignment.individual.dto;
  *
  * @param name  The name of the breed to search for.
  * @param limit The maximum number of results to return.
+ * @param cursor The continuation token of the previous page, or null for the first page.
  */
 public record BreedSearchDto(
     String name,
-    Integer limit
+    Integer limit,
+    String cursor
 ) {
 }
@@ -0,0 +1,17 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO representing the counters of an in-memory cache.
+ *
+ * @param hits      The number of lookups answered from the cache.
+ * @param misses    The number of lookups that had to load from the persistent data store.
+ * @param evictions The number of entries removed because the cache was full or the entry was too old.
+ * @param size      The number of entries currently held.
+ */
+public record CacheStatsDto(
+    long hits,
+    long misses,
+    long evictions,
+    int size
+) {
+}
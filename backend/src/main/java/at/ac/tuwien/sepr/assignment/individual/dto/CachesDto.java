@@ -0,0 +1,15 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO representing the counters of all in-memory caches of the application, for monitoring them.
+ *
+ * @param horseSearch  The counters of the cache of horse search results.
+ * @param breedHitRate The share of breeds looked up by ID, that were served from memory, between 0 and 1.
+ * @param standings    The counters of the cache of tournament standings.
+ */
+public record CachesDto(
+    CacheStatsDto horseSearch,
+    double breedHitRate,
+    CacheStatsDto standings
+) {
+}
@@ -0,0 +1,17 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO representing the record of a horse against another horse, from the matches they played against each other.
+ *
+ * @param horseId    The unique identifier of the horse.
+ * @param opponentId The unique identifier of the other horse.
+ * @param wins       The number of matches the horse won against the other horse.
+ * @param losses     The number of matches the horse lost against the other horse.
+ */
+public record HeadToHeadDto(
+    long horseId,
+    long opponentId,
+    int wins,
+    int losses
+) {
+}
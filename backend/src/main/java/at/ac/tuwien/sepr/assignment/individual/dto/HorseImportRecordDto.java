@@ -0,0 +1,17 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import java.util.List;
+
+/**
+ * DTO representing a single record read from a bulk import of horses.
+ *
+ * @param line   The number of the line of the record in the imported data, starting at 1.
+ * @param horse  The horse read from the record, or null if the record could not be read.
+ * @param errors The reasons why the record could not be read, empty if it could be read.
+ */
+public record HorseImportRecordDto(
+    long line,
+    HorseDetailDto horse,
+    List<String> errors
+) {
+}
@@ -0,0 +1,20 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import at.ac.tuwien.sepr.assignment.individual.type.ImportStatus;
+import java.util.List;
+
+/**
+ * DTO representing the outcome of importing a single record of a bulk import of horses.
+ *
+ * @param line   The number of the line of the record in the imported data, starting at 1.
+ * @param status Whether the horse was stored, and if not, why.
+ * @param id     The ID of the stored horse, or null if it was not stored.
+ * @param errors The reasons why the horse was not stored, empty if it was stored.
+ */
+public record HorseImportResultDto(
+    long line,
+    ImportStatus status,
+    Long id,
+    List<String> errors
+) {
+}
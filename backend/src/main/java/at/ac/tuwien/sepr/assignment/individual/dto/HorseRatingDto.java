@@ -0,0 +1,21 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+
+/**
+ * DTO representing the rating of a horse on a leaderboard.
+ *
+ * @param horseId The unique identifier of the horse.
+ * @param sex     The sex of the horse.
+ * @param breedId The unique identifier of the breed of the horse, or null if it has none.
+ * @param rating  The Elo rating of the horse.
+ * @param matches The number of matches the rating is based on.
+ */
+public record HorseRatingDto(
+    long horseId,
+    Sex sex,
+    Long breedId,
+    double rating,
+    int matches
+) {
+}
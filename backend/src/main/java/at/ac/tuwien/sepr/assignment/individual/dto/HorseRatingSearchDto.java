@@ -0,0 +1,22 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+
+/**
+ * DTO to bundle the query parameters of a leaderboard of the ratings of horses.
+ * Each field can be null, in which case this field is not filtered by.
+ *
+ * @param breedId The unique identifier of the breed of the horses.
+ * @param sex     The sex of the horses.
+ * @param limit   The number of horses to return at most; if null, {@link #DEFAULT_LIMIT}.
+ */
+public record HorseRatingSearchDto(
+    Long breedId,
+    Sex sex,
+    Integer limit
+) {
+  /**
+   * The number of horses on a leaderboard, if no limit is given.
+   */
+  public static final int DEFAULT_LIMIT = 10;
+}
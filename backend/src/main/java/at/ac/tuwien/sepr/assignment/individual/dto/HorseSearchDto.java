@@ -2,6 +2,7 @@ package at.ac.tuwien.sepr.assignment.individual.dto;
 
 import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import java.time.LocalDate;
+import java.util.Locale;
 import org.springframework.format.annotation.DateTimeFormat;
 
 /**
@@ -14,6 +15,7 @@ import org.springframework.format.annotation.DateTimeFormat;
  * @param bornLatest The latest date of birth for the horse.
  * @param breed The breed of the horse.
  * @param limit The limit of results to return.
+ * @param cursor The continuation token of the previous page, or null for the first page.
  */
 public record HorseSearchDto(
     String name,
@@ -23,6 +25,27 @@ public record HorseSearchDto(
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     LocalDate bornLatest,
     String breed,
-    Integer limit
+    Integer limit,
+    String cursor
 ) {
+  /**
+   * Normalizes the search parameters, so that parameters finding the same horses are equal.
+   * Name and breed are matched ignoring case, so they are upper-cased; empty ones match every horse, so they are dropped.
+   *
+   * @return the normalized search parameters
+   */
+  public HorseSearchDto normalized() {
+    return new HorseSearchDto(
+        normalize(name),
+        sex,
+        bornEarliest,
+        bornLatest,
+        normalize(breed),
+        limit,
+        cursor);
+  }
+
+  private static String normalize(String value) {
+    return value == null || value.isEmpty() ? null : value.toUpperCase(Locale.ROOT);
+  }
 }
@@ -0,0 +1,23 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import java.time.LocalDate;
+
+/**
+ * DTO representing the career of a horse in tournaments.
+ *
+ * @param horseId         The unique identifier of the horse.
+ * @param tournaments     The number of tournaments the horse participates in.
+ * @param bestRound       The highest round the horse reached in any tournament, or 0 if it reached none.
+ * @param matchesWon      The number of matches the horse won in all tournaments.
+ * @param firstTournament The start date of the earliest tournament of the horse, or null if it has none.
+ * @param lastTournament  The end date of the latest tournament of the horse, or null if it has none.
+ */
+public record HorseStatsDto(
+    long horseId,
+    int tournaments,
+    int bestRound,
+    int matchesWon,
+    LocalDate firstTournament,
+    LocalDate lastTournament
+) {
+}
@@ -0,0 +1,52 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Position of the last row of a result page, used for keyset pagination.
+ * Clients only ever see the opaque token produced by {@link #encode()}
+ * and send it back unchanged to get the page following that row.
+ *
+ * @param sortKey The value of the sort column of the last row on the page.
+ * @param id      The ID of the last row on the page, breaking ties between equal sort keys.
+ */
+public record PageCursor(
+    String sortKey,
+    long id
+) {
+  /**
+   * Name of the response header carrying the continuation token of the next page.
+   * It is only set, if the page is full, i.e. if there may be more results.
+   */
+  public static final String NEXT_PAGE_HEADER = "X-Next-Cursor";
+
+  private static final char SEPARATOR = '|';
+
+  /**
+   * Encodes this cursor as an opaque, URL-safe continuation token.
+   *
+   * @return the continuation token
+   */
+  public String encode() {
+    String raw = sortKey + SEPARATOR + id;
+    return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+  }
+
+  /**
+   * Decodes a continuation token previously produced by {@link #encode()}.
+   *
+   * @param token the continuation token
+   * @return the decoded cursor
+   * @throws IllegalArgumentException if the token is not a valid continuation token
+   */
+  public static PageCursor decode(String token) {
+    String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+    // the sort key may itself contain the separator, the ID never does
+    int separator = raw.lastIndexOf(SEPARATOR);
+    if (separator < 0) {
+      throw new IllegalArgumentException("cursor is malformed");
+    }
+    return new PageCursor(raw.substring(0, separator), Long.parseLong(raw.substring(separator + 1)));
+  }
+}
@@ -0,0 +1,20 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO representing the aggregated results of one group of participations in tournaments.
+ *
+ * @param group          The value of the grouping attribute: the ID of the breed, the sex, the age in years or the year;
+ *                       null for the horses without a breed.
+ * @param participations The number of participations in the group, of which the first round has been drawn.
+ * @param matches        The number of matches played.
+ * @param matchesWon     The number of matches won.
+ * @param winRate        The share of the matches played that were won, or 0 if none were played.
+ */
+public record ParticipationStatsDto(
+    String group,
+    long participations,
+    long matches,
+    long matchesWon,
+    double winRate
+) {
+}
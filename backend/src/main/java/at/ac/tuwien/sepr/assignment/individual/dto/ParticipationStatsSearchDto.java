@@ -0,0 +1,24 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import at.ac.tuwien.sepr.assignment.individual.type.ParticipationGrouping;
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+import java.time.LocalDate;
+
+/**
+ * DTO representing the parameters of an analysis of participations in tournaments.
+ * The filters that are {@code null} are ignored.
+ *
+ * @param groupBy   The attribute by which the participations are grouped.
+ * @param breedId   The unique identifier of the breed the horses must be of.
+ * @param sex       The sex the horses must be of.
+ * @param startFrom The earliest start date of the tournaments.
+ * @param startTo   The latest start date of the tournaments.
+ */
+public record ParticipationStatsSearchDto(
+    ParticipationGrouping groupBy,
+    Long breedId,
+    Sex sex,
+    LocalDate startFrom,
+    LocalDate startTo
+) {
+}
@@ -10,11 +10,13 @@ import java.time.LocalDate;
  * @param startDate    The start date of the tournament.
  * @param endDate      The end date of the tournament.
  * @param participants An array of TournamentDetailParticipantDto representing the participants in the tournament.
+ * @param version      The version of the tournament, which is incremented on every save of its standings.
  */
 public record TournamentDetailsDto(
     long id,
     String name,
     LocalDate startDate,
     LocalDate endDate,
-    TournamentDetailParticipantDto[] participants
+    TournamentDetailParticipantDto[] participants,
+    long version
 ) {}
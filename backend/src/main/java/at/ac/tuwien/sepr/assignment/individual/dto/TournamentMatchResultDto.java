@@ -0,0 +1,11 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO representing the result of a single match of a tournament.
+ *
+ * @param winnerId The ID of the participant that won the match.
+ */
+public record TournamentMatchResultDto(
+    Long winnerId
+) {
+}
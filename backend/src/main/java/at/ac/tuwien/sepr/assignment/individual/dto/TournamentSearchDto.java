@@ -11,12 +11,16 @@ import java.time.LocalDate;
  * @param name      The name of the tournament.
  * @param startDate The start date of the tournament.
  * @param endDate   The end date of the tournament.
+ * @param limit     The limit of results to return.
+ * @param cursor    The continuation token of the previous page, or null for the first page.
  */
 public record TournamentSearchDto(
     String name,
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
     LocalDate startDate,
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE)
-    LocalDate endDate
+    LocalDate endDate,
+    Integer limit,
+    String cursor
 ) {
 }
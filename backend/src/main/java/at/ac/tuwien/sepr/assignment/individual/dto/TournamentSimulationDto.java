@@ -0,0 +1,15 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO representing the outcome of simulating a tournament from its seeded first round.
+ *
+ * @param tournamentId The unique identifier of the tournament.
+ * @param iterations   The number of times the tournament was played out; fewer than asked for, if the time ran out.
+ * @param entrants     The entrants, ordered by their entry number, with their chances.
+ */
+public record TournamentSimulationDto(
+    long tournamentId,
+    long iterations,
+    TournamentSimulationEntrantDto[] entrants
+) {
+}
@@ -0,0 +1,20 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO representing the chances of one entrant of a simulated tournament.
+ *
+ * @param participantId The unique identifier of the participant.
+ * @param horseId       The unique identifier of the horse.
+ * @param name          The name of the horse.
+ * @param entryNumber   The entry number of the participant in the seeded first round.
+ * @param reachingRound The probability of reaching each round: the element {@code r - 1} for round {@code r},
+ *                      so the first element is always 1 and the last one is the probability of winning the tournament.
+ */
+public record TournamentSimulationEntrantDto(
+    long participantId,
+    long horseId,
+    String name,
+    int entryNumber,
+    double[] reachingRound
+) {
+}
@@ -0,0 +1,14 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO to bundle the query parameters of a simulation of a tournament.
+ * Each field can be null, in which case its default is used.
+ *
+ * @param iterations The number of times the tournament is played out at most.
+ * @param maxMillis  The time in milliseconds after which the simulation stops, even if not all iterations are played.
+ */
+public record TournamentSimulationParamsDto(
+    Long iterations,
+    Long maxMillis
+) {
+}
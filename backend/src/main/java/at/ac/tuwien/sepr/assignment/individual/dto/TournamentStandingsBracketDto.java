@@ -0,0 +1,107 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.SerializerProvider;
+import com.fasterxml.jackson.databind.annotation.JsonSerialize;
+import com.fasterxml.jackson.databind.ser.std.StdSerializer;
+import java.io.IOException;
+
+/**
+ * DTO representing the standings tree of a tournament, held as an implicit binary tree in one flat array.
+ * The root is node 0, the branches of node k are the nodes 2k + 1 and 2k + 2,
+ * and the entry positions of the first round are the last {@code size} nodes, so a bracket of n entrants has 2n - 1 nodes.
+ * Every node holds the participant that won it, or null if it has not been decided yet.
+ *
+ * <p>It is serialized as the nested tree of {@link TournamentStandingsTreeDto}, written directly from the array,
+ * so the nested tree is never built as objects, unless {@link #toTree()} is called.
+ */
+@JsonSerialize(using = TournamentStandingsBracketDto.Serializer.class)
+public final class TournamentStandingsBracketDto {
+  private final TournamentDetailParticipantDto[] nodes;
+
+  /**
+   * Constructs a new TournamentStandingsBracketDto.
+   *
+   * @param nodes the participants of the 2n - 1 nodes, in the order described above; the array is not copied
+   */
+  public TournamentStandingsBracketDto(TournamentDetailParticipantDto[] nodes) {
+    this.nodes = nodes;
+  }
+
+  /**
+   * Gets the number of entrants of the bracket.
+   *
+   * @return the number of entry positions
+   */
+  public int size() {
+    return (nodes.length + 1) / 2;
+  }
+
+  /**
+   * Gets the participant that won a node.
+   *
+   * @param node the index of the node
+   * @return the participant, or null if the node has not been decided yet
+   */
+  public TournamentDetailParticipantDto participantAt(int node) {
+    return nodes[node];
+  }
+
+  /**
+   * Checks whether a node is an entry position of the first round, and so has no branches.
+   *
+   * @param node the index of the node
+   * @return true if the node has no branches
+   */
+  public boolean isLeaf(int node) {
+    return 2 * node + 1 >= nodes.length;
+  }
+
+  /**
+   * Builds the nested tree of this bracket.
+   *
+   * @return the root of the tree
+   */
+  public TournamentStandingsTreeDto toTree() {
+    return toTree(0);
+  }
+
+  private TournamentStandingsTreeDto toTree(int node) {
+    if (isLeaf(node)) {
+      return new TournamentStandingsTreeDto(nodes[node], null);
+    }
+    return new TournamentStandingsTreeDto(nodes[node], new TournamentStandingsTreeDto[] {toTree(2 * node + 1), toTree(2 * node + 2)});
+  }
+
+  /**
+   * Writes a bracket in the JSON format of {@link TournamentStandingsTreeDto}.
+   */
+  static class Serializer extends StdSerializer<TournamentStandingsBracketDto> {
+
+    Serializer() {
+      super(TournamentStandingsBracketDto.class);
+    }
+
+    @Override
+    public void serialize(TournamentStandingsBracketDto bracket, JsonGenerator generator, SerializerProvider provider) throws IOException {
+      writeNode(bracket, 0, generator, provider);
+    }
+
+    private void writeNode(TournamentStandingsBracketDto bracket, int node, JsonGenerator generator, SerializerProvider provider)
+        throws IOException {
+      generator.writeStartObject();
+      generator.writeFieldName("thisParticipant");
+      provider.defaultSerializeValue(bracket.participantAt(node), generator);
+      generator.writeFieldName("branches");
+      if (bracket.isLeaf(node)) {
+        generator.writeNull();
+      } else {
+        generator.writeStartArray();
+        writeNode(bracket, 2 * node + 1, generator, provider);
+        writeNode(bracket, 2 * node + 2, generator, provider);
+        generator.writeEndArray();
+      }
+      generator.writeEndObject();
+    }
+  }
+}
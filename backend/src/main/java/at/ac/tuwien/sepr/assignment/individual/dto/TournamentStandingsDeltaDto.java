@@ -0,0 +1,16 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO representing the change of the standings of a tournament made by one save.
+ * It applies to the standings of version {@code version - 1}; clients holding other standings have to load them again.
+ *
+ * @param tournamentId The unique identifier of the tournament.
+ * @param version      The version of the standings after the save.
+ * @param participants The participants whose entry number or round reached was changed by the save.
+ */
+public record TournamentStandingsDeltaDto(
+    long tournamentId,
+    long version,
+    TournamentDetailParticipantDto[] participants
+) {
+}
@@ -7,11 +7,14 @@ package at.ac.tuwien.sepr.assignment.individual.dto;
  * @param name         The name of the tournament.
  * @param participants Array of tournament participants.
  * @param tree         Tournament standings tree.
+ * @param version      The version of the tournament the standings were read from;
+ *                     it has to be sent back when saving them, see {@link TournamentUpdateParticipantsDto}.
  */
 public record TournamentStandingsDto(
       Long id,
       String name,
       TournamentDetailParticipantDto[] participants,
-      TournamentStandingsTreeDto tree
+      TournamentStandingsBracketDto tree,
+      long version
 ) {
 }
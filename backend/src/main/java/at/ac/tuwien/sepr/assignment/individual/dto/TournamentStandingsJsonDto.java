@@ -0,0 +1,13 @@
+package at.ac.tuwien.sepr.assignment.individual.dto;
+
+/**
+ * DTO representing the tournament standings already serialized to JSON, as they are sent to the client.
+ *
+ * @param version The version of the standings, i.e. of the tournament, which changes whenever the standings are saved.
+ * @param json    The standings as JSON, in the format of {@link TournamentStandingsDto}; must not be modified.
+ */
+public record TournamentStandingsJsonDto(
+    long version,
+    byte[] json
+) {
+}
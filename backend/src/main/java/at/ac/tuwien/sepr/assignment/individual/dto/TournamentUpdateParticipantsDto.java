@@ -4,8 +4,11 @@ package at.ac.tuwien.sepr.assignment.individual.dto;
  * DTO representing tournament's participants for update.
  *
  * @param participants Array of participant details to be updated in the tournament.
+ * @param version      The version of the standings the changes are based on, which is required; they are only saved,
+ *                     if the tournament has not been saved by someone else since.
  */
 public record TournamentUpdateParticipantsDto(
-    TournamentDetailParticipantDto[] participants
+    TournamentDetailParticipantDto[] participants,
+    Long version
 ) {
 }
@@ -15,6 +15,7 @@ public class Horse {
   private float height;
   private float weight;
   private Long breedId;
+  private String breedName;
 
   /**
    * Default constructor for the Horse class.
@@ -162,6 +163,27 @@ public class Horse {
     return this;
   }
 
+  /**
+   * Retrieves the name of the breed of the horse, as read together with the horse.
+   *
+   * @return The name of the breed of the horse, or null if the horse has no breed.
+   */
+  public String getBreedName() {
+    return breedName;
+  }
+
+  /**
+   * Sets the name of the breed of the horse.
+   * The name is not stored with the horse, it is joined from the breed when the horse is read.
+   *
+   * @param breedName The name of the breed of the horse.
+   * @return The updated Horse object.
+   */
+  public Horse setBreedName(String breedName) {
+    this.breedName = breedName;
+    return this;
+  }
+
   @Override
   public String toString() {
     return "Horse{"
@@ -172,6 +194,7 @@ public class Horse {
         + ", height=" + height
         + ", weight=" + weight
         + ", breed=" + breedId
+        + ", breedName='" + breedName + '\''
         + '}';
   }
 
@@ -0,0 +1,23 @@
+package at.ac.tuwien.sepr.assignment.individual.entity;
+
+import java.time.LocalDate;
+
+/**
+ * The career of a horse in tournaments, aggregated over all tournaments it participates in.
+ *
+ * @param horseId         the ID of the horse
+ * @param tournaments     the number of tournaments the horse participates in
+ * @param bestRound       the highest round the horse reached in any tournament, or 0 if it reached none
+ * @param matchesWon      the number of matches won, i.e. the rounds reached after the first one, summed up over all tournaments
+ * @param firstTournament the start date of the earliest tournament of the horse, or null if it has none
+ * @param lastTournament  the end date of the latest tournament of the horse, or null if it has none
+ */
+public record HorseStats(
+    long horseId,
+    int tournaments,
+    int bestRound,
+    int matchesWon,
+    LocalDate firstTournament,
+    LocalDate lastTournament
+) {
+}
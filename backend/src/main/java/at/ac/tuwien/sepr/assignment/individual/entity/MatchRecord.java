@@ -0,0 +1,15 @@
+package at.ac.tuwien.sepr.assignment.individual.entity;
+
+/**
+ * The matches a horse won and lost in earlier tournaments, derived from the rounds it reached.
+ *
+ * @param horseId the ID of the horse
+ * @param won     the number of matches won, i.e. the rounds reached after the first one, summed up over all tournaments
+ * @param lost    the number of tournaments in which the horse was knocked out
+ */
+public record MatchRecord(
+    long horseId,
+    int won,
+    int lost
+) {
+}
@@ -0,0 +1,29 @@
+package at.ac.tuwien.sepr.assignment.individual.entity;
+
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+
+/**
+ * The result of one decided match of a tournament, between the horses of its two competitors.
+ *
+ * @param tournamentId  the ID of the tournament
+ * @param round         the round of the match, counted from 1
+ * @param slot          the slot of the match within its round, counted from 0
+ * @param winnerId      the ID of the horse that won
+ * @param winnerSex     the sex of the horse that won
+ * @param winnerBreedId the ID of the breed of the horse that won, or null if it has none
+ * @param loserId       the ID of the horse that lost
+ * @param loserSex      the sex of the horse that lost
+ * @param loserBreedId  the ID of the breed of the horse that lost, or null if it has none
+ */
+public record MatchResult(
+    long tournamentId,
+    int round,
+    int slot,
+    long winnerId,
+    Sex winnerSex,
+    Long winnerBreedId,
+    long loserId,
+    Sex loserSex,
+    Long loserBreedId
+) {
+}
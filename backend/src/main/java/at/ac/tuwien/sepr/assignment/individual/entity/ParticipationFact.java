@@ -0,0 +1,28 @@
+package at.ac.tuwien.sepr.assignment.individual.entity;
+
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+import java.time.LocalDate;
+
+/**
+ * The participation of a horse in a tournament, together with the attributes of the horse and the tournament it is analyzed by.
+ *
+ * @param participantId the ID of the participant
+ * @param tournamentId  the ID of the tournament
+ * @param horseId       the ID of the horse
+ * @param breedId       the ID of the breed of the horse, or null if it has none
+ * @param sex           the sex of the horse
+ * @param dateOfBirth   the date of birth of the horse
+ * @param startDate     the start date of the tournament
+ * @param roundReached  the round the horse reached, or 0 if the first round has not been drawn yet
+ */
+public record ParticipationFact(
+    long participantId,
+    long tournamentId,
+    long horseId,
+    Long breedId,
+    Sex sex,
+    LocalDate dateOfBirth,
+    LocalDate startDate,
+    int roundReached
+) {
+}
@@ -0,0 +1,19 @@
+package at.ac.tuwien.sepr.assignment.individual.entity;
+
+import java.time.LocalDate;
+
+/**
+ * The result of one horse in one tournament, as far as it counts for the points of the horse.
+ *
+ * @param horseId      the ID of the horse
+ * @param tournamentId the ID of the tournament
+ * @param endDate      the end date of the tournament
+ * @param roundReached the round the horse reached in the tournament
+ */
+public record PointContribution(
+    long horseId,
+    long tournamentId,
+    LocalDate endDate,
+    int roundReached
+) {
+}
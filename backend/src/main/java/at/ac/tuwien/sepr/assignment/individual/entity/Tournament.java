@@ -12,6 +12,7 @@ public class Tournament {
   private LocalDate startDate;
   private LocalDate endDate;
   private Participant[] participants;
+  private long version;
 
   /**
    * Default constructor for the Tournament class.
@@ -119,6 +120,26 @@ public class Tournament {
     return this;
   }
 
+  /**
+   * Retrieves the version of the tournament, which is incremented on every save of its standings.
+   *
+   * @return The version of the tournament.
+   */
+  public long getVersion() {
+    return version;
+  }
+
+  /**
+   * Sets the version of the tournament.
+   *
+   * @param version The version of the tournament.
+   * @return The updated Tournament object.
+   */
+  public Tournament setVersion(long version) {
+    this.version = version;
+    return this;
+  }
+
   @Override
   public boolean equals(Object o) {
     if (this == o) {
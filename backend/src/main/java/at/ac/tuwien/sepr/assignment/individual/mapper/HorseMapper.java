@@ -3,11 +3,11 @@ package at.ac.tuwien.sepr.assignment.individual.mapper;
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseStatsDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepr.assignment.individual.entity.HorseStats;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import java.lang.invoke.MethodHandles;
-import java.util.Map;
-import java.util.Optional;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -27,13 +27,12 @@ public class HorseMapper {
 
   /**
    * Convert a horse entity object to a {@link HorseListDto}.
-   * The given map of breeds needs to contain the breed of {@code horse}.
+   * The horse needs to have been read together with the name of its breed.
    *
    * @param horse the horse to convert
-   * @param breeds a map of breeds identified by their id, required for mapping horses
    * @return the converted {@link HorseListDto}
    */
-  public HorseListDto entityToListDto(Horse horse, Map<Long, BreedDto> breeds) {
+  public HorseListDto entityToListDto(Horse horse) {
     LOG.trace("entityToListDto({})", horse);
     if (horse == null) {
       return null;
@@ -44,19 +43,18 @@ public class HorseMapper {
         horse.getName(),
         horse.getSex(),
         horse.getDateOfBirth(),
-        breedFromMap(horse, breeds)
+        breedOf(horse)
     );
   }
 
   /**
-   * Convert a horse entity object to a {@link HorseListDto}.
-   * The given map of breeds needs to contain the breed of {@code horse}.
+   * Convert a horse entity object to a {@link HorseDetailDto}.
+   * The horse needs to have been read together with the name of its breed.
    *
    * @param horse the horse to convert
-   * @param breeds map with breeds
-   * @return the converted {@link HorseListDto}
+   * @return the converted {@link HorseDetailDto}
    */
-  public HorseDetailDto entityToDetailDto(Horse horse, Map<Long, BreedDto> breeds) {
+  public HorseDetailDto entityToDetailDto(Horse horse) {
     LOG.trace("entityToDto({})", horse);
     if (horse == null) {
       return null;
@@ -69,28 +67,50 @@ public class HorseMapper {
         horse.getDateOfBirth(),
         horse.getHeight(),
         horse.getWeight(),
-        breedFromMap(horse, breeds)
+        breedOf(horse)
+    );
+  }
+
+  /**
+   * Convert the career of a horse to a {@link HorseStatsDto}.
+   *
+   * @param stats the career to convert
+   * @return the converted {@link HorseStatsDto}
+   */
+  public HorseStatsDto entityToStatsDto(HorseStats stats) {
+    LOG.trace("entityToStatsDto({})", stats);
+    if (stats == null) {
+      return null;
+    }
+
+    return new HorseStatsDto(
+        stats.horseId(),
+        stats.tournaments(),
+        stats.bestRound(),
+        stats.matchesWon(),
+        stats.firstTournament(),
+        stats.lastTournament()
     );
   }
 
   /**
-   * Retrieves the BreedDto from the provided map based on the breed ID of the given Horse.
-   * If the breed ID is null, returns null. If the breed ID does not exist in the map, throws a FatalException.
+   * Builds the BreedDto of the given Horse from the breed ID and name read together with the horse.
+   * If the breed ID is null, returns null. If the breed name is missing, throws a FatalException.
    *
-   * @param horse The Horse object whose breed ID is used to retrieve the BreedDto.
-   * @param map   The map containing BreedDto objects mapped by their IDs.
-   * @return The BreedDto corresponding to the breed ID of the Horse, or null if the breed ID is null.
-   * @throws FatalException If the breed ID of the Horse does not exist in the provided map.
+   * @param horse The Horse object whose breed is built.
+   * @return The BreedDto of the breed of the Horse, or null if the breed ID is null.
+   * @throws FatalException If the breed ID of the Horse refers to no breed.
    */
-  private BreedDto breedFromMap(Horse horse, Map<Long, BreedDto> map) {
-    LOG.trace("breedFromMapFor({})", horse);
+  private BreedDto breedOf(Horse horse) {
+    LOG.trace("breedOf({})", horse);
     var breedId = horse.getBreedId();
     if (breedId == null) {
       return null;
-    } else {
-      return Optional.ofNullable(map.get(breedId))
-          .orElseThrow(() -> new FatalException(
-              "Saved horse with id " + horse.getId() + " refers to non-existing breed with id " + breedId));
     }
+    if (horse.getBreedName() == null) {
+      throw new FatalException(
+          "Saved horse with id " + horse.getId() + " refers to non-existing breed with id " + breedId);
+    }
+    return new BreedDto(breedId, horse.getBreedName());
   }
 }
@@ -3,8 +3,8 @@ package at.ac.tuwien.sepr.assignment.individual.mapper;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsBracketDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsDto;
-import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsTreeDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Participant;
 import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
 import org.slf4j.Logger;
@@ -20,6 +20,9 @@ import java.util.Arrays;
 @Component
 public class TournamentMapper {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int UNRESOLVED = -1;
+  private static final int VISITING = -2;
+  private static final int CYCLE = -3;
 
   /**
    * Default constructor for the TournamentMapper class.
@@ -64,7 +67,8 @@ public class TournamentMapper {
       tournament.getName(),
       tournament.getStartDate(),
       tournament.getEndDate(),
-      participantToParticipantDto(tournament.getParticipants())
+      participantToParticipantDto(tournament.getParticipants()),
+      tournament.getVersion()
     );
   }
 
@@ -76,8 +80,8 @@ public class TournamentMapper {
    */
   private TournamentDetailParticipantDto[] participantToParticipantDto(Participant[] participants) {
     LOG.trace("Participant[]({}) to TournamentDetailParticipantDto[]", Arrays.toString(participants));
-    TournamentDetailParticipantDto[] participantsDto = new TournamentDetailParticipantDto[8];
-    for (int i = 0; i < 8; i++) {
+    TournamentDetailParticipantDto[] participantsDto = new TournamentDetailParticipantDto[participants.length];
+    for (int i = 0; i < participants.length; i++) {
       participantsDto[i] = new TournamentDetailParticipantDto(
               participants[i].getId(),
               participants[i].getHorseId(),
@@ -102,83 +106,134 @@ public class TournamentMapper {
 
     TournamentDetailParticipantDto[] participants = tournament.participants();
 
-    TournamentStandingsTreeDto tree = participantsToTree(participants, 0);
-    return new TournamentStandingsDto(tournament.id(), tournament.name(), participants, tree);
+    TournamentStandingsBracketDto tree = participantsToTree(participants, 0);
+    return new TournamentStandingsDto(tournament.id(), tournament.name(), participants, tree, tournament.version());
   }
 
   /**
-   * Generates a TournamentStandingsTreeDto representing the standing's tree for the tournament participants.
+   * Applies the change of some participants to standings, e.g. of the two competitors of a recorded match,
+   * and generates the standings tree again, so that the other participants need not be loaded.
+   *
+   * @param standings The standings before the change; they are not modified.
+   * @param changed   The changed participants, which must be participants of the standings.
+   * @param version   The version of the standings after the change.
+   * @return The changed standings.
+   */
+  public TournamentStandingsDto standingsWithChangedParticipants(TournamentStandingsDto standings, TournamentDetailParticipantDto[] changed,
+                                                                 long version) {
+    LOG.trace("TournamentStandingsDto({}) with changed participants({})", standings.id(), Arrays.toString(changed));
+    TournamentDetailParticipantDto[] participants = standings.participants().clone();
+    for (TournamentDetailParticipantDto participant : changed) {
+      for (int i = 0; i < participants.length; i++) {
+        if (participants[i].id().equals(participant.id())) {
+          participants[i] = participant;
+        }
+      }
+    }
+    return new TournamentStandingsDto(standings.id(), standings.name(), participants, participantsToTree(participants, 0), version);
+  }
+
+  /**
+   * Generates the standings tree for the tournament participants, as a flat array filled bottom-up in linear time.
+   * The entry positions are filled first, every other node is then won by the participant of its branches that reached the later round.
    *
    * @param participants The array of TournamentDetailParticipantDto representing the participants.
    * @param option       The option indicating tournamentDetailsDtoToStandingsDto or tournamentDetailsDtoToStandingsDtoFirstRound must be generated.
-   * @return The generated TournamentStandingsTreeDto representing the standings tree.
+   * @return The generated standings tree.
    */
-  private TournamentStandingsTreeDto participantsToTree(TournamentDetailParticipantDto[] participants, int option) {
-    LOG.trace("TournamentDetailParticipantDto({}) with option({}) to TournamentStandingsTreeDto", participants, option);
+  private TournamentStandingsBracketDto participantsToTree(TournamentDetailParticipantDto[] participants, int option) {
+    LOG.trace("{} participants with option({}) to TournamentStandingsBracketDto", participants.length, option);
 
-    TournamentStandingsTreeDto[] trees = new TournamentStandingsTreeDto[participants.length];
+    int size = participants.length;
+    int firstLeaf = size - 1;
+    TournamentDetailParticipantDto[] nodes = new TournamentDetailParticipantDto[2 * size - 1];
+    boolean[] placed = new boolean[size];
 
     //generating first round of tree
 
     //set all participants, which was saved
     for (TournamentDetailParticipantDto participant : participants) {
       if (participant.entryNumber() != -1) {
-        trees[participant.entryNumber()] = new TournamentStandingsTreeDto(participant, null);
+        nodes[firstLeaf + participant.entryNumber()] = participant;
+        placed[participant.entryNumber()] = true;
       }
     }
     //set rest participants
-    for (int i = 0; i < participants.length; i++) {
-      if (trees[i] == null) {
+    int[] resolved = new int[size];
+    Arrays.fill(resolved, UNRESOLVED);
+    int[] path = new int[size];
+    for (int i = 0; i < size; i++) {
+      if (!placed[i]) {
         // important only for tournamentDetailsDtoToStandingsDto
         if (participants[i].roundReached() == option) {
-          trees[i] = new TournamentStandingsTreeDto(null, null);
+          nodes[firstLeaf + i] = null;
         } else if (participants[i].entryNumber() == -1) {
-          trees[i] = new TournamentStandingsTreeDto(participants[i], null);
+          nodes[firstLeaf + i] = participants[i];
         } else {
-          int newKey = participants[i].entryNumber();
-          while (participants[newKey].entryNumber() != -1) {
-            newKey = participants[newKey].entryNumber();
-          }
-          trees[i] = new TournamentStandingsTreeDto(participants[newKey].roundReached() == option ? null : participants[newKey], null);
+          int newKey = resolveEntry(participants, participants[i].entryNumber(), resolved, path);
+          nodes[firstLeaf + i] = newKey < 0 || participants[newKey].roundReached() == option ? null : participants[newKey];
         }
       }
     }
 
-    //generating of all rounds except first round, which has been already generated
-    while (trees.length > 1) {
-      TournamentStandingsTreeDto[] nextRound = new TournamentStandingsTreeDto[trees.length / 2];
-      for (int i = 0; i < nextRound.length; i++) {
-        TournamentStandingsTreeDto[] branches = {trees[i * 2], trees[i * 2 + 1]};
-        nextRound[i] = createTree(branches);
-      }
-      trees = nextRound;
+    //generating of all rounds except first round, from the last node to the root, so that both branches of a node are done before it
+    for (int node = firstLeaf - 1; node >= 0; node--) {
+      nodes[node] = winner(nodes[2 * node + 1], nodes[2 * node + 2]);
     }
-    return trees[0];
+    return new TournamentStandingsBracketDto(nodes);
   }
 
   /**
-   * Creates a single node of the standings tree based on the given branches.
-   * The node contains information about the higher-ranking participant among the two branches.
+   * Follows the entry numbers from the participant at {@code start}, as long as they lead to a participant with an entry number.
+   * Every participant on the way is remembered with the result, so that all chains together are followed in linear time.
    *
-   * @param branches The array of two TournamentStandingsTreeDto representing the branches.
-   * @return The created TournamentStandingsTreeDto representing the node.
+   * @param participants the participants
+   * @param start        the position to start from
+   * @param resolved     the results so far, by position; {@link #UNRESOLVED} for positions not visited yet
+   * @param path         space for the positions visited, as long as {@code participants}
+   * @return the position of the participant without entry number the chain ends at, or a negative value if the chain is a cycle
    */
-  private TournamentStandingsTreeDto createTree(TournamentStandingsTreeDto[] branches) {
-    LOG.trace("createTree with branches({}, {})", branches[0], branches[1]);
-
-    TournamentStandingsTreeDto result;
-    if (branches[0].thisParticipant() != null && branches[1].thisParticipant() != null
-            && branches[0].thisParticipant().roundReached() < branches[1].thisParticipant().roundReached()) {
-      result = new TournamentStandingsTreeDto(branches[1].thisParticipant(), branches);
-    } else if (branches[0].thisParticipant() != null && branches[1].thisParticipant() != null
-            && branches[0].thisParticipant().roundReached() > branches[1].thisParticipant().roundReached()) {
-      result = new TournamentStandingsTreeDto(branches[0].thisParticipant(), branches);
-    } else {
-      result = new TournamentStandingsTreeDto(null, branches);
+  private static int resolveEntry(TournamentDetailParticipantDto[] participants, int start, int[] resolved, int[] path) {
+    int length = 0;
+    int key = start;
+    int result;
+    while (true) {
+      if (resolved[key] >= 0 || resolved[key] == CYCLE) {
+        result = resolved[key];
+        break;
+      }
+      if (resolved[key] == VISITING) {
+        result = CYCLE;
+        break;
+      }
+      if (participants[key].entryNumber() == -1) {
+        result = key;
+        break;
+      }
+      resolved[key] = VISITING;
+      path[length++] = key;
+      key = participants[key].entryNumber();
+    }
+    for (int i = 0; i < length; i++) {
+      resolved[path[i]] = result;
     }
     return result;
   }
 
+  /**
+   * Gets the participant that won a node, given the participants that won its two branches.
+   *
+   * @param first  the participant of the first branch, or null
+   * @param second the participant of the second branch, or null
+   * @return the participant that reached the later round, or null if the node has not been decided yet
+   */
+  private static TournamentDetailParticipantDto winner(TournamentDetailParticipantDto first, TournamentDetailParticipantDto second) {
+    if (first == null || second == null || first.roundReached().equals(second.roundReached())) {
+      return null;
+    }
+    return first.roundReached() > second.roundReached() ? first : second;
+  }
+
   /**
    * Converts a TournamentDetailsDto to a TournamentStandingsDto representing the first round standings.
    *
@@ -196,7 +251,7 @@ public class TournamentMapper {
               participants[i].name(), participants[i].dateOfBirth(), participants[i].entryNumber(), 0);
     }
 
-    TournamentStandingsTreeDto tree = participantsToTree(newParticipants, 1);
-    return new TournamentStandingsDto(tournament.id(), tournament.name(), newParticipants, tree);
+    TournamentStandingsBracketDto tree = participantsToTree(newParticipants, 1);
+    return new TournamentStandingsDto(tournament.id(), tournament.name(), newParticipants, tree, tournament.version());
   }
 }
@@ -1,6 +1,5 @@
 package at.ac.tuwien.sepr.assignment.individual.persistence;
 
-import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Breed;
 import java.util.Collection;
 import java.util.Set;
@@ -24,12 +23,4 @@ public interface BreedDao {
    * @return A collection containing the breeds found.
    */
   Collection<Breed> findBreedsById(Set<Long> breedIds);
-
-  /**
-   * Searches for breeds based on the provided search parameters.
-   *
-   * @param searchParams The parameters used for searching breeds.
-   * @return A collection containing the breeds found based on the search criteria.
-   */
-  Collection<Breed> search(BreedSearchDto searchParams);
 }
@@ -6,6 +6,7 @@ import java.sql.SQLException;
 import javax.sql.DataSource;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.context.annotation.Profile;
 import org.springframework.core.io.ClassPathResource;
 import org.springframework.jdbc.datasource.init.ScriptUtils;
@@ -20,14 +21,17 @@ import org.springframework.stereotype.Component;
 public class DataGeneratorBean {
   private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   private final DataSource dataSource;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Constructs a new DataGeneratorBean with the specified DataSource.
    *
-   * @param dataSource the DataSource used for database operations
+   * @param dataSource     the DataSource used for database operations
+   * @param eventPublisher the publisher of the {@link DataResetEvent} sent after the data has been changed
    */
-  public DataGeneratorBean(DataSource dataSource) {
+  public DataGeneratorBean(DataSource dataSource, ApplicationEventPublisher eventPublisher) {
     this.dataSource = dataSource;
+    this.eventPublisher = eventPublisher;
   }
 
 
@@ -43,6 +47,7 @@ public class DataGeneratorBean {
       ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/insertData.sql"));
       LOGGER.info("Finished generating data without error.");
     }
+    eventPublisher.publishEvent(new DataResetEvent());
   }
 
   /**
@@ -56,5 +61,6 @@ public class DataGeneratorBean {
       ScriptUtils.executeSqlScript(connection, new ClassPathResource("sql/deleteData.sql"));
       LOGGER.info("Finished clearing data without error");
     }
+    eventPublisher.publishEvent(new DataResetEvent());
   }
 }
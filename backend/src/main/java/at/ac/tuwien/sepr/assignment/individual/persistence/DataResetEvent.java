@@ -0,0 +1,9 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+/**
+ * Application event published after the data in the persistent data store has been replaced
+ * bypassing the services, e.g. by the {@link DataGeneratorBean}.
+ * Components holding data of the persistent data store in memory have to drop it, when they receive this event.
+ */
+public record DataResetEvent() {
+}
@@ -0,0 +1,33 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+/**
+ * Interface for reading full dumps of the data in the persistence layer.
+ * The rows are passed to an {@link ExportSink} one by one, as they are read, so a dump is never held in memory.
+ * An {@link java.io.UncheckedIOException} thrown while reading wraps an {@link java.io.IOException} of the sink.
+ */
+public interface ExportDao {
+
+  /**
+   * Passes all horses, with the name of their breed, ordered by ID, to the sink.
+   * The columns are {@code id, name, sex, dateOfBirth, height, weight, breedId, breedName}.
+   *
+   * @param sink the receiver of the rows
+   */
+  void exportHorses(ExportSink sink);
+
+  /**
+   * Passes all tournaments, ordered by ID, to the sink.
+   * The columns are {@code id, name, startDate, endDate}.
+   *
+   * @param sink the receiver of the rows
+   */
+  void exportTournaments(ExportSink sink);
+
+  /**
+   * Passes all participants of all tournaments, ordered by tournament and entry number, to the sink.
+   * The columns are {@code id, tournamentId, horseId, horseName, entryNumber, roundReached}.
+   *
+   * @param sink the receiver of the rows
+   */
+  void exportParticipants(ExportSink sink);
+}
@@ -0,0 +1,42 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+import java.io.IOException;
+import java.util.List;
+
+/**
+ * Receiver of the rows of an export, value by value, as they are read from the persistent data store.
+ * The values are handed over as the text the data store gives for them, so no object is built per row.
+ */
+public interface ExportSink {
+
+  /**
+   * Starts the export; called once, before the first row.
+   *
+   * @param columns the names of the columns, in the order the values of every row are passed
+   * @throws IOException if writing fails
+   */
+  void header(List<String> columns) throws IOException;
+
+  /**
+   * Passes the next value of the current row, which is text, e.g. a name, a sex or a date.
+   *
+   * @param value the value, or null if it is missing
+   * @throws IOException if writing fails
+   */
+  void text(String value) throws IOException;
+
+  /**
+   * Passes the next value of the current row, which is a number.
+   *
+   * @param value the digits of the number, or null if it is missing
+   * @throws IOException if writing fails
+   */
+  void number(String value) throws IOException;
+
+  /**
+   * Ends the current row, after all its values have been passed.
+   *
+   * @throws IOException if writing fails
+   */
+  void endRow() throws IOException;
+}
@@ -3,13 +3,19 @@ package at.ac.tuwien.sepr.assignment.individual.persistence;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepr.assignment.individual.entity.HorseStats;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Data Access Object for horses.
  * Implements access functionality to the application's persistent data store regarding horses.
+ * Horses are always read together with the name of their breed, see {@link Horse#getBreedName()}.
  */
 public interface HorseDao {
 
@@ -23,6 +29,42 @@ public interface HorseDao {
    */
   Collection<Horse> search(HorseSearchDto searchParameters);
 
+  /**
+   * Get the horses that match the given search parameters and have one of the given IDs.
+   * Parameters that are {@code null} are ignored; if {@code ids} is {@code null}, the IDs are not restricted.
+   *
+   * @param searchParameters the parameters to use in searching.
+   * @param ids the IDs of the candidate horses, e.g. as found by an index on the name.
+   * @return the horses where all given parameters match.
+   */
+  Collection<Horse> search(HorseSearchDto searchParameters, Set<Long> ids);
+
+  /**
+   * Passes the horses that match the given search parameters and have one of the given IDs to {@code action},
+   * one by one, as they are read from the persistent data store.
+   * Unlike {@link #search(HorseSearchDto, Set)}, the horses are never all held in memory at the same time.
+   *
+   * @param searchParameters the parameters to use in searching.
+   * @param ids the IDs of the candidate horses, or {@code null} if the IDs are not restricted.
+   * @param action the action to perform for each matching horse, in the order of the search.
+   */
+  void searchEach(HorseSearchDto searchParameters, Set<Long> ids, Consumer<Horse> action);
+
+  /**
+   * Get the names of all horses in the persistent data store.
+   *
+   * @return the names of all horses, identified by the ID of the horse.
+   */
+  Map<Long, String> findAllNames();
+
+  /**
+   * Get the careers of the given horses in tournaments, aggregated in one query.
+   *
+   * @param ids the IDs of the horses
+   * @return the careers of those of the horses that exist, by the ID of the horse
+   */
+  Map<Long, HorseStats> findStats(Set<Long> ids);
+
 
   /**
    * Update the horse with the ID given in {@code horse}
@@ -54,6 +96,27 @@ public interface HorseDao {
    */
   Horse insert(HorseDetailDto horse) throws ConflictException;
 
+  /**
+   * Find the horses of the given list, that are equal to a horse in the persistent data store
+   * or to a horse earlier in the list.
+   * Two horses are equal, if all their data except the ID is equal.
+   * A horse written concurrently may be missed; {@link #insertAll(List)} still rejects it.
+   *
+   * @param horses the horses to check
+   * @return the positions in {@code horses} of the horses that are duplicates
+   */
+  Set<Integer> findDuplicates(List<HorseDetailDto> horses);
+
+  /**
+   * Insert the given horses into the persistent data store in one batch.
+   * The horses are expected to have been checked by {@link #findDuplicates(List)};
+   * if one of them is equal to a stored horse nevertheless, the others are inserted one by one.
+   *
+   * @param horses the horses to insert
+   * @return the IDs of the inserted horses, in the order of {@code horses}; null for a horse equal to a stored one
+   */
+  List<Long> insertAll(List<HorseDetailDto> horses);
+
   /**
    * Delete the horse with the specified ID from the persistent data store.
    *
@@ -3,12 +3,19 @@ package at.ac.tuwien.sepr.assignment.individual.persistence;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.MatchRecord;
+import at.ac.tuwien.sepr.assignment.individual.entity.MatchResult;
 import at.ac.tuwien.sepr.assignment.individual.entity.Participant;
+import at.ac.tuwien.sepr.assignment.individual.entity.ParticipationFact;
+import at.ac.tuwien.sepr.assignment.individual.entity.PointContribution;
 import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 
+import java.time.LocalDate;
 import java.util.Collection;
+import java.util.List;
 
 /**
  * Data Access Object for tournaments.
@@ -54,20 +61,96 @@ public interface TournamentDao {
   Tournament insert(TournamentCreateDto tournament) throws ConflictException;
 
   /**
-   * Retrieves the participants for the first round of the tournament identified by the given ID.
+   * Retrieves the results of all horses in all tournaments, that earned the horse points, i.e. reached at least round 2.
    *
-   * @param id The ID of the tournament.
-   * @return An array of participants for the first round.
-   * @throws NotFoundException If the tournament with the given ID is not found.
+   * @return the results, in no particular order
    */
-  Participant[] getParticipantsForFirstRound(long id) throws NotFoundException;
+  Collection<PointContribution> findPointContributions();
 
   /**
-   * Updates the standings of tournament participants.
+   * Retrieves the matches the given horses won and lost in the tournaments that ended before the given date.
    *
-   * @param participants The array of tournament participant details to be updated.
-   * @return An array of updated tournament participants.
-   * @throws NotFoundException If a participant with some ID is not found.
+   * @param horseIds    the IDs of the horses
+   * @param endedBefore the date before which the tournaments must have ended
+   * @return the records of the horses that played at least one match in such a tournament, in no particular order
    */
-  Participant[] updateParticipants(TournamentDetailParticipantDto[] participants) throws NotFoundException;
+  Collection<MatchRecord> findMatchRecords(Collection<Long> horseIds, LocalDate endedBefore);
+
+  /**
+   * Retrieves all participations of horses in tournaments, with the attributes of the horses and tournaments.
+   *
+   * @return the participations, in no particular order
+   */
+  List<ParticipationFact> findParticipationFacts();
+
+  /**
+   * Retrieves all participations in the tournaments the given horses participate in,
+   * with the attributes of the horses and tournaments.
+   *
+   * @param horseIds the IDs of the horses
+   * @return the participations of all participants of the tournaments of the horses, in no particular order
+   */
+  List<ParticipationFact> findParticipationFacts(Collection<Long> horseIds);
+
+  /**
+   * Retrieves the results of all decided matches, in the order they were played:
+   * by the end date of their tournament, and by round within a tournament.
+   *
+   * @return the results of all matches
+   */
+  List<MatchResult> findMatchHistory();
+
+  /**
+   * Retrieves the results of the decided matches of a tournament.
+   *
+   * @param id the ID of the tournament
+   * @return the results, in no particular order
+   */
+  Collection<MatchResult> findMatchResults(long id);
+
+  /**
+   * Retrieves the result of a single match.
+   *
+   * @param id    the ID of the tournament
+   * @param round the round of the match, counted from 1
+   * @param slot  the slot of the match within its round, counted from 0
+   * @return the result of the match
+   * @throws NotFoundException if the match has not been decided
+   */
+  MatchResult findMatchResult(long id, int round, int slot) throws NotFoundException;
+
+  /**
+   * Updates the standings of the participants of a tournament and increments the version of the tournament.
+   * The decided matches are rebuilt from the saved standings of all participants.
+   * The standings are only updated, if the tournament still has the expected version,
+   * so that concurrent saves of the same tournament do not overwrite each other unnoticed.
+   *
+   * @param id              The ID of the tournament.
+   * @param expectedVersion The version of the tournament the new standings are based on.
+   * @param participants    The array of tournament participant details to be updated.
+   * @return The tournament with its new version and all its participants, as read back after the update.
+   * @throws NotFoundException   If the tournament, or a participant of it with some ID, is not found.
+   * @throws ValidationException If the participants are not all participants of the tournament, each of them once.
+   * @throws ConflictException   If the tournament has been saved since the expected version.
+   */
+  Tournament updateParticipants(long id, long expectedVersion, TournamentDetailParticipantDto[] participants)
+      throws NotFoundException, ValidationException, ConflictException;
+
+  /**
+   * Records the winner of a single match and increments the version of the tournament.
+   * The match in slot {@code slot} of round {@code round} is played by the participants at the entry numbers {@code 2 * slot} and
+   * {@code 2 * slot + 1} in round 1, and by the winners of the slots {@code 2 * slot} and {@code 2 * slot + 1} of the round before otherwise.
+   * The winner reaches round {@code round + 1}, the other competitor stays at {@code round}.
+   * Only the rows of the match and of its two competitors are written, whatever the size of the bracket.
+   *
+   * @param id       The ID of the tournament.
+   * @param round    The round of the match, counted from 1.
+   * @param slot     The slot of the match within its round, counted from 0.
+   * @param winnerId The ID of the participant that won the match.
+   * @return The tournament with its new version, and with the two competitors of the match, with their new round reached, as participants.
+   * @throws NotFoundException If the tournament is not found.
+   * @throws ConflictException If the competitors of the match are not known yet, the winner is not one of them,
+   *                           or the match the winner goes on to has already been decided.
+   */
+  Tournament recordMatchWinner(long id, int round, int slot, long winnerId) throws NotFoundException, ConflictException;
 }
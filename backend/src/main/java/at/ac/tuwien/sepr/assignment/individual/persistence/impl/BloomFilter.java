@@ -0,0 +1,90 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * In-memory Bloom filter over SHA-256 fingerprints.
+ * Answers whether a fingerprint may have been added, without false negatives and with a small share of false positives,
+ * so that a lookup in the persistent data store is only needed for fingerprints the filter may contain.
+ *
+ * <p>The fingerprints are hashes already, so the bit positions are taken from their bytes directly
+ * instead of hashing them again. Fingerprints can not be removed; adding and testing is safe from several threads.
+ */
+public class BloomFilter {
+  private static final int HASH_COUNT = 7;
+  // about 10 bits per fingerprint give a false positive rate of about 1% with 7 bit positions
+  private static final int BITS_PER_ENTRY = 10;
+
+  private final AtomicLongArray bits;
+  private final long bitCount;
+  private final int capacity;
+  private final LongAdder added = new LongAdder();
+
+  /**
+   * Constructs a new, empty BloomFilter.
+   *
+   * @param capacity the number of fingerprints the filter is sized for; beyond it, the false positive rate rises
+   */
+  public BloomFilter(int capacity) {
+    this.capacity = Math.max(capacity, 64);
+    int words = (int) Math.min(Integer.MAX_VALUE - 8, ((long) this.capacity * BITS_PER_ENTRY + 63) / 64);
+    this.bits = new AtomicLongArray(words);
+    this.bitCount = (long) words * 64;
+  }
+
+  /**
+   * Checks whether more fingerprints have been added than the filter is sized for.
+   *
+   * @return true if the filter should be replaced by a larger one
+   */
+  public boolean isFull() {
+    return added.sum() > capacity;
+  }
+
+  /**
+   * Adds a fingerprint to the filter.
+   *
+   * @param fingerprint the SHA-256 fingerprint to add
+   */
+  public void add(byte[] fingerprint) {
+    long h1 = longAt(fingerprint, 0);
+    long h2 = longAt(fingerprint, 8);
+    for (int i = 0; i < HASH_COUNT; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      int word = (int) (bit >>> 6);
+      long mask = 1L << bit;
+      long current = bits.get(word);
+      while ((current & mask) == 0 && !bits.compareAndSet(word, current, current | mask)) {
+        current = bits.get(word);
+      }
+    }
+    added.increment();
+  }
+
+  /**
+   * Checks whether a fingerprint may have been added to the filter.
+   *
+   * @param fingerprint the SHA-256 fingerprint to check
+   * @return false if the fingerprint has certainly not been added, true if it may have been added
+   */
+  public boolean mightContain(byte[] fingerprint) {
+    long h1 = longAt(fingerprint, 0);
+    long h2 = longAt(fingerprint, 8);
+    for (int i = 0; i < HASH_COUNT; i++) {
+      long bit = Math.floorMod(h1 + i * h2, bitCount);
+      if ((bits.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private static long longAt(byte[] bytes, int offset) {
+    long value = 0;
+    for (int i = offset; i < offset + 8; i++) {
+      value = (value << 8) | (bytes[i] & 0xFF);
+    }
+    return value;
+  }
+}
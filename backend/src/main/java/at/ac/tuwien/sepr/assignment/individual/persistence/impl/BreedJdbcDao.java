@@ -1,6 +1,5 @@
 package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
 
-import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Breed;
 import at.ac.tuwien.sepr.assignment.individual.persistence.BreedDao;
 import java.lang.invoke.MethodHandles;
@@ -11,7 +10,6 @@ import java.util.Map;
 import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Repository;
 
@@ -27,10 +25,6 @@ public class BreedJdbcDao implements BreedDao {
   private static final String SQL_FIND_BY_IDS =
       "SELECT * FROM " + TABLE_NAME
           + " WHERE id IN (:ids)";
-  private static final String SQL_SEARCH =
-      "SELECT * FROM " + TABLE_NAME
-          + " WHERE UPPER(name) LIKE UPPER('%'||:name||'%')";
-  private static final String SQL_LIMIT_CLAUSE = " LIMIT :limit";
 
   private final NamedParameterJdbcTemplate jdbcTemplate;
 
@@ -55,16 +49,6 @@ public class BreedJdbcDao implements BreedDao {
     return jdbcTemplate.query(SQL_FIND_BY_IDS, Map.of("ids", breedIds), this::mapRow);
   }
 
-  @Override
-  public Collection<Breed> search(BreedSearchDto searchParams) {
-    LOG.trace("search parameters({})", searchParams);
-    String query = SQL_SEARCH;
-    if (searchParams.limit() != null) {
-      query += SQL_LIMIT_CLAUSE;
-    }
-    return jdbcTemplate.query(query, new BeanPropertySqlParameterSource(searchParams), this::mapRow);
-  }
-
   /**
    * Maps a row from the ResultSet to a Breed object.
    *
@@ -0,0 +1,135 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import at.ac.tuwien.sepr.assignment.individual.persistence.ExportDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.ExportSink;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.invoke.MethodHandles;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Types;
+import java.util.ArrayList;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ResultSetExtractor;
+import org.springframework.stereotype.Repository;
+
+/**
+ * Repository class implementing ExportDao interface for JDBC operations.
+ * Every export is a single query, whose forward-only, read-only result set is walked once,
+ * passing the values of each row straight from the result set to the sink.
+ * The queries are run lazily by the {@link StreamingJdbcTemplate}, and each is ordered by an index,
+ * so H2 computes the rows as they are read instead of building the whole dump first.
+ */
+@Repository
+public class ExportJdbcDao implements ExportDao {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  // the column labels are quoted, so that they keep their case and name the columns of the export
+  private static final String SQL_EXPORT_HORSES = "SELECT h.id AS \"id\", h.name AS \"name\", h.sex AS \"sex\","
+      + " h.date_of_birth AS \"dateOfBirth\", h.height AS \"height\", h.weight AS \"weight\","
+      + " h.breed_id AS \"breedId\", b.name AS \"breedName\""
+      + " FROM horse h LEFT OUTER JOIN breed b ON (h.breed_id = b.id)"
+      + " ORDER BY h.id";
+
+  private static final String SQL_EXPORT_TOURNAMENTS = "SELECT t.id AS \"id\", t.name AS \"name\","
+      + " t.start_date AS \"startDate\", t.end_date AS \"endDate\""
+      + " FROM tournament t"
+      + " ORDER BY t.id";
+
+  private static final String SQL_EXPORT_PARTICIPANTS = "SELECT p.id AS \"id\", p.tournament_id AS \"tournamentId\","
+      + " p.id_horse AS \"horseId\", h.name AS \"horseName\", p.entry_number AS \"entryNumber\", p.round_reached AS \"roundReached\""
+      + " FROM participant p LEFT OUTER JOIN horse h ON (p.id_horse = h.id)"
+      + " ORDER BY p.tournament_id, p.entry_number";
+
+  private final JdbcTemplate jdbcExport;
+
+  /**
+   * Constructs a new ExportJdbcDao with the specified streaming JDBC templates.
+   *
+   * @param streaming The JDBC templates computing rows lazily and fetching them in batches, which the exports are read with.
+   */
+  public ExportJdbcDao(StreamingJdbcTemplate streaming) {
+    this.jdbcExport = streaming.getJdbcTemplate();
+  }
+
+  @Override
+  public void exportHorses(ExportSink sink) {
+    LOG.trace("exportHorses()");
+    export(SQL_EXPORT_HORSES, sink);
+  }
+
+  @Override
+  public void exportTournaments(ExportSink sink) {
+    LOG.trace("exportTournaments()");
+    export(SQL_EXPORT_TOURNAMENTS, sink);
+  }
+
+  @Override
+  public void exportParticipants(ExportSink sink) {
+    LOG.trace("exportParticipants()");
+    export(SQL_EXPORT_PARTICIPANTS, sink);
+  }
+
+  /**
+   * Runs the export query and passes the header and every row to the sink.
+   * The header is passed even if the query has no rows.
+   *
+   * @param sql  the export query
+   * @param sink the receiver of the rows
+   */
+  private void export(String sql, ExportSink sink) {
+    long rows = jdbcExport.query(sql, (ResultSetExtractor<Long>) result -> {
+      try {
+        return writeRows(result, sink);
+      } catch (IOException e) {
+        throw new UncheckedIOException(e);
+      }
+    });
+    LOG.debug("Exported {} rows", rows);
+  }
+
+  /**
+   * Passes the header and every row of a result set to a sink.
+   *
+   * @param result the result set, before its first row
+   * @param sink   the receiver of the rows
+   * @return the number of rows
+   * @throws SQLException if reading the result set fails
+   * @throws IOException  if the sink fails to write
+   */
+  private long writeRows(ResultSet result, ExportSink sink) throws SQLException, IOException {
+    var metaData = result.getMetaData();
+    int columnCount = metaData.getColumnCount();
+    var columns = new ArrayList<String>(columnCount);
+    // whether a column is a number is looked up once, not for every row
+    boolean[] numeric = new boolean[columnCount + 1];
+    for (int column = 1; column <= columnCount; column++) {
+      columns.add(metaData.getColumnLabel(column));
+      numeric[column] = isNumeric(metaData.getColumnType(column));
+    }
+    sink.header(columns);
+    long rows = 0;
+    while (result.next()) {
+      for (int column = 1; column <= columnCount; column++) {
+        if (numeric[column]) {
+          sink.number(result.getString(column));
+        } else {
+          sink.text(result.getString(column));
+        }
+      }
+      sink.endRow();
+      rows++;
+    }
+    return rows;
+  }
+
+  private static boolean isNumeric(int sqlType) {
+    return switch (sqlType) {
+      case Types.TINYINT, Types.SMALLINT, Types.INTEGER, Types.BIGINT, Types.NUMERIC, Types.DECIMAL, Types.REAL, Types.FLOAT,
+          Types.DOUBLE -> true;
+      default -> false;
+    };
+  }
+}
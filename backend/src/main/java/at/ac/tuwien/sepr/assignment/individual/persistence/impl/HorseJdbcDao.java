@@ -2,31 +2,50 @@ package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
 import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepr.assignment.individual.entity.HorseStats;
 import at.ac.tuwien.sepr.assignment.individual.entity.Participant;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.DataResetEvent;
 import at.ac.tuwien.sepr.assignment.individual.persistence.HorseDao;
 import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import java.lang.invoke.MethodHandles;
-import java.sql.PreparedStatement;
-import java.sql.Statement;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.sql.ResultSet;
 import java.sql.SQLException;
 import java.sql.Types;
-import java.sql.Date;
+import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 /**
  * Repository class implementing HorseDao interface for JDBC operations
@@ -37,52 +56,102 @@ public class HorseJdbcDao implements HorseDao {
 
   private static final String TABLE_NAME = "horse";
   private static final String TABLE_PARTICIPANT = "participant";
-  private static final String SQL_SELECT_BY_ID = "SELECT * FROM " + TABLE_NAME + " WHERE id = ?";
-  private static final String SQL_SELECT_SEARCH = "SELECT  "
+  // every horse is read together with the name of its breed, so that no second query for the breeds is needed
+  private static final String SQL_SELECT_COLUMNS = "SELECT  "
           + "    h.id as \"id\", h.name as \"name\", h.sex as \"sex\", h.date_of_birth as \"date_of_birth\""
-          + "    , h.height as \"height\", h.weight as \"weight\", h.breed_id as \"breed_id\""
-          + " FROM " + TABLE_NAME + " h LEFT OUTER JOIN breed b ON (h.breed_id = b.id)"
-          + " WHERE (:name IS NULL OR UPPER(h.name) LIKE UPPER('%'||:name||'%'))"
-          + "  AND (:sex IS NULL OR :sex = sex)"
-          + "  AND (:bornEarliest IS NULL OR :bornEarliest <= h.date_of_birth)"
-          + "  AND (:bornLatest IS NULL OR :bornLatest >= h.date_of_birth)"
-          + "  AND (:breed IS NULL OR UPPER(b.name) LIKE UPPER('%'||:breed||'%'))";
+          + "    , h.height as \"height\", h.weight as \"weight\", h.breed_id as \"breed_id\", b.name as \"breed_name\"";
+  private static final String SQL_JOIN_BREED = " LEFT OUTER JOIN breed b ON (h.breed_id = b.id)";
+  private static final String SQL_SELECT_SEARCH = SQL_SELECT_COLUMNS
+          + " FROM " + TABLE_NAME + " h"
+          + SQL_JOIN_BREED;
+  private static final String SQL_SELECT_BY_ID = SQL_SELECT_SEARCH + " WHERE h.id = ?";
+  private static final String SQL_SELECT_NAMES = "SELECT id, name FROM " + TABLE_NAME;
+
+  // the search conditions are only added for the parameters that are set, so that H2 can pick an index for them
+  private static final String SQL_WHERE_NAME = "h.name_upper LIKE UPPER(:name) ESCAPE '\\'";
+  private static final String SQL_WHERE_SEX = "h.sex = :sex";
+  private static final String SQL_WHERE_BORN_EARLIEST = "h.date_of_birth >= :bornEarliest";
+  private static final String SQL_WHERE_BORN_LATEST = "h.date_of_birth <= :bornLatest";
+  private static final String SQL_WHERE_BREED = "UPPER(b.name) LIKE UPPER(:breed) ESCAPE '\\'";
+  private static final String SQL_WHERE_IDS = "h.id IN (:ids)";
+  private static final String SQL_WHERE_CURSOR = "(h.name > :cursorKey OR (h.name = :cursorKey AND h.id > :cursorId))";
+
+  private static final String SQL_ORDER_CLAUSE = " ORDER BY h.name, h.id";
 
   private static final String SQL_LIMIT_CLAUSE = " LIMIT :limit";
 
-  private static final String SQL_UPDATE = "UPDATE " + TABLE_NAME
+  // insert and update read back the written horse with its breed in the same statement;
+  // an equal horse is rejected by the unique index on the fingerprint, see createSchema.sql
+  private static final String SQL_UPDATE = SQL_SELECT_COLUMNS
+      + " FROM FINAL TABLE (UPDATE " + TABLE_NAME
       + " SET name = ?"
       + "  , sex = ?"
       + "  , date_of_birth = ?"
       + "  , height = ?"
       + "  , weight = ?"
       + "  , breed_id = ?"
-      + " WHERE id = ?";
+      + " WHERE id = ?"
+      + ") h" + SQL_JOIN_BREED;
+
+  private static final String SQL_INSERT = SQL_SELECT_COLUMNS
+      + " FROM FINAL TABLE (INSERT INTO " + TABLE_NAME + "(name, sex, date_of_birth, height, weight, breed_id)"
+      + " VALUES (?, ?, ?, ?, ?, ?)"
+      + ") h" + SQL_JOIN_BREED;
 
-  private static final String SQL_INSERT = "INSERT INTO " + TABLE_NAME + "(name, sex, date_of_birth, height, weight, breed_id)"
-          + " VALUES (?, ?, ?, ?, ?, ?)";
+  private static final String SQL_SELECT_FINGERPRINTS = "SELECT fingerprint FROM " + TABLE_NAME;
 
-  private static final String SQL_EQUAL = "SELECT * FROM " + TABLE_NAME + " WHERE name = ? "
-          + "AND sex = ? AND date_of_birth = ? AND height = ? AND weight = ? AND (breed_id = ? OR (breed_id IS NULL AND ? IS NULL))";
+  private static final String SQL_EQUAL = "SELECT COUNT(*) FROM " + TABLE_NAME + " WHERE fingerprint = ?";
+
+  private static final String SQL_SELECT_EXISTING_FINGERPRINTS = "SELECT fingerprint FROM " + TABLE_NAME
+      + " WHERE fingerprint IN (:fingerprints)";
+
+  private static final String SQL_INSERT_BATCH = "INSERT INTO " + TABLE_NAME + "(name, sex, date_of_birth, height, weight, breed_id)"
+      + " VALUES (:name, :sex, :dateOfBirth, :height, :weight, :breedId)";
 
   private static final String SQL_DELETE = "DELETE FROM " + TABLE_NAME + " WHERE id = ?";
 
+  // grouped over the index on participant.id_horse; horses without participations are kept by the outer joins
+  private static final String SQL_SELECT_STATS = "SELECT h.id AS id, COUNT(p.id) AS tournaments"
+      + "  , COALESCE(MAX(p.round_reached), 0) AS best_round"
+      + "  , COALESCE(SUM(CASE WHEN p.round_reached > 1 THEN p.round_reached - 1 ELSE 0 END), 0) AS matches_won"
+      + "  , MIN(t.start_date) AS first_tournament, MAX(t.end_date) AS last_tournament"
+      + " FROM " + TABLE_NAME + " h"
+      + " LEFT OUTER JOIN " + TABLE_PARTICIPANT + " p ON (p.id_horse = h.id)"
+      + " LEFT OUTER JOIN tournament t ON (p.tournament_id = t.id)"
+      + " WHERE h.id IN (:ids)"
+      + " GROUP BY h.id";
+
   private static final String SQL_IS_PARTICIPANT = "SELECT * FROM " + TABLE_PARTICIPANT + " WHERE id_horse = ?";
 
+  /**
+   * Number of fingerprints the Bloom filter is sized for at least; it is sized for twice the number of horses when it is built.
+   */
+  private static final int MIN_FILTER_CAPACITY = 1024;
+
   private final JdbcTemplate jdbcTemplate;
   private final NamedParameterJdbcTemplate jdbcNamed;
+  private final NamedParameterJdbcTemplate jdbcStreaming;
+  private final TransactionTemplate transactionTemplate;
+  // built on first use, and dropped when the horses are replaced bypassing this DAO
+  private volatile BloomFilter fingerprintFilter;
 
   /**
    * Constructs a new HorseJdbcDao with the specified JDBC named template and JDBC template.
    *
    * @param jdbcNamed   The JDBC named template used for named parameter JDBC operations.
    * @param jdbcTemplate The JDBC template used for performing basic JDBC operations.
+   * @param streaming The JDBC templates computing rows lazily and fetching them in batches, used for streamed searches.
+   * @param transactionManager The transaction manager used for inserting horses in batches atomically.
    */
   public HorseJdbcDao(
       NamedParameterJdbcTemplate jdbcNamed,
-      JdbcTemplate jdbcTemplate) {
+      JdbcTemplate jdbcTemplate,
+      StreamingJdbcTemplate streaming,
+      PlatformTransactionManager transactionManager) {
     this.jdbcTemplate = jdbcTemplate;
     this.jdbcNamed = jdbcNamed;
+    this.jdbcStreaming = streaming.getNamedParameterJdbcTemplate();
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   @Override
@@ -103,84 +172,222 @@ public class HorseJdbcDao implements HorseDao {
 
   @Override
   public Collection<Horse> search(HorseSearchDto searchParameters) {
-    LOG.trace("search({})", searchParameters);
-    var query = SQL_SELECT_SEARCH;
+    return search(searchParameters, null);
+  }
+
+  @Override
+  public Collection<Horse> search(HorseSearchDto searchParameters, Set<Long> ids) {
+    LOG.trace("search({}, {})", searchParameters, ids);
+    if (ids != null && ids.isEmpty()) {
+      return List.of();
+    }
+    var params = new MapSqlParameterSource();
+    return jdbcNamed.query(searchQuery(searchParameters, ids, params), params, this::mapRow);
+  }
+
+  @Override
+  public void searchEach(HorseSearchDto searchParameters, Set<Long> ids, Consumer<Horse> action) {
+    LOG.trace("searchEach({}, {})", searchParameters, ids);
+    if (ids != null && ids.isEmpty()) {
+      return;
+    }
+    var params = new MapSqlParameterSource();
+    // the row callback sees each row as soon as the driver has fetched it, and the lazy query computes the rows as they are fetched,
+    // ordered by the index on name and ID, so no list of all horses is built
+    jdbcStreaming.query(searchQuery(searchParameters, ids, params), params,
+        (RowCallbackHandler) result -> action.accept(mapRow(result, result.getRow())));
+  }
+
+  /**
+   * Builds the search query for the given parameters, with only the conditions for the parameters that are set.
+   *
+   * @param searchParameters the parameters to use in searching
+   * @param ids              the IDs of the candidate horses, or null if the IDs are not restricted
+   * @param params           the parameter source, to which the values of the named parameters of the query are added
+   * @return the search query
+   */
+  private String searchQuery(HorseSearchDto searchParameters, Set<Long> ids, MapSqlParameterSource params) {
+    var query = new StringBuilder(SQL_SELECT_SEARCH);
+    var conditions = new ArrayList<String>();
+    if (searchParameters.breed() != null) {
+      conditions.add(SQL_WHERE_BREED);
+      params.addValue("breed", containsPattern(searchParameters.breed()));
+    }
+    if (searchParameters.name() != null) {
+      conditions.add(SQL_WHERE_NAME);
+      params.addValue("name", containsPattern(searchParameters.name()));
+    }
+    if (ids != null) {
+      conditions.add(SQL_WHERE_IDS);
+      params.addValue("ids", ids);
+    }
+    if (searchParameters.sex() != null) {
+      conditions.add(SQL_WHERE_SEX);
+      params.addValue("sex", searchParameters.sex().toString(), Types.VARCHAR);
+    }
+    if (searchParameters.bornEarliest() != null) {
+      conditions.add(SQL_WHERE_BORN_EARLIEST);
+      params.addValue("bornEarliest", searchParameters.bornEarliest());
+    }
+    if (searchParameters.bornLatest() != null) {
+      conditions.add(SQL_WHERE_BORN_LATEST);
+      params.addValue("bornLatest", searchParameters.bornLatest());
+    }
+    if (searchParameters.cursor() != null) {
+      var cursor = PageCursor.decode(searchParameters.cursor());
+      conditions.add(SQL_WHERE_CURSOR);
+      params.addValue("cursorKey", cursor.sortKey())
+          .addValue("cursorId", cursor.id());
+    }
+    if (!conditions.isEmpty()) {
+      query.append(" WHERE ").append(String.join(" AND ", conditions));
+    }
+    query.append(SQL_ORDER_CLAUSE);
     if (searchParameters.limit() != null) {
-      query += SQL_LIMIT_CLAUSE;
+      query.append(SQL_LIMIT_CLAUSE);
+      params.addValue("limit", searchParameters.limit());
     }
-    var params = new BeanPropertySqlParameterSource(searchParameters);
-    params.registerSqlType("sex", Types.VARCHAR);
+    return query.toString();
+  }
+
 
-    return jdbcNamed.query(query, params, this::mapRow);
+  @Override
+  public Map<Long, String> findAllNames() {
+    LOG.trace("findAllNames()");
+    Map<Long, String> names = new HashMap<>();
+    jdbcTemplate.query(SQL_SELECT_NAMES, (RowCallbackHandler) result -> names.put(result.getLong("id"), result.getString("name")));
+    return names;
   }
 
+  @Override
+  public Map<Long, HorseStats> findStats(Set<Long> ids) {
+    LOG.trace("findStats({} ids)", ids.size());
+    Map<Long, HorseStats> stats = new HashMap<>();
+    if (ids.isEmpty()) {
+      return stats;
+    }
+    jdbcNamed.query(SQL_SELECT_STATS, Map.of("ids", ids), (RowCallbackHandler) result -> stats.put(result.getLong("id"), new HorseStats(
+        result.getLong("id"),
+        result.getInt("tournaments"),
+        result.getInt("best_round"),
+        result.getInt("matches_won"),
+        result.getObject("first_tournament", LocalDate.class),
+        result.getObject("last_tournament", LocalDate.class))));
+    return stats;
+  }
 
   @Override
   public Horse update(HorseDetailDto horse) throws NotFoundException, ConflictException {
     LOG.trace("update({})", horse);
-    if (isEqualExist(horse)) {
-      List<String> conflictErrors = new ArrayList<>();
-      conflictErrors.add("The same horse was found.");
-      throw new ConflictException("Conflict was detected", conflictErrors);
+    var parameters = new ArrayList<>(horseParameters(horse));
+    parameters.add(horse.id());
+    List<Horse> updated;
+    try {
+      updated = jdbcTemplate.query(SQL_UPDATE, this::mapRow, parameters.toArray());
+    } catch (DuplicateKeyException e) {
+      throw sameHorseConflict();
     }
-    int updated = jdbcTemplate.update(SQL_UPDATE,
-        horse.name(),
-        horse.sex().toString(),
-        horse.dateOfBirth(),
-        horse.height(),
-        horse.weight(),
-            horse.breed() != null ? horse.breed().id() : null,
-        horse.id());
-    if (updated == 0) {
+    if (updated.isEmpty()) {
+      // only on failure a second query is needed, to tell an equal horse from a missing one
+      if (isEqualExist(horse)) {
+        throw sameHorseConflict();
+      }
       throw new NotFoundException("Could not update horse with ID " + horse.id() + ", because it does not exist");
     }
-
-    return new Horse()
-        .setId(horse.id())
-        .setName(horse.name())
-        .setSex(horse.sex())
-        .setDateOfBirth(horse.dateOfBirth())
-        .setHeight(horse.height())
-        .setWeight(horse.weight())
-            .setBreedId(horse.breed() != null ? horse.breed().id() : null);
+    addToFilter(fingerprint(horse));
+    return updated.get(0);
   }
 
   @Override
   public Horse insert(HorseDetailDto horse) throws ConflictException {
     LOG.trace("insert({})", horse);
-    if (isEqualExist(horse)) {
-      List<String> conflictErrors = new ArrayList<>();
-      conflictErrors.add("The same horse was found.");
-      throw new ConflictException("Conflict was detected", conflictErrors);
+    List<Horse> inserted;
+    try {
+      inserted = jdbcTemplate.query(SQL_INSERT, this::mapRow, horseParameters(horse).toArray());
+    } catch (DuplicateKeyException e) {
+      throw sameHorseConflict();
+    }
+    addToFilter(fingerprint(horse));
+    return inserted.get(0);
+  }
+
+  @Override
+  public Set<Integer> findDuplicates(List<HorseDetailDto> horses) {
+    LOG.trace("findDuplicates({} horses)", horses.size());
+    var filter = fingerprintFilter();
+    var seen = new HashSet<ByteBuffer>();
+    var duplicates = new HashSet<Integer>();
+    var candidates = new HashMap<ByteBuffer, List<Integer>>();
+    for (int i = 0; i < horses.size(); i++) {
+      byte[] fingerprint = fingerprint(horses.get(i));
+      var key = ByteBuffer.wrap(fingerprint);
+      if (!seen.add(key)) {
+        duplicates.add(i);
+      } else if (filter.mightContain(fingerprint)) {
+        // only horses the filter may have seen are looked up; for all others no equal horse can exist
+        candidates.computeIfAbsent(key, k -> new ArrayList<>()).add(i);
+      }
+    }
+    if (!candidates.isEmpty()) {
+      var fingerprints = candidates.keySet().stream().map(ByteBuffer::array).toList();
+      jdbcNamed.query(SQL_SELECT_EXISTING_FINGERPRINTS, Map.of("fingerprints", fingerprints),
+          (RowCallbackHandler) result -> duplicates.addAll(candidates.getOrDefault(ByteBuffer.wrap(result.getBytes("fingerprint")), List.of())));
+    }
+    return duplicates;
+  }
+
+  @Override
+  public List<Long> insertAll(List<HorseDetailDto> horses) {
+    LOG.trace("insertAll({} horses)", horses.size());
+    if (horses.isEmpty()) {
+      return List.of();
     }
-    KeyHolder keyHolder = new GeneratedKeyHolder();
-    int inserted = jdbcTemplate.update(connection -> {
-      PreparedStatement ps = connection.prepareStatement(SQL_INSERT, Statement.RETURN_GENERATED_KEYS);
-      ps.setString(1, horse.name());
-      ps.setString(2, horse.sex().toString());
-      ps.setDate(3, Date.valueOf(horse.dateOfBirth()));
-      ps.setDouble(4, horse.height());
-      ps.setDouble(5, horse.weight());
-      if (horse.breed() != null) {
-        ps.setLong(6, horse.breed().id());
-      } else {
-        ps.setNull(6, Types.INTEGER);
+    SqlParameterSource[] batch = horses.stream()
+        .map(horse -> new MapSqlParameterSource()
+            .addValue("name", horse.name())
+            .addValue("sex", horse.sex().toString(), Types.VARCHAR)
+            .addValue("dateOfBirth", horse.dateOfBirth())
+            .addValue("height", scaled(horse.height()))
+            .addValue("weight", scaled(horse.weight()))
+            .addValue("breedId", horse.breed() != null ? horse.breed().id() : null, Types.BIGINT))
+        .toArray(SqlParameterSource[]::new);
+    List<Long> ids;
+    try {
+      // in one transaction, so that a failed batch leaves no horse behind
+      ids = transactionTemplate.execute(status -> {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        jdbcNamed.batchUpdate(SQL_INSERT_BATCH, batch, keyHolder, new String[] {"id"});
+        return keyHolder.getKeyList().stream()
+            .map(keys -> ((Number) keys.values().iterator().next()).longValue())
+            .toList();
+      });
+    } catch (DuplicateKeyException e) {
+      // an equal horse was written after the duplicates were checked; insert one by one to find out which
+      LOG.debug("Batch insert hit an equal horse, inserting {} horses one by one", horses.size());
+      ids = new ArrayList<>(horses.size());
+      for (HorseDetailDto horse : horses) {
+        try {
+          ids.add(insert(horse).getId());
+        } catch (ConflictException conflict) {
+          ids.add(null);
+        }
       }
-      return ps;
-    }, keyHolder);
-    if (inserted > 0) {
-      long generatedID = keyHolder.getKey().intValue();
-      return new Horse()
-              .setId(generatedID)
-              .setName(horse.name())
-              .setSex(horse.sex())
-              .setDateOfBirth(horse.dateOfBirth())
-              .setHeight(horse.height())
-              .setWeight(horse.weight())
-              .setBreedId(horse.breed() != null ? horse.breed().id() : null);
-    } else {
-      throw new IllegalStateException("No rows affected after insertion.");
+      return ids;
     }
+    horses.forEach(horse -> addToFilter(fingerprint(horse)));
+    return ids;
+  }
+
+  /**
+   * Drops the Bloom filter of fingerprints, after the horses in the persistent data store have been replaced bypassing this DAO.
+   * It is built again when it is next needed.
+   *
+   * @param event the event telling that the data has been replaced
+   */
+  @EventListener
+  public void onDataReset(DataResetEvent event) {
+    LOG.trace("onDataReset()");
+    fingerprintFilter = null;
   }
 
   @Override
@@ -222,22 +429,117 @@ public class HorseJdbcDao implements HorseDao {
         .setHeight(result.getFloat("height"))
         .setWeight(result.getFloat("weight"))
         .setBreedId(result.getObject("breed_id", Long.class))
+        .setBreedName(result.getString("breed_name"))
         ;
   }
 
+  /**
+   * Rounds a height or weight to the precision it is stored with, so that it is written exactly as given here.
+   *
+   * @param value the height or weight
+   * @return the value with two decimal places, or null if {@code value} is null
+   */
+  private static BigDecimal scaled(Float value) {
+    return value == null ? null : new BigDecimal(Float.toString(value)).setScale(2, RoundingMode.HALF_UP);
+  }
+
+  /**
+   * Builds a LIKE pattern matching every value that contains {@code value} as a substring.
+   * Wildcards in {@code value} itself are escaped, so that they match literally.
+   *
+   * @param value the substring to search for
+   * @return the LIKE pattern
+   */
+  private static String containsPattern(String value) {
+    return "%" + value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_") + "%";
+  }
+
   /**
    * Checks if a horse with the same attributes already exists in the database.
+   * This is a single probe of the unique index on the fingerprint, or none at all, if the Bloom filter rules the horse out.
    *
    * @param horse the HorseDetailDto object representing the horse to be checked
    * @return true if a horse with the same attributes exists, false otherwise
    */
   private boolean isEqualExist(HorseDetailDto horse) {
     LOG.trace("isEqualExist({})", horse);
-    List<Horse> horses = jdbcTemplate.query(SQL_EQUAL, this::mapRow,
-            horse.name(), horse.sex().toString(), horse.dateOfBirth(),
-            horse.height(), horse.weight(), horse.breed() != null ? horse.breed().id() : null,
-            horse.breed() != null ? horse.breed().id() : null);
-    return !horses.isEmpty();
+    byte[] fingerprint = fingerprint(horse);
+    if (!fingerprintFilter().mightContain(fingerprint)) {
+      return false;
+    }
+    Integer count = jdbcTemplate.queryForObject(SQL_EQUAL, Integer.class, (Object) fingerprint);
+    return count != null && count > 0;
+  }
+
+  /**
+   * Gets the Bloom filter of the fingerprints of all horses, building it from the persistent data store if needed.
+   * It is built again once more horses have been added than it is sized for, so that its false positive rate stays low.
+   *
+   * @return the Bloom filter
+   */
+  private BloomFilter fingerprintFilter() {
+    var filter = fingerprintFilter;
+    if (filter != null && !filter.isFull()) {
+      return filter;
+    }
+    synchronized (this) {
+      if (fingerprintFilter == null || fingerprintFilter.isFull()) {
+        List<byte[]> fingerprints = jdbcTemplate.query(SQL_SELECT_FINGERPRINTS, (result, rownum) -> result.getBytes("fingerprint"));
+        var built = new BloomFilter(Math.max(MIN_FILTER_CAPACITY, 2 * fingerprints.size()));
+        fingerprints.forEach(built::add);
+        LOG.debug("Built Bloom filter of {} horse fingerprints", fingerprints.size());
+        fingerprintFilter = built;
+      }
+      return fingerprintFilter;
+    }
+  }
+
+  private void addToFilter(byte[] fingerprint) {
+    var filter = fingerprintFilter;
+    if (filter != null) {
+      filter.add(fingerprint);
+    }
+  }
+
+  /**
+   * Computes the fingerprint of a horse, exactly as the database computes the column {@code fingerprint}, see createSchema.sql.
+   * Height and weight are written rounded by {@link #scaled(Float)}, so that the text of the stored values is known here.
+   *
+   * @param horse the horse to compute the fingerprint of
+   * @return the SHA-256 hash of the data identifying the horse
+   */
+  private static byte[] fingerprint(HorseDetailDto horse) {
+    String text = horse.sex() + "|" + horse.dateOfBirth()
+        + "|" + textOf(scaled(horse.height())) + "|" + textOf(scaled(horse.weight()))
+        + "|" + (horse.breed() != null ? horse.breed().id() : "")
+        + "|" + horse.name();
+    try {
+      return MessageDigest.getInstance("SHA-256").digest(text.getBytes(StandardCharsets.UTF_8));
+    } catch (NoSuchAlgorithmException e) {
+      // every Java platform has to support SHA-256
+      throw new FatalException("SHA-256 is not available", e);
+    }
+  }
+
+  private static String textOf(BigDecimal value) {
+    return value == null ? "" : value.toPlainString();
+  }
+
+  private static ConflictException sameHorseConflict() {
+    List<String> conflictErrors = new ArrayList<>();
+    conflictErrors.add("The same horse was found.");
+    return new ConflictException("Conflict was detected", conflictErrors);
+  }
+
+  /**
+   * Gets the values of the columns of a horse, in the order of the columns in {@link #SQL_INSERT} and {@link #SQL_UPDATE}.
+   *
+   * @param horse the horse to get the values of
+   * @return the values of name, sex, date of birth, height, weight and breed ID
+   */
+  private static List<Object> horseParameters(HorseDetailDto horse) {
+    return Arrays.asList(horse.name(), horse.sex().toString(), horse.dateOfBirth(),
+        scaled(horse.height()), scaled(horse.weight()), horse.breed() != null ? horse.breed().id() : null);
   }
 
   /**
@@ -0,0 +1,121 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.sql.Statement;
+import javax.sql.DataSource;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.stereotype.Component;
+
+/**
+ * The JDBC templates for queries whose rows are streamed to a callback instead of collected into a list,
+ * e.g. streamed searches and exports, shared by the DAOs running such queries.
+ * They read from the same data source as the other templates, but switch the H2 session of every connection they borrow
+ * to lazy query execution, and back before returning it; only then does H2 compute the rows of a result set as it is read,
+ * in batches of {@link #FETCH_SIZE}, instead of building the whole result before returning the first row.
+ * A query that has to be sorted on columns no index is ordered by is still computed completely first.
+ * The result sets are forward-only and read-only, as with every JdbcTemplate.
+ *
+ * <p>The templates are wrapped instead of being beans of their own, as further beans of their types
+ * would replace the templates configured by Spring Boot for all other queries.
+ * Their queries are not meant to run within a transaction, as they do not take part in the transactions of the other templates.
+ */
+@Component
+public class StreamingJdbcTemplate {
+  /**
+   * Number of rows the driver fetches per round trip.
+   * Large enough to keep the round trips few, small enough to keep the memory used per query constant.
+   */
+  static final int FETCH_SIZE = 500;
+
+  private static final String SQL_LAZY_QUERY_EXECUTION = "SET LAZY_QUERY_EXECUTION ";
+
+  private final JdbcTemplate jdbcTemplate;
+  private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+  /**
+   * Constructs the streaming templates over the data source of the given template.
+   *
+   * @param jdbcTemplate The JDBC template whose data source the rows are read from.
+   */
+  public StreamingJdbcTemplate(JdbcTemplate jdbcTemplate) {
+    this.jdbcTemplate = new JdbcTemplate(new LazyQueryDataSource(jdbcTemplate.getDataSource()));
+    this.jdbcTemplate.setFetchSize(FETCH_SIZE);
+    this.namedParameterJdbcTemplate = new NamedParameterJdbcTemplate(this.jdbcTemplate);
+  }
+
+  /**
+   * Gets the streaming template for queries with positional parameters.
+   *
+   * @return the template
+   */
+  public JdbcTemplate getJdbcTemplate() {
+    return jdbcTemplate;
+  }
+
+  /**
+   * Gets the streaming template for queries with named parameters.
+   *
+   * @return the template
+   */
+  public NamedParameterJdbcTemplate getNamedParameterJdbcTemplate() {
+    return namedParameterJdbcTemplate;
+  }
+
+  private static void setLazyQueryExecution(Connection connection, boolean lazy) throws SQLException {
+    try (Statement statement = connection.createStatement()) {
+      statement.execute(SQL_LAZY_QUERY_EXECUTION + (lazy ? "TRUE" : "FALSE"));
+    }
+  }
+
+  /**
+   * Hands out the connections of the pool with lazy query execution switched on.
+   * The setting belongs to the session of a connection, so it is switched off again when the connection is closed,
+   * before it goes back to the pool, and the other templates never get a lazy connection.
+   */
+  private static final class LazyQueryDataSource extends DelegatingDataSource {
+
+    private LazyQueryDataSource(DataSource dataSource) {
+      super(dataSource);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+      return lazy(super.getConnection());
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+      return lazy(super.getConnection(username, password));
+    }
+
+    private static Connection lazy(Connection connection) throws SQLException {
+      try {
+        setLazyQueryExecution(connection, true);
+      } catch (SQLException e) {
+        connection.close();
+        throw e;
+      }
+      return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(), new Class<?>[] {Connection.class},
+          (proxy, method, args) -> {
+            if (method.getName().equals("close") && !connection.isClosed()) {
+              try {
+                setLazyQueryExecution(connection, false);
+              } finally {
+                connection.close();
+              }
+              return null;
+            }
+            try {
+              return method.invoke(connection, args);
+            } catch (InvocationTargetException e) {
+              throw e.getTargetException();
+            }
+          });
+    }
+  }
+}
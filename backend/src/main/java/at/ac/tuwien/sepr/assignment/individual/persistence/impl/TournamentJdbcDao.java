@@ -1,35 +1,48 @@
 package at.ac.tuwien.sepr.assignment.individual.persistence.impl;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSelectionDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.MatchRecord;
+import at.ac.tuwien.sepr.assignment.individual.entity.MatchResult;
 import at.ac.tuwien.sepr.assignment.individual.entity.Participant;
+import at.ac.tuwien.sepr.assignment.individual.entity.ParticipationFact;
+import at.ac.tuwien.sepr.assignment.individual.entity.PointContribution;
 import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepr.assignment.individual.persistence.TournamentDao;
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.jdbc.core.JdbcTemplate;
-import org.springframework.jdbc.core.namedparam.BeanPropertySqlParameterSource;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
 import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
 import org.springframework.jdbc.support.GeneratedKeyHolder;
 import org.springframework.jdbc.support.KeyHolder;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import java.lang.invoke.MethodHandles;
 import java.sql.Date;
 import java.sql.PreparedStatement;
 import java.sql.ResultSet;
 import java.sql.SQLException;
-import java.sql.Statement;
+import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collection;
-import java.util.Comparator;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Repository class implementing TournamentDao interface for JDBC operations
@@ -41,15 +54,14 @@ public class TournamentJdbcDao implements TournamentDao {
   private static final String TABLE_NAME_TOURNAMENT = "tournament";
   private static final String TABLE_NAME_PARTICIPANT = "participant";
   private static final String TABLE_NAME_HORSE = "horse";
+  private static final String TABLE_NAME_MATCH = "tournament_match";
 
   private static final String SQL_INSERT_TOURNAMENT = "INSERT INTO " + TABLE_NAME_TOURNAMENT + "(name, start_date, end_date)"
           + " VALUES (?, ?, ?)";
   private static final String SQL_INSERT_PARTICIPANT = "INSERT INTO " + TABLE_NAME_PARTICIPANT + "(id_horse, tournament_id,"
           + " entry_number, round_reached)"
-          + " VALUES (?, ?, ?, ?)";
+          + " VALUES (:horseId, :tournamentId, -1, 0)";
 
-  private static final String SQL_EQUAL = "SELECT * FROM " + TABLE_NAME_TOURNAMENT + " WHERE name = ? "
-          + "AND start_date = ? AND end_date = ?";
   private static final String SQL_SELECT_BY_ID_TOURNAMENT = "SELECT * FROM " + TABLE_NAME_TOURNAMENT + " WHERE id = ?";
   private static final String SQL_SELECT_BY_ID_PARTICIPANT = "SELECT p.id as \"id\", p.id_horse as \"id_horse\", p.tournament_id as \"tournament_id\", "
           + "h.name as \"horse_name\", h.date_of_birth as \"date_of_birth\", p.entry_number as \"entry_number\", p.round_reached as \"round_reached\""
@@ -58,46 +70,147 @@ public class TournamentJdbcDao implements TournamentDao {
           + "WHERE tournament_id = ?";
 
   private static final String SQL_SELECT_SEARCH = "SELECT "
-          + "id, name, start_date, end_date FROM " + TABLE_NAME_TOURNAMENT
-          + " WHERE (:name IS NULL OR UPPER(name) LIKE UPPER('%'||:name||'%'))"
-          + "  AND (:startDate IS NULL OR :startDate <= end_date)"
-          + "  AND (:endDate IS NULL OR :endDate >= start_date)"
-          + " ORDER BY start_date DESC";
-
-  private static final String SQL_FOR_FIRST_ROUND = "SELECT p.id as \"id\", p.id_horse as \"id_horse\", p.tournament_id as \"tournament_id\", "
-          + "h.name as \"horse_name\", h.date_of_birth as \"date_of_birth\", p.entry_number as \"entry_number\", p.round_reached as \"round_reached\" "
-          + "FROM " + TABLE_NAME_PARTICIPANT + " p "
-          + "JOIN " + TABLE_NAME_TOURNAMENT + " t ON (p.tournament_id = t.id) "
-          + "JOIN " + TABLE_NAME_HORSE + " h ON (p.id_horse = h.id) "
-          + "WHERE p.id_horse = ? "
-          + "AND TIMESTAMPDIFF(MONTH, ?, t.end_date) < 12";
+          + "id, name, start_date, end_date, version FROM " + TABLE_NAME_TOURNAMENT
+          + " WHERE (:name IS NULL OR UPPER(name) LIKE UPPER('%'||:name||'%'))";
+
+  // the date filters are only added when given, so that the range on start_date can be taken from the index on it;
+  // a tournament ending on or after :startDate can not have started more than the longest duration before it,
+  // which bounds the range from below; the longest duration is read from the index on duration_days
+  private static final String SQL_END_DATE_CLAUSE = "  AND start_date <= :endDate";
+  private static final String SQL_START_DATE_CLAUSE = "  AND end_date >= :startDate"
+          + "  AND start_date >= DATEADD(DAY, -(SELECT MAX(duration_days) FROM " + TABLE_NAME_TOURNAMENT + "), CAST(:startDate AS DATE))";
+
+  private static final String SQL_CURSOR_CLAUSE = "  AND (start_date < :cursorKey OR (start_date = :cursorKey AND id < :cursorId))";
+
+  private static final String SQL_ORDER_CLAUSE = " ORDER BY start_date DESC, id DESC";
+
+  private static final String SQL_LIMIT_CLAUSE = " LIMIT :limit";
+
+  private static final String SQL_SELECT_POINT_CONTRIBUTIONS = "SELECT p.id_horse, p.tournament_id, t.end_date, p.round_reached"
+          + " FROM " + TABLE_NAME_PARTICIPANT + " p JOIN " + TABLE_NAME_TOURNAMENT + " t ON (p.tournament_id = t.id)"
+          + " WHERE p.round_reached > 1";
+
+  // the final round of a tournament is the highest round reached in it, so every participant that reached less was knocked out;
+  // only the tournaments of the given horses are grouped, which the index on id_horse finds
+  private static final String SQL_SELECT_MATCH_RECORDS = "SELECT p.id_horse,"
+          + " SUM(p.round_reached - 1) AS won,"
+          + " SUM(CASE WHEN p.round_reached < f.final_round THEN 1 ELSE 0 END) AS lost"
+          + " FROM " + TABLE_NAME_PARTICIPANT + " p"
+          + " JOIN " + TABLE_NAME_TOURNAMENT + " t ON (p.tournament_id = t.id)"
+          + " JOIN (SELECT tournament_id, MAX(round_reached) AS final_round FROM " + TABLE_NAME_PARTICIPANT
+          + "   WHERE tournament_id IN (SELECT tournament_id FROM " + TABLE_NAME_PARTICIPANT + " WHERE id_horse IN (:horseIds))"
+          + "   GROUP BY tournament_id) f ON (p.tournament_id = f.tournament_id)"
+          + " WHERE p.id_horse IN (:horseIds) AND p.round_reached >= 1 AND t.end_date < :endedBefore"
+          + " GROUP BY p.id_horse";
+
+  private static final String SQL_SELECT_PARTICIPATION_FACTS = "SELECT p.id, p.tournament_id, p.id_horse, h.breed_id, h.sex, h.date_of_birth,"
+          + " t.start_date, p.round_reached"
+          + " FROM " + TABLE_NAME_PARTICIPANT + " p"
+          + " JOIN " + TABLE_NAME_HORSE + " h ON (p.id_horse = h.id)"
+          + " JOIN " + TABLE_NAME_TOURNAMENT + " t ON (p.tournament_id = t.id)";
+
+  // all participants of the tournaments of the given horses, so that the final round of every such tournament is known
+  private static final String SQL_WHERE_TOURNAMENTS_OF_HORSES = " WHERE p.tournament_id IN"
+          + " (SELECT tournament_id FROM " + TABLE_NAME_PARTICIPANT + " WHERE id_horse IN (:horseIds))";
 
   private static final String SQL_UPDATE_PARTICIPANT = "UPDATE " + TABLE_NAME_PARTICIPANT
           + " SET round_reached = ?"
           + ", entry_number = ?"
+          + " WHERE id = ? AND tournament_id = ?";
+
+  private static final String SQL_INCREMENT_VERSION = "UPDATE " + TABLE_NAME_TOURNAMENT
+          + " SET version = version + 1"
           + " WHERE id = ?";
 
+  private static final String SQL_VERSION_CLAUSE = " AND version = ?";
+
+  private static final String SQL_SELECT_COMPETITOR_COLUMNS = "SELECT p.id, p.id_horse, h.name, h.date_of_birth, p.entry_number, p.round_reached";
+
+  private static final String SQL_SELECT_FIRST_ROUND_COMPETITORS = SQL_SELECT_COMPETITOR_COLUMNS
+          + " FROM " + TABLE_NAME_PARTICIPANT + " p JOIN " + TABLE_NAME_HORSE + " h ON (p.id_horse = h.id)"
+          + " WHERE p.tournament_id = ? AND p.entry_number IN (?, ?)";
+
+  private static final String SQL_SELECT_MATCH_WINNERS = SQL_SELECT_COMPETITOR_COLUMNS
+          + " FROM " + TABLE_NAME_MATCH + " m JOIN " + TABLE_NAME_PARTICIPANT + " p ON (m.winner_id = p.id)"
+          + " JOIN " + TABLE_NAME_HORSE + " h ON (p.id_horse = h.id)"
+          + " WHERE m.tournament_id = ? AND m.round = ? AND m.slot IN (?, ?)";
+
+  private static final String SQL_COUNT_MATCH = "SELECT COUNT(*) FROM " + TABLE_NAME_MATCH
+          + " WHERE tournament_id = ? AND round = ? AND slot = ?";
+
+  private static final String SQL_MERGE_MATCH = "MERGE INTO " + TABLE_NAME_MATCH + " (tournament_id, round, slot, winner_id, loser_id)"
+          + " KEY (tournament_id, round, slot) VALUES (?, ?, ?, ?, ?)";
+
+  private static final String SQL_INSERT_MATCH = "INSERT INTO " + TABLE_NAME_MATCH + " (tournament_id, round, slot, winner_id, loser_id)"
+          + " VALUES (?, ?, ?, ?, ?)";
+
+  // the horses that won and lost the matches, with the sex and breed the leaderboards of the ratings are split by
+  private static final String SQL_SELECT_MATCH_RESULTS = "SELECT m.tournament_id, m.round, m.slot,"
+          + " w.id_horse AS winner_id, wh.sex AS winner_sex, wh.breed_id AS winner_breed_id,"
+          + " l.id_horse AS loser_id, lh.sex AS loser_sex, lh.breed_id AS loser_breed_id"
+          + " FROM " + TABLE_NAME_MATCH + " m"
+          + " JOIN " + TABLE_NAME_PARTICIPANT + " w ON (m.winner_id = w.id) JOIN " + TABLE_NAME_HORSE + " wh ON (w.id_horse = wh.id)"
+          + " JOIN " + TABLE_NAME_PARTICIPANT + " l ON (m.loser_id = l.id) JOIN " + TABLE_NAME_HORSE + " lh ON (l.id_horse = lh.id)";
+
+  private static final String SQL_MATCH_HISTORY = SQL_SELECT_MATCH_RESULTS
+          + " JOIN " + TABLE_NAME_TOURNAMENT + " t ON (m.tournament_id = t.id)"
+          + " ORDER BY t.end_date, t.id, m.round, m.slot";
+
+  private static final String SQL_WHERE_MATCH_TOURNAMENT = " WHERE m.tournament_id = ?";
+
+  private static final String SQL_WHERE_MATCH = " WHERE m.tournament_id = ? AND m.round = ? AND m.slot = ?";
+
+  private static final String SQL_DELETE_MATCHES = "DELETE FROM " + TABLE_NAME_MATCH + " WHERE tournament_id = ?";
+
+  private static final String SQL_UPDATE_MATCH_COMPETITORS = "UPDATE " + TABLE_NAME_PARTICIPANT
+          + " SET round_reached = CASE WHEN id = ? THEN ? ELSE ? END"
+          + " WHERE tournament_id = ? AND id IN (?, ?)";
+
   private final JdbcTemplate jdbcTemplate;
   private final NamedParameterJdbcTemplate jdbcNamed;
+  private final TransactionTemplate transactionTemplate;
 
   /**
    * Constructs a new TournamentJdbcDao with the specified JDBC named template and JDBC template.
    *
-   * @param jdbcNamed   The JDBC named template used for named parameter JDBC operations.
-   * @param jdbcTemplate The JDBC template used for performing basic JDBC operations.
+   * @param jdbcNamed          The JDBC named template used for named parameter JDBC operations.
+   * @param jdbcTemplate       The JDBC template used for performing basic JDBC operations.
+   * @param transactionManager The transaction manager used for writing a tournament and its participants atomically.
    */
   public TournamentJdbcDao(
           NamedParameterJdbcTemplate jdbcNamed,
-          JdbcTemplate jdbcTemplate) {
+          JdbcTemplate jdbcTemplate,
+          PlatformTransactionManager transactionManager) {
     this.jdbcTemplate = jdbcTemplate;
     this.jdbcNamed = jdbcNamed;
+    this.transactionTemplate = new TransactionTemplate(transactionManager);
   }
 
   @Override
   public Collection<Tournament> search(TournamentSearchDto searchParameters) {
     LOG.trace("search({})", searchParameters);
     var query = SQL_SELECT_SEARCH;
-    var params = new BeanPropertySqlParameterSource(searchParameters);
+    var params = new MapSqlParameterSource()
+        .addValue("name", searchParameters.name())
+        .addValue("startDate", searchParameters.startDate())
+        .addValue("endDate", searchParameters.endDate())
+        .addValue("limit", searchParameters.limit());
+    if (searchParameters.startDate() != null) {
+      query += SQL_START_DATE_CLAUSE;
+    }
+    if (searchParameters.endDate() != null) {
+      query += SQL_END_DATE_CLAUSE;
+    }
+    if (searchParameters.cursor() != null) {
+      var cursor = PageCursor.decode(searchParameters.cursor());
+      query += SQL_CURSOR_CLAUSE;
+      params.addValue("cursorKey", LocalDate.parse(cursor.sortKey()))
+          .addValue("cursorId", cursor.id());
+    }
+    query += SQL_ORDER_CLAUSE;
+    if (searchParameters.limit() != null) {
+      query += SQL_LIMIT_CLAUSE;
+    }
     return jdbcNamed.query(query, params, this::mapRowTournament);
   }
 
@@ -130,85 +243,198 @@ public class TournamentJdbcDao implements TournamentDao {
   }
 
   @Override
-  public Participant[] updateParticipants(TournamentDetailParticipantDto[] participants) throws NotFoundException {
-    LOG.trace("update({})", Arrays.toString(participants));
-    Participant[] result = new Participant[participants.length];
-    for (int i = 0; i < participants.length; i++) {
-      int updated = jdbcTemplate.update(SQL_UPDATE_PARTICIPANT,
-              participants[i].roundReached(),
-              participants[i].entryNumber(),
-              participants[i].id());
-      if (updated == 0) {
-        throw new NotFoundException("Could not update participant with ID " + participants[i].id() + ", because it does not exist");
+  public Tournament updateParticipants(long id, long expectedVersion, TournamentDetailParticipantDto[] participants)
+      throws NotFoundException, ValidationException, ConflictException {
+    LOG.trace("update({}, {}, {})", id, expectedVersion, Arrays.toString(participants));
+    List<Object[]> batch = Arrays.stream(participants)
+        .map(participant -> new Object[] {participant.roundReached(), participant.entryNumber(), participant.id(), id})
+        .toList();
+    // the version and all participants in one transaction, so that a failed save leaves the bracket and its version unchanged;
+    // the conditional increment of the version locks the row of the tournament, so concurrent saves of it can not interleave
+    UpdateOutcome outcome = transactionTemplate.execute(status -> {
+      if (jdbcTemplate.update(SQL_INCREMENT_VERSION + SQL_VERSION_CLAUSE, id, expectedVersion) == 0) {
+        return new UpdateOutcome(null, null, null);
       }
-      result[i] = new Participant()
-              .setId(participants[i].id())
-              .setHorseId(participants[i].horseId())
-              .setName(participants[i].name())
-              .setDateOfBirth(participants[i].dateOfBirth())
-              .setEntryNumber(participants[i].entryNumber())
-              .setRoundReached(participants[i].roundReached());
+      int[] updated = jdbcTemplate.batchUpdate(SQL_UPDATE_PARTICIPANT, batch);
+      for (int i = 0; i < updated.length; i++) {
+        if (updated[i] == 0) {
+          status.setRollbackOnly();
+          return new UpdateOutcome(null, i, null);
+        }
+      }
+      // the whole bracket is rebuilt below, so standings leaving out some participants would erase their matches
+      List<Participant> stored = jdbcTemplate.query(SQL_SELECT_BY_ID_PARTICIPANT, this::mapRowParticipant, id);
+      Set<Long> given = Arrays.stream(participants).map(TournamentDetailParticipantDto::id).collect(Collectors.toSet());
+      if (given.size() != participants.length || given.size() != stored.size()) {
+        status.setRollbackOnly();
+        return new UpdateOutcome(null, null, "The standings give %d participants, but tournament %d has %d"
+            .formatted(participants.length, id, stored.size()));
+      }
+      // the decided matches are derived from the saved standings, so that single results can be recorded on top of them
+      jdbcTemplate.update(SQL_DELETE_MATCHES, id);
+      jdbcTemplate.batchUpdate(SQL_INSERT_MATCH, matchesOf(id, stored));
+      // the saved rows are returned, not the payload, so that the horse and name of every participant are the stored ones
+      return new UpdateOutcome(jdbcTemplate.query(SQL_SELECT_BY_ID_TOURNAMENT, this::mapRowTournament, id).get(0)
+          .setParticipants(stored.toArray(new Participant[0])), null, null);
+    });
+    if (outcome.invalid() != null) {
+      throw new ValidationException("The standings must give every participant of the tournament exactly once", List.of(outcome.invalid()));
+    }
+    if (outcome.missingParticipant() != null) {
+      throw new NotFoundException("Could not update participant with ID " + participants[outcome.missingParticipant()].id()
+          + ", because it does not exist in tournament " + id);
+    }
+    if (outcome.tournament() == null) {
+      var current = getTournamentById(id);
+      throw new ConflictException("The standings have been saved by someone else in the meantime",
+          List.of("Tournament %d has version %d, but the saved standings are based on version %d".formatted(id, current.getVersion(), expectedVersion)));
+    }
+    return outcome.tournament();
+  }
+
+  @Override
+  public Tournament recordMatchWinner(long id, int round, int slot, long winnerId) throws NotFoundException, ConflictException {
+    LOG.trace("recordMatchWinner({}, {}, {}, {})", id, round, slot, winnerId);
+    // the increment of the version locks the row of the tournament, so that concurrent results of it are recorded one after the other;
+    // only the two competitors, the match and the next match are read, whatever the size of the bracket
+    MatchOutcome outcome = transactionTemplate.execute(status -> {
+      if (jdbcTemplate.update(SQL_INCREMENT_VERSION, id) == 0) {
+        return new MatchOutcome(null, null);
+      }
+      List<Participant> competitors = round == 1
+          ? jdbcTemplate.query(SQL_SELECT_FIRST_ROUND_COMPETITORS, this::mapRowParticipant, id, 2 * slot, 2 * slot + 1)
+          : jdbcTemplate.query(SQL_SELECT_MATCH_WINNERS, this::mapRowParticipant, id, round - 1, 2 * slot, 2 * slot + 1);
+      String conflict = null;
+      if (competitors.size() != 2) {
+        conflict = round == 1
+            ? "The match %d of round 1 has not been drawn".formatted(slot)
+            : "The matches of round %d leading to match %d of round %d have not been decided yet".formatted(round - 1, slot, round);
+      } else if (competitors.stream().noneMatch(competitor -> competitor.getId() == winnerId)) {
+        conflict = "Participant %d does not compete in match %d of round %d".formatted(winnerId, slot, round);
+      } else if (jdbcTemplate.queryForObject(SQL_COUNT_MATCH, Integer.class, id, round + 1, slot / 2) > 0) {
+        conflict = "The match %d of round %d, that the winner goes on to, has already been decided".formatted(slot / 2, round + 1);
+      }
+      if (conflict != null) {
+        status.setRollbackOnly();
+        return new MatchOutcome(null, conflict);
+      }
+      long loserId = competitors.get(0).getId() == winnerId ? competitors.get(1).getId() : competitors.get(0).getId();
+      jdbcTemplate.update(SQL_MERGE_MATCH, id, round, slot, winnerId, loserId);
+      jdbcTemplate.update(SQL_UPDATE_MATCH_COMPETITORS, winnerId, round + 1, round, id, winnerId, loserId);
+      for (Participant competitor : competitors) {
+        competitor.setRoundReached(competitor.getId() == winnerId ? round + 1 : round);
+      }
+      return new MatchOutcome(jdbcTemplate.query(SQL_SELECT_BY_ID_TOURNAMENT, this::mapRowTournament, id).get(0)
+          .setParticipants(competitors.toArray(new Participant[0])), null);
+    });
+    if (outcome.conflict() != null) {
+      throw new ConflictException("The result of the match can not be recorded", List.of(outcome.conflict()));
+    }
+    if (outcome.tournament() == null) {
+      throw new NotFoundException("No tournament with ID %d found".formatted(id));
+    }
+    return outcome.tournament();
+  }
+
+  /**
+   * Derives the decided matches from the standings of all participants of a tournament,
+   * as the standings tree does: a match is won by the competitor that reached the later round.
+   *
+   * @param id           the ID of the tournament
+   * @param participants all participants of the tournament, as saved
+   * @return the rows of the decided matches; none, if the entry numbers do not place every participant at a distinct position
+   */
+  private List<Object[]> matchesOf(long id, List<Participant> participants) {
+    var competitors = new Participant[participants.size()];
+    for (Participant participant : participants) {
+      int entryNumber = participant.getEntryNumber();
+      if (entryNumber < 0 || entryNumber >= competitors.length || competitors[entryNumber] != null) {
+        return List.of();
+      }
+      competitors[entryNumber] = participant;
+    }
+    List<Object[]> matches = new ArrayList<>();
+    for (int round = 1; competitors.length > 1; round++) {
+      var winners = new Participant[competitors.length / 2];
+      for (int slot = 0; slot < winners.length; slot++) {
+        var first = competitors[2 * slot];
+        var second = competitors[2 * slot + 1];
+        if (first != null && second != null && first.getRoundReached() != second.getRoundReached()) {
+          winners[slot] = first.getRoundReached() > second.getRoundReached() ? first : second;
+          matches.add(new Object[] {id, round, slot, winners[slot].getId(), (winners[slot] == first ? second : first).getId()});
+        }
+      }
+      competitors = winners;
     }
-    return result;
+    return matches;
   }
 
   @Override
   public Tournament insert(TournamentCreateDto tournament) throws ConflictException {
     LOG.trace("insert({})", tournament);
-    if (isEqualExist(tournament)) {
+    try {
+      // the tournament and its participants in one transaction, so that a failure leaves no partial bracket behind
+      return transactionTemplate.execute(status -> {
+        KeyHolder keyHolder = new GeneratedKeyHolder();
+        // an equal tournament is rejected by the unique index on the fingerprint, see createSchema.sql;
+        // only the ID is asked for, as the generated fingerprint would be returned as a key too
+        int insertedTournament = jdbcTemplate.update(connection -> {
+          PreparedStatement ps = connection.prepareStatement(SQL_INSERT_TOURNAMENT, new String[] {"id"});
+          ps.setString(1, tournament.name());
+          ps.setDate(2, Date.valueOf(tournament.startDate()));
+          ps.setDate(3, Date.valueOf(tournament.endDate()));
+          return ps;
+        }, keyHolder);
+        if (insertedTournament == 0) {
+          throw new IllegalStateException("No rows affected after insertion of tournament.");
+        }
+        long generatedID = keyHolder.getKey().longValue();
+        return new Tournament()
+                .setId(generatedID)
+                .setName(tournament.name())
+                .setStartDate(tournament.startDate())
+                .setEndDate(tournament.endDate())
+                .setParticipants(insertParticipants(tournament.participants(), generatedID));
+      });
+    } catch (DuplicateKeyException e) {
       List<String> conflictErrors = new ArrayList<>();
       conflictErrors.add("The same tournament was found.");
       throw new ConflictException("Conflict was detected", conflictErrors);
     }
-    KeyHolder keyHolder = new GeneratedKeyHolder();
-    int insertedTournament = jdbcTemplate.update(connection -> {
-      PreparedStatement ps = connection.prepareStatement(SQL_INSERT_TOURNAMENT, Statement.RETURN_GENERATED_KEYS);
-      ps.setString(1, tournament.name());
-      ps.setDate(2, Date.valueOf(tournament.startDate()));
-      ps.setDate(3, Date.valueOf(tournament.endDate()));
-      return ps;
-    }, keyHolder);
-    if (insertedTournament > 0) {
-      long generatedID = keyHolder.getKey().intValue();
-      return new Tournament()
-              .setId(generatedID)
-              .setName(tournament.name())
-              .setStartDate(tournament.startDate())
-              .setEndDate(tournament.endDate())
-              .setParticipants(insertParticipants(tournament.participants(), generatedID));
-    } else {
-      throw new IllegalStateException("No rows affected after insertion of tournament.");
-    }
   }
 
+  /**
+   * Inserts the participants of a new tournament in one batch.
+   * It has to run in the transaction inserting the tournament.
+   *
+   * @param participants the horses taking part in the tournament
+   * @param id           the ID of the tournament
+   * @return the inserted participants, in the order of {@code participants}
+   */
   private Participant[] insertParticipants(HorseSelectionDto[] participants, long id) {
     LOG.trace("insert({})", Arrays.toString(participants));
-    List<Participant> insertedParticipants = new ArrayList<>();
-    for (HorseSelectionDto participant : participants) {
-      KeyHolder keyHolder = new GeneratedKeyHolder();
-      int inserted = jdbcTemplate.update(connection -> {
-        PreparedStatement ps = connection.prepareStatement(SQL_INSERT_PARTICIPANT, Statement.RETURN_GENERATED_KEYS);
-        ps.setLong(1, participant.id());
-        ps.setLong(2, id);
-        ps.setLong(3, -1);
-        ps.setLong(4, 0);
-        return ps;
-      }, keyHolder);
-      if (inserted > 0) {
-        Long participantId = keyHolder.getKey().longValue();
-        Participant insertedParticipant = new Participant()
-                .setId(participantId)
-                .setHorseId(participant.id())
-                .setName(participant.name())
-                .setDateOfBirth(participant.dateOfBirth())
-                .setEntryNumber(0)
-                .setRoundReached(0);
-        insertedParticipants.add(insertedParticipant);
-      } else {
-        throw new IllegalStateException("No rows affected after insertion of participants.");
-      }
+    SqlParameterSource[] batch = Arrays.stream(participants)
+        .map(participant -> new MapSqlParameterSource()
+            .addValue("horseId", participant.id())
+            .addValue("tournamentId", id))
+        .toArray(SqlParameterSource[]::new);
+    KeyHolder keyHolder = new GeneratedKeyHolder();
+    jdbcNamed.batchUpdate(SQL_INSERT_PARTICIPANT, batch, keyHolder, new String[] {"id"});
+    var keys = keyHolder.getKeyList();
+    if (keys.size() != participants.length) {
+      throw new IllegalStateException("No rows affected after insertion of participants.");
     }
-    return insertedParticipants.toArray(new Participant[0]);
+    Participant[] insertedParticipants = new Participant[participants.length];
+    for (int i = 0; i < participants.length; i++) {
+      insertedParticipants[i] = new Participant()
+              .setId(((Number) keys.get(i).values().iterator().next()).longValue())
+              .setHorseId(participants[i].id())
+              .setName(participants[i].name())
+              .setDateOfBirth(participants[i].dateOfBirth())
+              .setEntryNumber(0)
+              .setRoundReached(0);
+    }
+    return insertedParticipants;
   }
 
   /**
@@ -226,6 +452,7 @@ public class TournamentJdbcDao implements TournamentDao {
             .setName(result.getString("name"))
             .setStartDate(result.getDate("start_date").toLocalDate())
             .setEndDate(result.getDate("end_date").toLocalDate())
+            .setVersion(result.getLong("version"))
             ;
   }
 
@@ -249,69 +476,126 @@ public class TournamentJdbcDao implements TournamentDao {
             ;
   }
 
+  @Override
+  public Collection<PointContribution> findPointContributions() {
+    LOG.trace("findPointContributions()");
+    return jdbcTemplate.query(SQL_SELECT_POINT_CONTRIBUTIONS, (result, rownum) -> new PointContribution(
+        result.getLong("id_horse"),
+        result.getLong("tournament_id"),
+        result.getDate("end_date").toLocalDate(),
+        result.getInt("round_reached")));
+  }
+
+  @Override
+  public Collection<MatchRecord> findMatchRecords(Collection<Long> horseIds, LocalDate endedBefore) {
+    LOG.trace("findMatchRecords({}, {})", horseIds, endedBefore);
+    if (horseIds.isEmpty()) {
+      return List.of();
+    }
+    var params = new MapSqlParameterSource()
+        .addValue("horseIds", horseIds)
+        .addValue("endedBefore", endedBefore);
+    return jdbcNamed.query(SQL_SELECT_MATCH_RECORDS, params, (result, rownum) -> new MatchRecord(
+        result.getLong("id_horse"),
+        result.getInt("won"),
+        result.getInt("lost")));
+  }
+
+  @Override
+  public List<ParticipationFact> findParticipationFacts() {
+    LOG.trace("findParticipationFacts()");
+    return jdbcTemplate.query(SQL_SELECT_PARTICIPATION_FACTS, this::mapRowParticipationFact);
+  }
+
+  @Override
+  public List<ParticipationFact> findParticipationFacts(Collection<Long> horseIds) {
+    LOG.trace("findParticipationFacts({})", horseIds);
+    if (horseIds.isEmpty()) {
+      return List.of();
+    }
+    return jdbcNamed.query(SQL_SELECT_PARTICIPATION_FACTS + SQL_WHERE_TOURNAMENTS_OF_HORSES, Map.of("horseIds", horseIds),
+        this::mapRowParticipationFact);
+  }
+
+  @Override
+  public List<MatchResult> findMatchHistory() {
+    LOG.trace("findMatchHistory()");
+    return jdbcTemplate.query(SQL_MATCH_HISTORY, this::mapRowMatchResult);
+  }
+
+  @Override
+  public Collection<MatchResult> findMatchResults(long id) {
+    LOG.trace("findMatchResults({})", id);
+    return jdbcTemplate.query(SQL_SELECT_MATCH_RESULTS + SQL_WHERE_MATCH_TOURNAMENT, this::mapRowMatchResult, id);
+  }
+
+  @Override
+  public MatchResult findMatchResult(long id, int round, int slot) throws NotFoundException {
+    LOG.trace("findMatchResult({}, {}, {})", id, round, slot);
+    var results = jdbcTemplate.query(SQL_SELECT_MATCH_RESULTS + SQL_WHERE_MATCH, this::mapRowMatchResult, id, round, slot);
+    if (results.isEmpty()) {
+      throw new NotFoundException("No result of match %d of round %d of tournament %d found".formatted(slot, round, id));
+    }
+    return results.get(0);
+  }
+
   /**
-   * Checks if a tournament with the same name, start date, and end date already exists.
+   * Maps a row of the participations joined with their horses and tournaments to a ParticipationFact.
    *
-   * @param tournament the TournamentCreateDto representing the tournament to check
-   * @return true if a tournament with the same details exists, false otherwise
+   * @param result the ResultSet containing the data
+   * @param rownum the row number
+   * @return a ParticipationFact object mapped from the ResultSet
+   * @throws SQLException if a database access error occurs
    */
-  private boolean isEqualExist(TournamentCreateDto tournament) {
-    LOG.trace("isEqualExist({})", tournament);
-    List<Tournament> tournaments = jdbcTemplate.query(SQL_EQUAL, this::mapRowTournament,
-            tournament.name(), tournament.startDate(), tournament.endDate());
-    return !tournaments.isEmpty();
+  private ParticipationFact mapRowParticipationFact(ResultSet result, int rownum) throws SQLException {
+    return new ParticipationFact(
+        result.getLong("id"),
+        result.getLong("tournament_id"),
+        result.getLong("id_horse"),
+        result.getObject("breed_id", Long.class),
+        Sex.valueOf(result.getString("sex")),
+        result.getDate("date_of_birth").toLocalDate(),
+        result.getDate("start_date").toLocalDate(),
+        result.getInt("round_reached"));
   }
 
-  @Override
-  public Participant[] getParticipantsForFirstRound(long id) throws NotFoundException {
-    LOG.trace("get participants for first round by tournament id({})", id);
-    var tournament = getTournamentById(id);
-    Participant[] participants = getParticipantsByTournamentId(id);
-    for (Participant participant : participants) {
-      participant.setPoints(0);
-      List<Participant> participants1 = jdbcTemplate.query(SQL_FOR_FIRST_ROUND, this::mapRowParticipant,
-              participant.getHorseId(), tournament.getStartDate());
-      for (Participant p : participants1) {
-        switch (p.getRoundReached()) {
-          case 2 -> participant.addPoints(1);
-          case 3 -> participant.addPoints(3);
-          case 4 -> participant.addPoints(5);
-          default -> { }
-        }
-      }
-    }
-    return sortParticipants(participants);
+  /**
+   * Maps a row from the ResultSet to a MatchResult object.
+   *
+   * @param result the ResultSet containing the data
+   * @param rownum the row number
+   * @return a MatchResult object mapped from the ResultSet
+   * @throws SQLException if a database access error occurs
+   */
+  private MatchResult mapRowMatchResult(ResultSet result, int rownum) throws SQLException {
+    return new MatchResult(
+        result.getLong("tournament_id"),
+        result.getInt("round"),
+        result.getInt("slot"),
+        result.getLong("winner_id"),
+        Sex.valueOf(result.getString("winner_sex")),
+        result.getObject("winner_breed_id", Long.class),
+        result.getLong("loser_id"),
+        Sex.valueOf(result.getString("loser_sex")),
+        result.getObject("loser_breed_id", Long.class));
+  }
+
+  /**
+   * Outcome of the transaction updating the standings of a tournament.
+   *
+   * @param tournament         the updated tournament with its participants as saved, or null if it was not updated
+   * @param missingParticipant the index of the participant that was not found, or null if all were found
+   * @param invalid            why the standings were not saved although all participants were found, or null
+   */
+  private record UpdateOutcome(Tournament tournament, Integer missingParticipant, String invalid) {
   }
 
   /**
-   * Sorts an array of Participant objects based on name and points.
-   * 0-7,
-   * 1-6,
-   * 2-5,
-   * 3-4
+   * Outcome of the transaction recording the result of a match.
    *
-   * @param participants the array of Participant objects to sort
-   * @return the sorted array of Participant objects
+   * @param tournament the tournament with its new version and the two competitors of the match, or null if nothing was recorded
+   * @param conflict   why the result could not be recorded, or null if it was recorded or the tournament was not found
    */
-  private Participant[] sortParticipants(Participant[] participants) {
-
-    LOG.trace("sort participants({})", Arrays.toString(participants));
-    LOG.debug("participants as input: " + Arrays.toString(participants));
-
-    Arrays.sort(participants, Comparator.comparing(Participant::getName));
-    LOG.debug("participants sorted by names: " + Arrays.toString(participants));
-    Arrays.sort(participants, Comparator.comparingInt(Participant::getPoints).reversed());
-    LOG.debug("participants sorted by points: " + Arrays.toString(participants));
-    participants[0].setEntryNumber(0);
-    participants[7].setEntryNumber(1);
-    participants[1].setEntryNumber(2);
-    participants[6].setEntryNumber(3);
-    participants[2].setEntryNumber(4);
-    participants[5].setEntryNumber(5);
-    participants[3].setEntryNumber(6);
-    participants[4].setEntryNumber(7);
-    Arrays.sort(participants, Comparator.comparingInt(Participant::getEntryNumber));
-    LOG.debug("participants sorted by entry number: " + Arrays.toString(participants));
-    return participants;
+  private record MatchOutcome(Tournament tournament, String conflict) {
   }
-}
\ No newline at end of file
+}
@@ -0,0 +1,71 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.ParticipationStatsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.ParticipationStatsSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.service.AnalyticsService;
+import java.lang.invoke.MethodHandles;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.ResponseStatus;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+
+/**
+ * Controller class for handling HTTP requests for reports over the participations of horses in tournaments.
+ */
+@RestController
+@RequestMapping(path = AnalyticsEndpoint.BASE_PATH)
+public class AnalyticsEndpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  static final String BASE_PATH = "/analytics";
+
+  private final AnalyticsService service;
+
+  /**
+   * Constructs a new AnalyticsEndpoint with the specified AnalyticsService.
+   *
+   * @param service the AnalyticsService used by the AnalyticsEndpoint
+   */
+  public AnalyticsEndpoint(AnalyticsService service) {
+    this.service = service;
+  }
+
+  /**
+   * Counts the participations, matches and wins of horses in tournaments, grouped by breed, sex, age or season,
+   * e.g. {@code ?groupBy=BREED&sex=FEMALE&startFrom=2023-01-01}.
+   *
+   * @param searchParameters The grouping attribute, and the breed, sex and range of start dates to filter by, which are optional.
+   * @return The counts and win rate of every group that has participations.
+   * @throws ResponseStatusException If no grouping attribute is given or the start dates are in the wrong order (HTTP status code 422).
+   */
+  @GetMapping("participations")
+  public List<ParticipationStatsDto> participationStats(ParticipationStatsSearchDto searchParameters) {
+    LOG.info("GET " + BASE_PATH + "/participations");
+    LOG.debug("request parameters: {}", searchParameters);
+    try {
+      return service.participationStats(searchParameters).toList();
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      LOG.warn("{} {}: {}: {}", status.value(), "Validation of participation report parameters failed", e.getClass().getSimpleName(), e.getMessage());
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Reads all participations again, to repair the reports after the participations have been changed bypassing the application.
+   *
+   * @return the number of participations
+   */
+  @PostMapping("participations/rebuild")
+  @ResponseStatus(HttpStatus.OK)
+  public int rebuildParticipationStats() {
+    LOG.info("POST " + BASE_PATH + "/participations/rebuild");
+    return service.rebuildParticipationStats();
+  }
+}
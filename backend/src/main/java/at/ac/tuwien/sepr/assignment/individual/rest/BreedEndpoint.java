@@ -2,14 +2,19 @@ package at.ac.tuwien.sepr.assignment.individual.rest;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepr.assignment.individual.service.BreedService;
 import java.lang.invoke.MethodHandles;
-import java.util.stream.Stream;
+import java.util.List;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 /**
  * Controller class for handling HTTP requests related to breed
@@ -37,14 +42,28 @@ public class BreedEndpoint {
 
   /**
    * Searches for breeds based on the provided search parameters.
+   * If the page is full, the continuation token for the next page is returned in the {@link PageCursor#NEXT_PAGE_HEADER} header.
    *
    * @param searchParams The parameters used for searching breed.
-   * @return A stream of BreedDto objects representing the search results.
+   * @return A list of BreedDto objects representing the search results.
+   * @throws ResponseStatusException If the limit or the cursor is not valid (HTTP status code 422).
    */
   @GetMapping
-  public Stream<BreedDto> search(BreedSearchDto searchParams) {
+  public ResponseEntity<List<BreedDto>> search(BreedSearchDto searchParams) {
     LOG.info("GET " + BASE_PATH);
     LOG.debug("Request Params: {}", searchParams);
-    return service.search(searchParams);
+    try {
+      var breeds = service.search(searchParams).toList();
+      var response = ResponseEntity.ok();
+      if (searchParams.limit() != null && breeds.size() == searchParams.limit()) {
+        var last = breeds.get(breeds.size() - 1);
+        response.header(PageCursor.NEXT_PAGE_HEADER, new PageCursor(last.name(), last.id()).encode());
+      }
+      return response.body(breeds);
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      LOG.warn("{} {}: {}: {}", status.value(), "Validation of breed search parameters failed", e.getClass().getSimpleName(), e.getMessage());
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
   }
 }
@@ -0,0 +1,50 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.CachesDto;
+import at.ac.tuwien.sepr.assignment.individual.service.BreedService;
+import at.ac.tuwien.sepr.assignment.individual.service.HorseService;
+import at.ac.tuwien.sepr.assignment.individual.service.TournamentService;
+import java.lang.invoke.MethodHandles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller class for handling HTTP requests for the counters of the in-memory caches, which are read-only.
+ */
+@RestController
+@RequestMapping(path = CacheEndpoint.BASE_PATH)
+public class CacheEndpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  static final String BASE_PATH = "/caches";
+
+  private final HorseService horseService;
+  private final BreedService breedService;
+  private final TournamentService tournamentService;
+
+  /**
+   * Constructs a new CacheEndpoint with the services holding the caches.
+   *
+   * @param horseService      the HorseService holding the cache of search results
+   * @param breedService      the BreedService holding the cache of breeds
+   * @param tournamentService the TournamentService holding the cache of standings
+   */
+  public CacheEndpoint(HorseService horseService, BreedService breedService, TournamentService tournamentService) {
+    this.horseService = horseService;
+    this.breedService = breedService;
+    this.tournamentService = tournamentService;
+  }
+
+  /**
+   * Gets the counters of all caches, counted since the application was started.
+   *
+   * @return the hits, misses, evictions and sizes of the caches of horse searches and standings, and the hit rate of the breeds
+   */
+  @GetMapping
+  public CachesDto caches() {
+    LOG.info("GET " + BASE_PATH);
+    return new CachesDto(horseService.searchCacheStats(), breedService.cacheHitRate(), tournamentService.standingsCacheStats());
+  }
+}
@@ -0,0 +1,91 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.persistence.ExportSink;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the rows of an export as CSV: a header line naming the columns, followed by one line per row.
+ * Missing values are empty fields; fields containing a comma, a double quote or a line break are quoted with double quotes,
+ * as read by {@link HorseImportReader}.
+ */
+class CsvExportWriter implements ExportSink, Closeable {
+  private final Writer writer;
+  private boolean firstOfRow = true;
+
+  /**
+   * Constructs a new CsvExportWriter.
+   *
+   * @param writer the writer the CSV is written to, which should be buffered
+   */
+  CsvExportWriter(Writer writer) {
+    this.writer = writer;
+  }
+
+  @Override
+  public void header(List<String> columns) throws IOException {
+    for (String column : columns) {
+      text(column);
+    }
+    endRow();
+  }
+
+  @Override
+  public void text(String value) throws IOException {
+    separate();
+    if (value == null) {
+      return;
+    }
+    if (needsQuotes(value)) {
+      writer.write('"');
+      for (int i = 0; i < value.length(); i++) {
+        char c = value.charAt(i);
+        if (c == '"') {
+          writer.write('"');
+        }
+        writer.write(c);
+      }
+      writer.write('"');
+    } else {
+      writer.write(value);
+    }
+  }
+
+  @Override
+  public void number(String value) throws IOException {
+    separate();
+    if (value != null) {
+      writer.write(value);
+    }
+  }
+
+  @Override
+  public void endRow() throws IOException {
+    writer.write('\n');
+    firstOfRow = true;
+  }
+
+  @Override
+  public void close() throws IOException {
+    writer.close();
+  }
+
+  private void separate() throws IOException {
+    if (!firstOfRow) {
+      writer.write(',');
+    }
+    firstOfRow = false;
+  }
+
+  private static boolean needsQuotes(String value) {
+    for (int i = 0; i < value.length(); i++) {
+      char c = value.charAt(i);
+      if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+        return true;
+      }
+    }
+    return false;
+  }
+}
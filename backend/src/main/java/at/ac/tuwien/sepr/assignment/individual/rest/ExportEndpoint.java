@@ -0,0 +1,207 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.persistence.ExportSink;
+import at.ac.tuwien.sepr.assignment.individual.service.ExportService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+import java.util.zip.GZIPOutputStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+/**
+ * Controller class for handling HTTP requests for full dumps of the horses, tournaments and participants.
+ *
+ * <p>A dump is written as CSV, or as NDJSON if the {@code Accept} header asks for {@value HorseEndpoint#NDJSON_VALUE} first,
+ * and gzip-compressed if the {@code Accept-Encoding} header allows it.
+ * The rows are written to the response while they are read from the persistent data store,
+ * so the memory used does not grow with the size of the dump.
+ */
+@RestController
+@RequestMapping(path = ExportEndpoint.BASE_PATH)
+public class ExportEndpoint {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  static final String BASE_PATH = "/exports";
+
+  /**
+   * Size of the buffers in front of the response, large enough that a write to the response carries many rows.
+   */
+  private static final int BUFFER_SIZE = 64 * 1024;
+  private static final MediaType CSV = MediaType.parseMediaType(HorseEndpoint.CSV_VALUE);
+  private static final MediaType NDJSON = MediaType.parseMediaType(HorseEndpoint.NDJSON_VALUE);
+
+  private final ExportService service;
+  private final ObjectMapper objectMapper;
+
+  /**
+   * Constructs a new ExportEndpoint with the specified ExportService.
+   *
+   * @param service      the ExportService used by the ExportEndpoint
+   * @param objectMapper the ObjectMapper whose factory writes NDJSON dumps
+   */
+  public ExportEndpoint(ExportService service, ObjectMapper objectMapper) {
+    this.service = service;
+    this.objectMapper = objectMapper;
+  }
+
+  /**
+   * Dumps all horses, with the name of their breed.
+   *
+   * @param accept         The formats accepted by the client.
+   * @param acceptEncoding The compressions accepted by the client, if any.
+   * @param response       The response the horses are written to.
+   * @throws IOException If writing the response fails, e.g. because the client has gone away.
+   */
+  @GetMapping(path = "horses", produces = {HorseEndpoint.CSV_VALUE, HorseEndpoint.NDJSON_VALUE})
+  public void exportHorses(
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      HttpServletResponse response) throws IOException {
+    LOG.info("GET " + BASE_PATH + "/horses");
+    export("horses", accept, acceptEncoding, response, service::exportHorses);
+  }
+
+  /**
+   * Dumps all tournaments.
+   *
+   * @param accept         The formats accepted by the client.
+   * @param acceptEncoding The compressions accepted by the client, if any.
+   * @param response       The response the tournaments are written to.
+   * @throws IOException If writing the response fails, e.g. because the client has gone away.
+   */
+  @GetMapping(path = "tournaments", produces = {HorseEndpoint.CSV_VALUE, HorseEndpoint.NDJSON_VALUE})
+  public void exportTournaments(
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      HttpServletResponse response) throws IOException {
+    LOG.info("GET " + BASE_PATH + "/tournaments");
+    export("tournaments", accept, acceptEncoding, response, service::exportTournaments);
+  }
+
+  /**
+   * Dumps all participants of all tournaments, with the round they reached, i.e. the standings of all tournaments.
+   *
+   * @param accept         The formats accepted by the client.
+   * @param acceptEncoding The compressions accepted by the client, if any.
+   * @param response       The response the participants are written to.
+   * @throws IOException If writing the response fails, e.g. because the client has gone away.
+   */
+  @GetMapping(path = "participants", produces = {HorseEndpoint.CSV_VALUE, HorseEndpoint.NDJSON_VALUE})
+  public void exportParticipants(
+      @RequestHeader(value = HttpHeaders.ACCEPT, required = false) String accept,
+      @RequestHeader(value = HttpHeaders.ACCEPT_ENCODING, required = false) String acceptEncoding,
+      HttpServletResponse response) throws IOException {
+    LOG.info("GET " + BASE_PATH + "/participants");
+    export("participants", accept, acceptEncoding, response, service::exportParticipants);
+  }
+
+  /**
+   * Writes a dump to the response, in the format and with the compression the client accepts.
+   *
+   * @param name           the name of the dump, used as the name of the downloaded file
+   * @param accept         the formats accepted by the client
+   * @param acceptEncoding the compressions accepted by the client, if any
+   * @param response       the response the dump is written to
+   * @param export         passes the rows of the dump to a sink
+   * @throws IOException if writing the response fails
+   */
+  private void export(String name, String accept, String acceptEncoding, HttpServletResponse response, Consumer<ExportSink> export)
+      throws IOException {
+    boolean ndjson = prefersNdjson(accept);
+    boolean gzip = acceptsGzip(acceptEncoding);
+    LOG.debug("Exporting {} as {}{}", name, ndjson ? "NDJSON" : "CSV", gzip ? ", gzip-compressed" : "");
+    response.setContentType((ndjson ? NDJSON : CSV) + ";charset=UTF-8");
+    response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+        ContentDisposition.attachment().filename(name + (ndjson ? ".ndjson" : ".csv")).build().toString());
+    response.setHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT + ", " + HttpHeaders.ACCEPT_ENCODING);
+    OutputStream body = response.getOutputStream();
+    if (gzip) {
+      response.setHeader(HttpHeaders.CONTENT_ENCODING, "gzip");
+      body = new GZIPOutputStream(body, BUFFER_SIZE);
+    }
+    Writer writer = new BufferedWriter(new OutputStreamWriter(body, StandardCharsets.UTF_8), BUFFER_SIZE);
+    var sink = ndjson ? new NdjsonExportWriter(objectMapper.getFactory(), writer) : new CsvExportWriter(writer);
+    try {
+      export.accept(sink);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+    // only closed if the dump is complete, so that a broken one does not end like a complete gzip stream
+    sink.close();
+  }
+
+  /**
+   * Decides the format of a dump by the first of the accepted formats that is CSV or NDJSON.
+   *
+   * @param accept the formats accepted by the client
+   * @return true if the dump is written as NDJSON, false if as CSV
+   */
+  private static boolean prefersNdjson(String accept) {
+    if (accept == null) {
+      return false;
+    }
+    for (MediaType mediaType : MediaType.parseMediaTypes(accept)) {
+      if (mediaType.isCompatibleWith(CSV)) {
+        return false;
+      }
+      if (mediaType.isCompatibleWith(NDJSON)) {
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Decides whether a dump is gzip-compressed, i.e. whether the client accepts gzip with a quality above zero.
+   *
+   * @param acceptEncoding the compressions accepted by the client, if any
+   * @return true if the dump is compressed
+   */
+  private static boolean acceptsGzip(String acceptEncoding) {
+    if (acceptEncoding == null) {
+      return false;
+    }
+    for (String coding : acceptEncoding.split(",")) {
+      String[] parts = coding.split(";");
+      if (parts[0].trim().equalsIgnoreCase("gzip")) {
+        return quality(parts) > 0;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * Reads the quality of a coding of the {@code Accept-Encoding} header, e.g. 0.5 of {@code gzip;q=0.5}.
+   *
+   * @param parts the coding and its parameters
+   * @return the quality; 1 if none is given, 0 if it is not a number
+   */
+  private static double quality(String[] parts) {
+    for (int i = 1; i < parts.length; i++) {
+      String parameter = parts[i].trim();
+      if (parameter.length() > 2 && parameter.substring(0, 2).equalsIgnoreCase("q=")) {
+        try {
+          return Double.parseDouble(parameter.substring(2).trim());
+        } catch (NumberFormatException e) {
+          return 0;
+        }
+      }
+    }
+    return 1;
+  }
+}
@@ -1,24 +1,41 @@
 package at.ac.tuwien.sepr.assignment.individual.rest;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseImportResultDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseStatsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepr.assignment.individual.service.HorseService;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import jakarta.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.lang.invoke.MethodHandles;
-import java.util.stream.Stream;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.DeleteMapping;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
@@ -32,29 +49,93 @@ public class HorseEndpoint {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
   static final String BASE_PATH = "/horses";
 
+  static final String NDJSON_VALUE = "application/x-ndjson";
+  static final String CSV_VALUE = "text/csv";
+
   private final HorseService service;
+  private final HorseImportReader importReader;
+  private final ObjectMapper objectMapper;
+  private final ObjectWriter elementWriter;
 
   /**
    * Constructs a new HorseEndpoint with the specified HorseService.
    *
-   * @param service the HorseService used by the HorseEndpoint
+   * @param service      the HorseService used by the HorseEndpoint
+   * @param importReader the reader of the records of bulk imports
+   * @param objectMapper the ObjectMapper used for writing streamed search results
    */
-  public HorseEndpoint(HorseService service) {
+  public HorseEndpoint(HorseService service, HorseImportReader importReader, ObjectMapper objectMapper) {
     this.service = service;
+    this.importReader = importReader;
+    this.objectMapper = objectMapper;
+    // flushing after every element would send each horse in a packet of its own
+    this.elementWriter = objectMapper.writerFor(HorseListDto.class)
+        .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
   }
 
   /**
    * Searches for horses based on the provided search parameters.
+   * If the page is full, the continuation token for the next page is returned in the {@link PageCursor#NEXT_PAGE_HEADER} header.
    *
    * @param searchParameters The parameters used for searching horses.
-   * @return A stream of HorseListDto objects representing the search results.
+   * @return A list of HorseListDto objects representing the search results.
+   * @throws ResponseStatusException If the limit or the cursor is not valid (HTTP status code 422).
    */
   @GetMapping
-  @ResponseStatus(HttpStatus.OK)
-  public Stream<HorseListDto> searchHorses(HorseSearchDto searchParameters) {
+  public ResponseEntity<List<HorseListDto>> searchHorses(HorseSearchDto searchParameters) {
     LOG.info("GET " + BASE_PATH);
     LOG.debug("request parameters: {}", searchParameters);
-    return service.search(searchParameters);
+    try {
+      var horses = service.search(searchParameters).toList();
+      var response = ResponseEntity.ok();
+      if (searchParameters.limit() != null && horses.size() == searchParameters.limit()) {
+        var last = horses.get(horses.size() - 1);
+        response.header(PageCursor.NEXT_PAGE_HEADER, new PageCursor(last.name(), last.id()).encode());
+      }
+      return response.body(horses);
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Validation of horse search parameters failed", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Searches for horses based on the provided search parameters and streams the result.
+   * Each horse is written to the response as soon as it is read from the persistent data store,
+   * so the memory used and the time to the first byte do not grow with the size of the result.
+   * The response body is the same JSON array as the one of {@link #searchHorses(HorseSearchDto)}, but no continuation token is returned.
+   *
+   * @param searchParameters The parameters used for searching horses.
+   * @param response         The response the horses are written to.
+   * @throws IOException If writing the response fails, e.g. because the client has gone away.
+   * @throws ResponseStatusException If the limit or the cursor is not valid (HTTP status code 422).
+   */
+  @GetMapping(path = "stream", produces = MediaType.APPLICATION_JSON_VALUE)
+  public void streamHorses(HorseSearchDto searchParameters, HttpServletResponse response) throws IOException {
+    LOG.info("GET " + BASE_PATH + "/stream");
+    LOG.debug("request parameters: {}", searchParameters);
+    response.setContentType(MediaType.APPLICATION_JSON_VALUE);
+    // the generator buffers, so nothing reaches the response before the search parameters have been validated
+    JsonGenerator json = objectMapper.createGenerator(response.getOutputStream());
+    try {
+      json.writeStartArray();
+      service.searchEach(searchParameters, horse -> {
+        try {
+          elementWriter.writeValue(json, horse);
+        } catch (IOException e) {
+          throw new UncheckedIOException(e);
+        }
+      });
+      json.writeEndArray();
+      json.close();
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Validation of horse search parameters failed", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
   }
 
   /**
@@ -82,6 +163,41 @@ public class HorseEndpoint {
     }
   }
 
+  /**
+   * Imports many horses at once from NDJSON or CSV, see {@link HorseImportReader} for the formats.
+   * The data may be gzip-compressed, which is announced by the {@code Content-Encoding: gzip} header.
+   * Every record is imported on its own: a record that is invalid or in conflict does not stop the import of the others.
+   *
+   * @param contentType     The format of the imported data, {@value #NDJSON_VALUE} or {@value #CSV_VALUE}.
+   * @param contentEncoding The compression of the imported data, if any.
+   * @param body            The imported data.
+   * @return The outcome of every record, in the order of the records.
+   * @throws IOException If reading the imported data fails.
+   * @throws ResponseStatusException If the CSV header lacks a required column (HTTP status code 422).
+   */
+  @PostMapping(path = "import", consumes = {NDJSON_VALUE, CSV_VALUE})
+  @ResponseStatus(HttpStatus.OK)
+  public List<HorseImportResultDto> importHorses(
+      @RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+      @RequestHeader(value = HttpHeaders.CONTENT_ENCODING, required = false) String contentEncoding,
+      InputStream body) throws IOException {
+    LOG.info("POST " + BASE_PATH + "/import");
+    LOG.debug("Content-Type: {}, Content-Encoding: {}", contentType, contentEncoding);
+    InputStream input = "gzip".equalsIgnoreCase(contentEncoding) ? new GZIPInputStream(body) : body;
+    try {
+      var records = MediaType.parseMediaType(contentType).isCompatibleWith(MediaType.parseMediaType(CSV_VALUE))
+          ? importReader.readCsv(input)
+          : importReader.readNdjson(input);
+      return service.importHorses(records);
+    } catch (IllegalArgumentException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Imported horses can not be read", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (UncheckedIOException e) {
+      throw e.getCause();
+    }
+  }
+
   /**
    * Retrieves details of a horse by its ID.
    *
@@ -102,6 +218,48 @@ public class HorseEndpoint {
     }
   }
 
+  /**
+   * Retrieves the career of a horse in tournaments by its ID.
+   *
+   * @param id The ID of the horse to retrieve the career of.
+   * @return The DTO containing the career of the horse.
+   * @throws ResponseStatusException If the horse with the specified ID is not found (HTTP status code 404).
+   */
+  @GetMapping("{id}/stats")
+  @ResponseStatus(HttpStatus.OK)
+  public HorseStatsDto getStats(@PathVariable("id") long id) {
+    LOG.info("GET " + BASE_PATH + "/{}/stats", id);
+    try {
+      return service.getStats(id);
+    } catch (NotFoundException e) {
+      HttpStatus status = HttpStatus.NOT_FOUND;
+      logClientError(status, "Horse with given id is not found", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Retrieves the careers of many horses in tournaments at once.
+   * Horses that do not exist are left out of the result.
+   *
+   * @param ids The IDs of the horses, e.g. {@code ?ids=1,2,3}.
+   * @return The DTOs containing the careers of the horses, in the order of {@code ids}.
+   * @throws ResponseStatusException If no IDs or too many are given (HTTP status code 422).
+   */
+  @GetMapping("stats")
+  @ResponseStatus(HttpStatus.OK)
+  public List<HorseStatsDto> getStats(@RequestParam("ids") List<Long> ids) {
+    LOG.info("GET " + BASE_PATH + "/stats");
+    LOG.debug("request parameters: {} ids", ids.size());
+    try {
+      return service.getStats(ids).toList();
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Validation of horse IDs for statistics failed", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
   /**
    * Updates details of a horse with the specified ID.
    *
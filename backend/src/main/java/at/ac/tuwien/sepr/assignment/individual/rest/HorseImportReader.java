@@ -0,0 +1,203 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseImportRecordDto;
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.lang.invoke.MethodHandles;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component reading the records of a bulk import of horses from NDJSON or CSV.
+ * The records are read lazily, so that an import of any size is never held in memory as a whole.
+ *
+ * <p>NDJSON has one horse per line, in the JSON format of {@link HorseDetailDto}.
+ * CSV has a header line naming the columns {@code name}, {@code sex}, {@code dateOfBirth}, {@code height}, {@code weight}
+ * and optionally {@code breedId}, followed by one horse per line; fields may be quoted with double quotes.
+ */
+@Component
+public class HorseImportReader {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final List<String> CSV_REQUIRED_COLUMNS = List.of("name", "sex", "dateOfBirth", "height", "weight");
+
+  private final ObjectReader horseReader;
+
+  /**
+   * Constructs a new HorseImportReader with the specified ObjectMapper.
+   *
+   * @param objectMapper the ObjectMapper used for reading NDJSON records
+   */
+  public HorseImportReader(ObjectMapper objectMapper) {
+    this.horseReader = objectMapper.readerFor(HorseDetailDto.class);
+  }
+
+  /**
+   * Reads NDJSON records, one horse per line. Empty lines are skipped.
+   *
+   * @param input the imported data
+   * @return the records, read while the stream is consumed
+   */
+  public Stream<HorseImportRecordDto> readNdjson(InputStream input) {
+    LOG.trace("readNdjson()");
+    var lineNumber = new AtomicLong();
+    return lines(input)
+        .map(line -> new NumberedLine(lineNumber.incrementAndGet(), line))
+        .filter(line -> !line.text().isBlank())
+        .map(this::parseJson);
+  }
+
+  /**
+   * Reads CSV records, one horse per line after the header line. Empty lines are skipped.
+   *
+   * @param input the imported data
+   * @return the records, read while the stream is consumed
+   * @throws IOException if the header line can not be read
+   * @throws IllegalArgumentException if the header line lacks a required column
+   */
+  public Stream<HorseImportRecordDto> readCsv(InputStream input) throws IOException {
+    LOG.trace("readCsv()");
+    var reader = new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8));
+    String header = reader.readLine();
+    if (header == null) {
+      return Stream.empty();
+    }
+    Map<String, Integer> columns = new HashMap<>();
+    var names = splitCsv(header);
+    for (int i = 0; i < names.size(); i++) {
+      columns.put(names.get(i).trim(), i);
+    }
+    var missing = CSV_REQUIRED_COLUMNS.stream().filter(column -> !columns.containsKey(column)).toList();
+    if (!missing.isEmpty()) {
+      throw new IllegalArgumentException("CSV header lacks the columns " + String.join(", ", missing));
+    }
+    var lineNumber = new AtomicLong(1);
+    return reader.lines()
+        .map(line -> new NumberedLine(lineNumber.incrementAndGet(), line))
+        .filter(line -> !line.text().isBlank())
+        .map(line -> parseCsv(line, columns));
+  }
+
+  private static Stream<String> lines(InputStream input) {
+    return new BufferedReader(new InputStreamReader(input, StandardCharsets.UTF_8)).lines();
+  }
+
+  private HorseImportRecordDto parseJson(NumberedLine line) {
+    try {
+      return new HorseImportRecordDto(line.number(), horseReader.readValue(line.text()), List.of());
+    } catch (JsonProcessingException e) {
+      return new HorseImportRecordDto(line.number(), null, List.of("record is not a valid horse: " + e.getOriginalMessage()));
+    }
+  }
+
+  private HorseImportRecordDto parseCsv(NumberedLine line, Map<String, Integer> columns) {
+    var fields = splitCsv(line.text());
+    var errors = new ArrayList<String>();
+    Sex sex = parseField(fields, columns, "sex", Sex::valueOf, "sex is not valid", errors);
+    LocalDate dateOfBirth = parseField(fields, columns, "dateOfBirth", LocalDate::parse, "date of birth is not valid", errors);
+    Float height = parseField(fields, columns, "height", Float::valueOf, "height is not valid", errors);
+    Float weight = parseField(fields, columns, "weight", Float::valueOf, "weight is not valid", errors);
+    Long breedId = field(fields, columns, "breedId") == null
+        ? null
+        : parseField(fields, columns, "breedId", Long::valueOf, "breed ID is not valid", errors);
+    if (!errors.isEmpty()) {
+      return new HorseImportRecordDto(line.number(), null, errors);
+    }
+    var horse = new HorseDetailDto(null, field(fields, columns, "name"), sex, dateOfBirth, height, weight,
+        breedId == null ? null : new BreedDto(breedId, null));
+    return new HorseImportRecordDto(line.number(), horse, List.of());
+  }
+
+  /**
+   * Parses the value of a required column of a CSV line.
+   *
+   * @param fields  the fields of the line
+   * @param columns the positions of the columns, by their name
+   * @param column  the name of the column to parse
+   * @param parser  parses the value
+   * @param error   the error to report, if the value is missing or can not be parsed
+   * @param errors  the errors of the line, to which {@code error} is added
+   * @return the parsed value, or null if it is missing or can not be parsed
+   */
+  private static <T> T parseField(List<String> fields, Map<String, Integer> columns, String column,
+                                  Function<String, T> parser, String error, List<String> errors) {
+    String value = field(fields, columns, column);
+    if (value != null) {
+      try {
+        return parser.apply(value.trim());
+      } catch (IllegalArgumentException | DateTimeParseException e) {
+        // reported below
+      }
+    }
+    errors.add(error);
+    return null;
+  }
+
+  /**
+   * Gets the value of a column of a CSV line.
+   *
+   * @param fields  the fields of the line
+   * @param columns the positions of the columns, by their name
+   * @param column  the name of the column
+   * @return the value, or null if the line has no such column or the value is empty
+   */
+  private static String field(List<String> fields, Map<String, Integer> columns, String column) {
+    Integer index = columns.get(column);
+    if (index == null || index >= fields.size() || fields.get(index).isEmpty()) {
+      return null;
+    }
+    return fields.get(index);
+  }
+
+  /**
+   * Splits a CSV line into its fields.
+   * A field may be enclosed in double quotes, to contain commas; a double quote in a quoted field is written twice.
+   *
+   * @param line the CSV line
+   * @return the fields of the line, without enclosing quotes
+   */
+  private static List<String> splitCsv(String line) {
+    var fields = new ArrayList<String>();
+    var field = new StringBuilder();
+    boolean quoted = false;
+    int i = 0;
+    while (i < line.length()) {
+      char c = line.charAt(i);
+      if (quoted && c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+        field.append('"');
+        i++;
+      } else if (c == '"') {
+        quoted = !quoted;
+      } else if (c == ',' && !quoted) {
+        fields.add(field.toString());
+        field.setLength(0);
+      } else {
+        field.append(c);
+      }
+      i++;
+    }
+    fields.add(field.toString());
+    return fields;
+  }
+
+  private record NumberedLine(long number, String text) {
+  }
+}
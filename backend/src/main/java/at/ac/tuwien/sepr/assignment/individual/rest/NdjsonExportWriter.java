@@ -0,0 +1,82 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.persistence.ExportSink;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.SerializableString;
+import com.fasterxml.jackson.core.io.SerializedString;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+
+/**
+ * Writes the rows of an export as NDJSON: one JSON object per line, with a member per column.
+ * Numbers are written as JSON numbers, missing values as {@code null}.
+ */
+class NdjsonExportWriter implements ExportSink, Closeable {
+  private final JsonGenerator json;
+  // the names of the columns, escaped once instead of for every row
+  private SerializableString[] names;
+  private int column;
+
+  /**
+   * Constructs a new NdjsonExportWriter.
+   *
+   * @param factory the factory of the generator the rows are written with
+   * @param writer  the writer the NDJSON is written to
+   * @throws IOException if the generator can not be created
+   */
+  NdjsonExportWriter(JsonFactory factory, Writer writer) throws IOException {
+    this.json = factory.createGenerator(writer);
+    // the rows are separated by the line breaks written after each of them
+    this.json.setRootValueSeparator(null);
+  }
+
+  @Override
+  public void header(List<String> columns) throws IOException {
+    names = columns.stream().map(SerializedString::new).toArray(SerializableString[]::new);
+  }
+
+  @Override
+  public void text(String value) throws IOException {
+    startValue();
+    if (value == null) {
+      json.writeNull();
+    } else {
+      json.writeString(value);
+    }
+  }
+
+  @Override
+  public void number(String value) throws IOException {
+    startValue();
+    if (value == null) {
+      json.writeNull();
+    } else {
+      json.writeNumber(value);
+    }
+  }
+
+  @Override
+  public void endRow() throws IOException {
+    if (column == 0) {
+      json.writeStartObject();
+    }
+    json.writeEndObject();
+    json.writeRaw('\n');
+    column = 0;
+  }
+
+  @Override
+  public void close() throws IOException {
+    json.close();
+  }
+
+  private void startValue() throws IOException {
+    if (column == 0) {
+      json.writeStartObject();
+    }
+    json.writeFieldName(names[column++]);
+  }
+}
@@ -0,0 +1,252 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.service.StandingsSavedEvent;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter.SseEventBuilder;
+
+/**
+ * Server-sent event streams of the standings of tournaments, for clients following a tournament live.
+ * A stream starts with the event {@code standings}, holding the current standings, followed by the event {@code delta}
+ * for every save of the standings, see {@link at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsDeltaDto}.
+ * The event {@code resync} tells the client, that events were dropped, so it has to load the standings again.
+ *
+ * <p>Idle subscribers hold no thread, as the streams are asynchronous requests of the servlet container.
+ * Every delta is serialized once and queued to the subscribers of the tournament, so the thread saving the standings never waits for them;
+ * each subscriber sends its queue on a virtual thread, one event after the other.
+ * A subscriber that falls more than {@link #MAX_PENDING_EVENTS} events behind has its queue replaced by a single {@code resync} event,
+ * so slow clients cost bounded memory and never hold up the others.
+ */
+@Component
+public class StandingsSubscriptions {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  /**
+   * Time after which a stream is closed; clients reconnect then, as browsers do for server-sent events by themselves.
+   */
+  private static final long STREAM_TIMEOUT_MILLIS = TimeUnit.MINUTES.toMillis(30);
+  /**
+   * Interval of the comments sent on idle streams, so that connections closed by the client are noticed and dropped.
+   */
+  private static final long HEARTBEAT_INTERVAL_SECONDS = 25;
+  private static final int MAX_PENDING_EVENTS = 32;
+
+  private final ObjectMapper objectMapper;
+  private final Map<Long, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+  private final ExecutorService senders = Executors.newVirtualThreadPerTaskExecutor();
+  private final ScheduledExecutorService heartbeat = Executors.newSingleThreadScheduledExecutor(Thread.ofVirtual().factory());
+
+  /**
+   * Constructs a new StandingsSubscriptions.
+   *
+   * @param objectMapper the ObjectMapper used to serialize the deltas
+   */
+  public StandingsSubscriptions(ObjectMapper objectMapper) {
+    this.objectMapper = objectMapper;
+    heartbeat.scheduleAtFixedRate(this::sendHeartbeat, HEARTBEAT_INTERVAL_SECONDS, HEARTBEAT_INTERVAL_SECONDS, TimeUnit.SECONDS);
+  }
+
+  /**
+   * Opens a stream of the standings of a tournament.
+   * The subscriber is registered before the current standings are read by {@code standings},
+   * so no save is missed; deltas of versions the current standings already contain are sent too, and have to be ignored by the client.
+   * Deltas of saves made while the standings are read are held back, and sent after them.
+   *
+   * @param tournamentId the ID of the tournament
+   * @param standings    reads the current standings of the tournament as JSON
+   * @return the stream
+   * @throws NotFoundException   if the tournament is not found, in which case no stream is opened
+   * @throws ValidationException if the ID of the tournament is not valid, in which case no stream is opened
+   */
+  public SseEmitter subscribe(long tournamentId, StandingsReader standings) throws NotFoundException, ValidationException {
+    LOG.trace("subscribe({})", tournamentId);
+    var subscriber = new Subscriber(tournamentId, new SseEmitter(STREAM_TIMEOUT_MILLIS));
+    subscribers.compute(tournamentId, (id, tournamentSubscribers) -> {
+      var added = tournamentSubscribers != null ? tournamentSubscribers : ConcurrentHashMap.<Subscriber>newKeySet();
+      added.add(subscriber);
+      return added;
+    });
+    subscriber.emitter.onCompletion(() -> remove(subscriber));
+    subscriber.emitter.onTimeout(() -> remove(subscriber));
+    subscriber.emitter.onError(e -> remove(subscriber));
+    try {
+      subscriber.open(SseEmitter.event().name("standings").data(standings.read(), MediaType.APPLICATION_JSON));
+    } catch (NotFoundException | ValidationException | RuntimeException e) {
+      remove(subscriber);
+      throw e;
+    }
+    return subscriber.emitter;
+  }
+
+  /**
+   * Queues the change of the standings to all subscribers of the tournament.
+   *
+   * @param event the event telling that the standings were saved
+   */
+  @EventListener
+  public void onStandingsSaved(StandingsSavedEvent event) {
+    var tournamentSubscribers = subscribers.get(event.delta().tournamentId());
+    if (tournamentSubscribers == null || tournamentSubscribers.isEmpty()) {
+      return;
+    }
+    LOG.debug("Sending delta of tournament {} to {} subscribers", event.delta().tournamentId(), tournamentSubscribers.size());
+    byte[] json;
+    try {
+      json = objectMapper.writeValueAsBytes(event.delta());
+    } catch (JsonProcessingException e) {
+      LOG.error("Delta of tournament {} can not be serialized", event.delta().tournamentId(), e);
+      return;
+    }
+    for (Subscriber subscriber : tournamentSubscribers) {
+      subscriber.offer(SseEmitter.event().name("delta").id(Long.toString(event.delta().version())).data(json, MediaType.APPLICATION_JSON));
+    }
+  }
+
+  /**
+   * Gets the number of open streams.
+   *
+   * @return the number of subscribers of all tournaments
+   */
+  public int size() {
+    return subscribers.values().stream().mapToInt(Set::size).sum();
+  }
+
+  /**
+   * Closes all streams and stops sending, when the application shuts down.
+   */
+  @PreDestroy
+  public void close() {
+    LOG.trace("close()");
+    heartbeat.shutdownNow();
+    subscribers.values().forEach(tournamentSubscribers -> tournamentSubscribers.forEach(subscriber -> subscriber.emitter.complete()));
+    subscribers.clear();
+    senders.shutdownNow();
+  }
+
+  private void sendHeartbeat() {
+    for (Set<Subscriber> tournamentSubscribers : subscribers.values()) {
+      for (Subscriber subscriber : tournamentSubscribers) {
+        if (subscriber.isIdle()) {
+          subscriber.offer(SseEmitter.event().comment("heartbeat"));
+        }
+      }
+    }
+  }
+
+  private void remove(Subscriber subscriber) {
+    subscribers.computeIfPresent(subscriber.tournamentId, (id, tournamentSubscribers) -> {
+      tournamentSubscribers.remove(subscriber);
+      return tournamentSubscribers.isEmpty() ? null : tournamentSubscribers;
+    });
+  }
+
+  /**
+   * Reads the current standings of a tournament.
+   */
+  @FunctionalInterface
+  public interface StandingsReader {
+    /**
+     * Reads the current standings of a tournament.
+     *
+     * @return the standings as JSON
+     * @throws NotFoundException   if the tournament is not found
+     * @throws ValidationException if the ID of the tournament is not valid
+     */
+    byte[] read() throws NotFoundException, ValidationException;
+  }
+
+  /**
+   * A client following a tournament, with the events not sent to it yet.
+   * The queue and whether it is being sent are guarded by the subscriber itself,
+   * so a queue replaced by {@code resync} can not be mixed up with events being taken from it at the same time.
+   * Nothing is sent before the subscriber is opened with the current standings, which go ahead of the events queued until then.
+   */
+  private final class Subscriber {
+    private final long tournamentId;
+    private final SseEmitter emitter;
+    private final Deque<SseEventBuilder> queue = new ArrayDeque<>();
+    private boolean opened;
+    private boolean sending;
+
+    private Subscriber(long tournamentId, SseEmitter emitter) {
+      this.tournamentId = tournamentId;
+      this.emitter = emitter;
+    }
+
+    private synchronized boolean isIdle() {
+      return opened && !sending && queue.isEmpty();
+    }
+
+    private void open(SseEventBuilder standings) {
+      synchronized (this) {
+        queue.addFirst(standings);
+        opened = true;
+        sending = true;
+      }
+      senders.execute(this::send);
+    }
+
+    private void offer(SseEventBuilder event) {
+      boolean start;
+      synchronized (this) {
+        if (queue.size() >= MAX_PENDING_EVENTS) {
+          // the client is too slow; instead of the dropped events, it has to load the standings again
+          queue.clear();
+          queue.add(SseEmitter.event().name("resync").data("{}", MediaType.APPLICATION_JSON));
+        } else {
+          queue.add(event);
+        }
+        // until the subscriber is opened, the events wait behind the current standings
+        start = opened && !sending;
+        sending = sending || start;
+      }
+      if (start) {
+        senders.execute(this::send);
+      }
+    }
+
+    private void send() {
+      while (true) {
+        SseEventBuilder event;
+        synchronized (this) {
+          event = queue.poll();
+          if (event == null) {
+            sending = false;
+            return;
+          }
+        }
+        try {
+          emitter.send(event);
+        } catch (IOException | IllegalStateException e) {
+          // the client is gone, or the stream is already closed; sending stays set, so nothing is sent to it any more
+          LOG.debug("Dropping subscriber of tournament {}: {}", tournamentId, e.getMessage());
+          remove(this);
+          synchronized (this) {
+            queue.clear();
+          }
+          emitter.completeWithError(e);
+          return;
+        }
+      }
+    }
+  }
+}
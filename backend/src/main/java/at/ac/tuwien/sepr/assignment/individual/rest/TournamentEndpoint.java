@@ -1,9 +1,16 @@
 package at.ac.tuwien.sepr.assignment.individual.rest;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.HeadToHeadDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseRatingDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseRatingSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentMatchResultDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSimulationDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSimulationParamsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantsDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
@@ -12,19 +19,25 @@ import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepr.assignment.individual.service.TournamentService;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.ResponseStatus;
 import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.lang.invoke.MethodHandles;
-import java.util.stream.Stream;
+import java.util.List;
 
 /**
  * Controller class for handling HTTP requests related to tournaments
@@ -36,28 +49,44 @@ public class TournamentEndpoint {
   static final String BASE_PATH = "/tournaments";
 
   private final TournamentService service;
+  private final StandingsSubscriptions subscriptions;
 
   /**
    * Constructs a new TournamentEndpoint with the specified TournamentService.
    *
-   * @param service The TournamentService instance used for handling tournament-related operations.
+   * @param service       The TournamentService instance used for handling tournament-related operations.
+   * @param subscriptions The streams of the standings of tournaments followed live.
    */
-  public TournamentEndpoint(TournamentService service) {
+  public TournamentEndpoint(TournamentService service, StandingsSubscriptions subscriptions) {
     this.service = service;
+    this.subscriptions = subscriptions;
   }
 
   /**
    * Searches for tournaments based on the provided search parameters.
+   * If the page is full, the continuation token for the next page is returned in the {@link PageCursor#NEXT_PAGE_HEADER} header.
    *
    * @param searchParameters The parameters used for searching horses.
-   * @return A stream of TournamentListDto objects representing the search results.
+   * @return A list of TournamentListDto objects representing the search results.
+   * @throws ResponseStatusException with HTTP status 422 (Unprocessable entity) if the limit or the cursor is not valid
    */
   @GetMapping
-  @ResponseStatus(HttpStatus.OK)
-  public Stream<TournamentListDto> searchTournaments(TournamentSearchDto searchParameters) {
+  public ResponseEntity<List<TournamentListDto>> searchTournaments(TournamentSearchDto searchParameters) {
     LOG.info("GET " + BASE_PATH);
     LOG.debug("request parameters: {}", searchParameters);
-    return service.search(searchParameters);
+    try {
+      var tournaments = service.search(searchParameters).toList();
+      var response = ResponseEntity.ok();
+      if (searchParameters.limit() != null && tournaments.size() == searchParameters.limit()) {
+        var last = tournaments.get(tournaments.size() - 1);
+        response.header(PageCursor.NEXT_PAGE_HEADER, new PageCursor(last.startDate().toString(), last.id()).encode());
+      }
+      return response.body(tournaments);
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Validation of tournament search parameters failed", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
   }
 
   /**
@@ -90,18 +119,55 @@ public class TournamentEndpoint {
 
   /**
    * Retrieves the standings of a tournament with the specified ID.
+   * The standings are sent as cached JSON, tagged with their version in the {@code ETag} header;
+   * if the client already has that version, as told by the {@code If-None-Match} header, only 304 (Not Modified) is sent.
    *
-   * @param id The ID of the tournament.
+   * @param id          The ID of the tournament.
+   * @param ifNoneMatch The {@code ETag} of the standings the client already has, if any.
    * @return The standings of the tournament.
    * @throws ResponseStatusException with HTTP status 409 (Conflict) if the tournament with the given ID is not found.
    * @throws ResponseStatusException with HTTP status 422 (Unprocessable entity) if id is invalid
    */
   @GetMapping("/standings/{id}")
-  @ResponseStatus(HttpStatus.OK)
-  public TournamentStandingsDto getStandings(@PathVariable("id") long id) {
+  public ResponseEntity<byte[]> getStandings(@PathVariable("id") long id,
+                                             @RequestHeader(name = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     LOG.info("GET " + BASE_PATH + "/standings/{}", id);
     try {
-      return service.getStandings(id);
+      var standings = service.getStandingsJson(id);
+      String entityTag = "\"" + standings.version() + "\"";
+      if (entityTag.equals(ifNoneMatch)) {
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(entityTag).build();
+      }
+      return ResponseEntity.ok()
+          .eTag(entityTag)
+          .contentType(MediaType.APPLICATION_JSON)
+          .body(standings.json());
+    } catch (NotFoundException e) {
+      HttpStatus status = HttpStatus.NOT_FOUND;
+      logClientError(status, "Tournament with this id: " + id + " is not found", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Id is not valid", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Opens a stream of server-sent events, following the standings of a tournament live.
+   * The stream starts with the current standings and then sends the change of the standings made by every save,
+   * see {@link StandingsSubscriptions} for the events.
+   *
+   * @param id The ID of the tournament.
+   * @return The stream of the standings.
+   * @throws ResponseStatusException with HTTP status 404 (Not Found) if the tournament with the given ID is not found.
+   * @throws ResponseStatusException with HTTP status 422 (Unprocessable entity) if id is invalid
+   */
+  @GetMapping(path = "/standings/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+  public SseEmitter followStandings(@PathVariable("id") long id) {
+    LOG.info("GET " + BASE_PATH + "/standings/{}/events", id);
+    try {
+      return subscriptions.subscribe(id, () -> service.getStandingsJson(id).json());
     } catch (NotFoundException e) {
       HttpStatus status = HttpStatus.NOT_FOUND;
       logClientError(status, "Tournament with this id: " + id + " is not found", e);
@@ -138,33 +204,173 @@ public class TournamentEndpoint {
     }
   }
 
+  /**
+   * Simulates a tournament from its seeded first round, to estimate the chances of its participants before it starts.
+   *
+   * @param id         The ID of the tournament.
+   * @param parameters The number of iterations and the time budget in milliseconds, both optional.
+   * @return The probability of every participant to reach every round.
+   * @throws ResponseStatusException with HTTP status 404 (Not Found) if the tournament is not found.
+   * @throws ResponseStatusException with HTTP status 422 (Unprocessable Entity) if the number of iterations or the time budget is not valid.
+   */
+  @GetMapping("/{id}/simulation")
+  public TournamentSimulationDto simulate(@PathVariable("id") long id, TournamentSimulationParamsDto parameters) {
+    LOG.info("GET " + BASE_PATH + "/{}/simulation", id);
+    LOG.debug("request parameters: {}", parameters);
+    try {
+      return service.simulate(id, parameters);
+    } catch (NotFoundException e) {
+      HttpStatus status = HttpStatus.NOT_FOUND;
+      logClientError(status, "Tournament is not found", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Simulation parameters are not valid", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
   /**
    * Saves the standings of a tournament.
+   * The version of the standings must be sent along; they are only saved, if nobody else has saved the standings since,
+   * otherwise the current standings are sent back with HTTP status 409 (Conflict), so the client can apply its changes to them.
    *
-   * @param updateParticipants The participants' standings to be saved.
+   * @param updateParticipants The participants' standings to be saved, and the version they are based on.
    * @param id id of the tournament.
-   * @return The updated standings of the tournament.
+   * @return The updated standings of the tournament, or the current standings if they were saved by someone else in the meantime.
    * @throws ResponseStatusException with HTTP status 404 (Not Found) if a participant with some id is not found, if tournament ist not found.
-   * @throws ResponseStatusException with HTTP status 422 (Unprocessable Entity) if the new round is not valid.
+   * @throws ResponseStatusException with HTTP status 422 (Unprocessable Entity) if the new round is not valid, the version is missing,
+   *                                 or not every participant of the tournament is given exactly once.
    */
   @PutMapping("/standings/{id}")
-  @ResponseStatus(HttpStatus.OK)
-  public TournamentStandingsDto saveStanding(@PathVariable("id") long id, @RequestBody TournamentUpdateParticipantsDto updateParticipants) {
+  public ResponseEntity<TournamentStandingsDto> saveStanding(@PathVariable("id") long id,
+                                                             @RequestBody TournamentUpdateParticipantsDto updateParticipants) {
     LOG.info("PUT " + BASE_PATH + "/standings/{}", id);
     LOG.debug("Participants to update:\n{}", updateParticipants);
     try {
-      return service.saveStanding(updateParticipants, id);
+      return ResponseEntity.ok(service.saveStanding(updateParticipants, id));
+    } catch (ConflictException e) {
+      HttpStatus status = HttpStatus.CONFLICT;
+      logClientError(status, "Standings were saved by someone else in the meantime", e);
+      try {
+        return ResponseEntity.status(status).body(service.getStandings(id));
+      } catch (NotFoundException | ValidationException notFound) {
+        // the tournament can not be read any more
+        throw new ResponseStatusException(HttpStatus.NOT_FOUND, notFound.getMessage(), notFound);
+      }
     } catch (NotFoundException e) {
       HttpStatus status = HttpStatus.NOT_FOUND;
       logClientError(status, "Participant or tournament with some id is not found", e);
       throw new ResponseStatusException(status, e.getMessage(), e);
     } catch (ValidationException e) {
       HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
-      logClientError(status, "New Round is not valid", e);
+      logClientError(status, "Standings are not valid", e);
       throw new ResponseStatusException(status, e.getMessage(), e);
     }
   }
 
+  /**
+   * Records the winner of a single match of a tournament.
+   * The match in slot {@code slot} of round {@code round} is played by the entrants at the entry numbers {@code 2 * slot} and {@code 2 * slot + 1}
+   * in round 1, and by the winners of the slots {@code 2 * slot} and {@code 2 * slot + 1} of the round before otherwise.
+   *
+   * @param id     id of the tournament.
+   * @param round  the round of the match, counted from 1.
+   * @param slot   the slot of the match within its round, counted from 0.
+   * @param result the participant that won the match.
+   * @return The updated standings of the tournament.
+   * @throws ResponseStatusException with HTTP status 404 (Not Found) if the tournament is not found.
+   * @throws ResponseStatusException with HTTP status 409 (Conflict) if the competitors of the match are not known yet, the winner is not one of them,
+   *                                 or the next match of the winner has already been decided.
+   * @throws ResponseStatusException with HTTP status 422 (Unprocessable Entity) if the round, slot or result is not valid.
+   */
+  @PutMapping("/standings/{id}/matches/{round}/{slot}")
+  public TournamentStandingsDto recordMatchResult(@PathVariable("id") long id, @PathVariable("round") int round, @PathVariable("slot") int slot,
+                                                  @RequestBody TournamentMatchResultDto result) {
+    LOG.info("PUT " + BASE_PATH + "/standings/{}/matches/{}/{}", id, round, slot);
+    LOG.debug("Match result:\n{}", result);
+    try {
+      return service.recordMatchResult(id, round, slot, result);
+    } catch (NotFoundException e) {
+      HttpStatus status = HttpStatus.NOT_FOUND;
+      logClientError(status, "Tournament is not found", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (ConflictException e) {
+      HttpStatus status = HttpStatus.CONFLICT;
+      logClientError(status, "Match result conflicts with the bracket", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Match result is not valid", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Retrieves the best rated horses, overall, of a breed or of a sex.
+   *
+   * @param parameters the breed, the sex and the number of horses, all optional
+   * @return the ratings of the horses, the best first
+   * @throws ResponseStatusException with HTTP status 422 (Unprocessable Entity) if the limit is not valid
+   */
+  @GetMapping("/ratings")
+  public List<HorseRatingDto> leaderboard(HorseRatingSearchDto parameters) {
+    LOG.info("GET " + BASE_PATH + "/ratings");
+    LOG.debug("request parameters: {}", parameters);
+    try {
+      return service.leaderboard(parameters).toList();
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Leaderboard parameters are not valid", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Retrieves the record of a horse against one or more other horses, from all matches they played against each other.
+   *
+   * @param horseId     the ID of the horse
+   * @param opponentIds the IDs of the other horses, e.g. {@code ?opponents=1,2,3}
+   * @return the record of the horse against every other horse, in the order of {@code opponentIds}
+   * @throws ResponseStatusException with HTTP status 422 (Unprocessable Entity) if no other horses or too many are given
+   */
+  @GetMapping("/head-to-head/{horseId}")
+  public List<HeadToHeadDto> headToHead(@PathVariable("horseId") long horseId, @RequestParam("opponents") List<Long> opponentIds) {
+    LOG.info("GET " + BASE_PATH + "/head-to-head/{}", horseId);
+    LOG.debug("request parameters: {}", opponentIds);
+    try {
+      return service.headToHead(horseId, opponentIds).toList();
+    } catch (ValidationException e) {
+      HttpStatus status = HttpStatus.UNPROCESSABLE_ENTITY;
+      logClientError(status, "Head-to-head parameters are not valid", e);
+      throw new ResponseStatusException(status, e.getMessage(), e);
+    }
+  }
+
+  /**
+   * Rebuilds the ratings of all horses by replaying the results of all matches, e.g. after results were corrected.
+   *
+   * @return the number of horses that have played a match
+   */
+  @PostMapping("/ratings/rebuild")
+  @ResponseStatus(HttpStatus.OK)
+  public int rebuildRatings() {
+    LOG.info("POST " + BASE_PATH + "/ratings/rebuild");
+    return service.rebuildRatings();
+  }
+
+  /**
+   * Rebuilds the points of all horses from their results, to repair them after the results have been changed bypassing the application.
+   *
+   * @return the number of horses that have points
+   */
+  @PostMapping("/form-points/rebuild")
+  @ResponseStatus(HttpStatus.OK)
+  public int rebuildFormPoints() {
+    LOG.info("POST " + BASE_PATH + "/form-points/rebuild");
+    return service.rebuildFormPoints();
+  }
+
   /**
    * Logs client errors.
    *
@@ -0,0 +1,31 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.ParticipationStatsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.ParticipationStatsSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import java.util.stream.Stream;
+
+/**
+ * Service for reports over the participations of horses in tournaments.
+ */
+public interface AnalyticsService {
+
+  /**
+   * Counts the participations of horses in tournaments, and the matches they played and won, per group.
+   * The counts are taken from an in-memory replica of the participations, so no query on the persistent data store is run,
+   * except for reading the participations changed since the last report.
+   *
+   * @param searchParameters the grouping attribute and the filters of the participations
+   * @return the counts of every group that has participations, ordered by the value of the grouping attribute
+   * @throws ValidationException if no grouping attribute is given or the start dates are in the wrong order
+   */
+  Stream<ParticipationStatsDto> participationStats(ParticipationStatsSearchDto searchParameters) throws ValidationException;
+
+  /**
+   * Reads all participations from the persistent data store again, replacing the in-memory replica,
+   * e.g. after they have been changed bypassing the services.
+   *
+   * @return the number of participations
+   */
+  int rebuildParticipationStats();
+}
@@ -0,0 +1,121 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.ParticipationStatsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.ParticipationStatsSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.persistence.DataResetEvent;
+import at.ac.tuwien.sepr.assignment.individual.persistence.TournamentDao;
+import java.lang.invoke.MethodHandles;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the service for reports over the participations of horses in tournaments.
+ *
+ * <p>The reports are answered from {@link ParticipationColumns}, a columnar replica of the participations,
+ * so they do not compete with the requests of the application for the persistent data store.
+ * Changes of participations and horses only mark the horses as changed; the tournaments of the changed horses
+ * are read again before the next report, so saving standings does not wait for the replica.
+ */
+@Service
+public class AnalyticsServiceImpl implements AnalyticsService {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private final TournamentDao dao;
+  private final AnalyticsValidator validator;
+  private final ParticipationColumns participations;
+  private final Set<Long> changedHorses = ConcurrentHashMap.newKeySet();
+
+  /**
+   * Constructs a new AnalyticsServiceImpl with the provided dependencies.
+   *
+   * @param dao       the TournamentDao the participations are read with
+   * @param validator the AnalyticsValidator used for input validation
+   */
+  public AnalyticsServiceImpl(TournamentDao dao, AnalyticsValidator validator) {
+    this.dao = dao;
+    this.validator = validator;
+    this.participations = new ParticipationColumns(dao::findParticipationFacts);
+  }
+
+  @Override
+  public Stream<ParticipationStatsDto> participationStats(ParticipationStatsSearchDto searchParameters) throws ValidationException {
+    LOG.trace("participationStats({})", searchParameters);
+    validator.validateForParticipationStats(searchParameters);
+    refreshChangedHorses();
+    return participations.aggregate(searchParameters.groupBy(), searchParameters.breedId(), searchParameters.sex(),
+            searchParameters.startFrom(), searchParameters.startTo())
+        .stream()
+        .map(aggregate -> new ParticipationStatsDto(
+            Objects.toString(aggregate.key(), null),
+            aggregate.participations(),
+            aggregate.matches(),
+            aggregate.matchesWon(),
+            aggregate.matches() == 0 ? 0 : (double) aggregate.matchesWon() / aggregate.matches()));
+  }
+
+  @Override
+  public int rebuildParticipationStats() {
+    LOG.trace("rebuildParticipationStats()");
+    changedHorses.clear();
+    return participations.rebuild();
+  }
+
+  /**
+   * Marks the horses whose participations have changed, so that their tournaments are read again before the next report.
+   *
+   * @param event the event telling which horses have changed
+   */
+  @EventListener
+  public void onHorseResultsChanged(HorseResultsChangedEvent event) {
+    LOG.trace("onHorseResultsChanged({} horses)", event.horseIds().size());
+    changedHorses.addAll(event.horseIds());
+  }
+
+  /**
+   * Marks a horse whose data has been updated, so that its tournaments are read again before the next report.
+   *
+   * @param event the event telling which horse has been updated
+   */
+  @EventListener
+  public void onHorseUpdated(HorseUpdatedEvent event) {
+    LOG.trace("onHorseUpdated({})", event.horseId());
+    changedHorses.add(event.horseId());
+  }
+
+  /**
+   * Reads all participations again, after the data in the persistent data store has been replaced bypassing the services.
+   *
+   * @param event the event telling that the data has been replaced
+   */
+  @EventListener
+  public void onDataReset(DataResetEvent event) {
+    LOG.trace("onDataReset()");
+    rebuildParticipationStats();
+  }
+
+  /**
+   * Reads the tournaments of the horses marked as changed again, and puts them into the replica.
+   * Refreshes run one at a time, so that an older read never replaces a newer one.
+   */
+  private synchronized void refreshChangedHorses() {
+    if (changedHorses.isEmpty()) {
+      return;
+    }
+    var horses = new HashSet<Long>();
+    // a horse marked while this runs stays marked for the next report
+    for (Iterator<Long> changed = changedHorses.iterator(); changed.hasNext(); ) {
+      horses.add(changed.next());
+      changed.remove();
+    }
+    LOG.debug("Reading the tournaments of {} changed horses", horses.size());
+    participations.put(dao.findParticipationFacts(horses));
+  }
+}
@@ -0,0 +1,47 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.ParticipationStatsSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component responsible for validating the parameters of reports.
+ */
+@Component
+public class AnalyticsValidator {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * Default constructor for the AnalyticsValidator class.
+   * No parameters are needed.
+   */
+  public AnalyticsValidator() { }
+
+  /**
+   * Validates the parameters of a report over participations.
+   *
+   * @param searchParameters The parameters to validate.
+   * @throws ValidationException If no grouping attribute is given or the earliest start date is after the latest one.
+   */
+  public void validateForParticipationStats(ParticipationStatsSearchDto searchParameters) throws ValidationException {
+    LOG.trace("validateForParticipationStats({})", searchParameters);
+    List<String> validationErrors = new ArrayList<>();
+
+    if (searchParameters.groupBy() == null) {
+      validationErrors.add("No grouping given");
+    }
+    if (searchParameters.startFrom() != null && searchParameters.startTo() != null
+        && searchParameters.startFrom().isAfter(searchParameters.startTo())) {
+      validationErrors.add("startFrom must not be after startTo");
+    }
+
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of participation report parameters failed", validationErrors);
+    }
+  }
+}
@@ -0,0 +1,79 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+/**
+ * Arithmetic of single-elimination brackets, whose field size is a power of two.
+ * The rounds are numbered from 1, the first round played by all entrants;
+ * a horse that reached round {@code rounds(size) + 1} won the tournament, 0 means no result yet.
+ */
+public final class Bracket {
+  /**
+   * The smallest field size of a tournament.
+   */
+  public static final int MIN_SIZE = 2;
+  /**
+   * The largest field size of a tournament.
+   */
+  public static final int MAX_SIZE = 1024;
+
+  private Bracket() { }
+
+  /**
+   * Checks whether a tournament can have the given number of entrants.
+   *
+   * @param size the number of entrants
+   * @return true if {@code size} is a power of two between {@link #MIN_SIZE} and {@link #MAX_SIZE}
+   */
+  public static boolean isValidSize(int size) {
+    return size >= MIN_SIZE && size <= MAX_SIZE && Integer.bitCount(size) == 1;
+  }
+
+  /**
+   * Gets the number of rounds played in a bracket of the given size.
+   *
+   * @param size the number of entrants, a power of two
+   * @return the number of rounds, i.e. the binary logarithm of {@code size}
+   */
+  public static int rounds(int size) {
+    return Integer.numberOfTrailingZeros(size);
+  }
+
+  /**
+   * Gets the highest number of horses that can reach the given round in a bracket of the given size.
+   *
+   * @param size  the number of entrants, a power of two
+   * @param round the round reached, between 0 and {@code rounds(size) + 1}
+   * @return the number of horses that can reach {@code round}
+   */
+  public static int maxReaching(int size, int round) {
+    return round <= 1 ? size : size >> (round - 1);
+  }
+
+  /**
+   * Places the seeds into the entry positions of a bracket of the given size, as in the standard bracket:
+   * the best seed meets the worst one in the first round, and the two best seeds can only meet in the final.
+   * The order of size 2m is built from the order of size m, by following every seed s with its opponent 2m - 1 - s,
+   * which takes linear time.
+   *
+   * @param size the number of entrants, a power of two
+   * @return for every seed, counted from 0 for the best one, its entry position in the bracket
+   */
+  public static int[] entryPositions(int size) {
+    int[] seedAt = new int[size];
+    int[] next = new int[size];
+    int filled = 1;
+    while (filled < size) {
+      int doubled = filled * 2;
+      for (int i = 0; i < filled; i++) {
+        next[2 * i] = seedAt[i];
+        next[2 * i + 1] = doubled - 1 - seedAt[i];
+      }
+      System.arraycopy(next, 0, seedAt, 0, doubled);
+      filled = doubled;
+    }
+    int[] positions = new int[size];
+    for (int position = 0; position < size; position++) {
+      positions[seedAt[position]] = position;
+    }
+    return positions;
+  }
+}
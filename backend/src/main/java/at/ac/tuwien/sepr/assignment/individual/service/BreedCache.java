@@ -0,0 +1,228 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-process cache of all breeds.
+ * Breeds are reference data, that are read by nearly every request, but hardly ever change,
+ * so all of them are held in an immutable snapshot, that is replaced as a whole when the breeds are loaded again.
+ * Readers never lock, they just use the snapshot that is current when they start.
+ *
+ * <p>Lookups of breeds by ID are counted, so that the hit rate of the cache can be reported.
+ * A lookup of an ID that is not in the snapshot reloads the breeds, unless the snapshot is younger than {@link #MIN_RELOAD_INTERVAL_NANOS},
+ * so breeds added to the persistent data store from outside the application are picked up, without reloading for every unknown ID.
+ */
+public class BreedCache {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final long MIN_RELOAD_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(10);
+  private static final Comparator<BreedDto> BY_NAME_AND_ID = Comparator.comparing(BreedDto::name).thenComparingLong(BreedDto::id);
+
+  private final Supplier<Collection<BreedDto>> loader;
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private volatile Snapshot snapshot;
+
+  /**
+   * Constructs a new, empty BreedCache.
+   * The breeds are loaded on the first access, or when {@link #reload()} is called.
+   *
+   * @param loader loads all breeds from the persistent data store
+   */
+  public BreedCache(Supplier<Collection<BreedDto>> loader) {
+    this.loader = loader;
+  }
+
+  /**
+   * Loads all breeds and replaces the current snapshot with them.
+   *
+   * @return the version of the new snapshot
+   */
+  public synchronized long reload() {
+    LOG.trace("reload()");
+    long version = snapshot == null ? 1 : snapshot.version + 1;
+    var loaded = new Snapshot(version, loader.get());
+    snapshot = loaded;
+    LOG.debug("Loaded {} breeds as version {}, hit rate so far {}", loaded.byId.length, version, hitRate());
+    return version;
+  }
+
+  /**
+   * Gets the version of the current snapshot, which is increased every time the breeds are loaded.
+   *
+   * @return the version of the current snapshot, or 0 if the breeds have not been loaded yet
+   */
+  public long version() {
+    var current = snapshot;
+    return current == null ? 0 : current.version;
+  }
+
+  /**
+   * Gets all breeds, ordered by name and ID.
+   *
+   * @return all breeds
+   */
+  public List<BreedDto> all() {
+    LOG.trace("all()");
+    return current().byName;
+  }
+
+  /**
+   * Gets the breeds that have one of the given IDs.
+   * IDs, for which no breed exists, are ignored.
+   *
+   * @param ids the IDs of the breeds to get
+   * @return the found breeds
+   */
+  public List<BreedDto> findByIds(Set<Long> ids) {
+    LOG.trace("findByIds({})", ids);
+    var current = current();
+    var found = new ArrayList<BreedDto>(ids.size());
+    var missing = new ArrayList<Long>();
+    for (Long id : ids) {
+      BreedDto breed = id == null ? null : current.get(id);
+      if (breed != null) {
+        found.add(breed);
+      } else if (id != null) {
+        missing.add(id);
+      }
+    }
+    hits.add(found.size());
+    misses.add(missing.size());
+    if (!missing.isEmpty() && System.nanoTime() - current.loadedAt > MIN_RELOAD_INTERVAL_NANOS) {
+      reload();
+      var reloaded = current();
+      for (Long id : missing) {
+        BreedDto breed = reloaded.get(id);
+        if (breed != null) {
+          found.add(breed);
+        }
+      }
+    }
+    return found;
+  }
+
+  /**
+   * Gets the breeds matching the given search parameters, ordered by name and ID.
+   * The name is matched as a case-insensitive substring; a page starts after the breed given by the cursor.
+   *
+   * @param searchParams the parameters to search breeds by
+   * @return the matching breeds
+   */
+  public List<BreedDto> search(BreedSearchDto searchParams) {
+    LOG.trace("search({})", searchParams);
+    var current = current();
+    List<BreedDto> candidates = current.byName;
+    String name = searchParams.name() == null ? null : searchParams.name().toUpperCase(Locale.ROOT);
+    if (name != null) {
+      var ids = current.nameIndex.search(name);
+      if (ids != null) {
+        // the index is exact, only the order has to be restored
+        candidates = ids.stream().map(current::get).sorted(BY_NAME_AND_ID).toList();
+        name = null;
+      }
+    }
+    PageCursor cursor = searchParams.cursor() == null ? null : PageCursor.decode(searchParams.cursor());
+    int limit = searchParams.limit() == null ? Integer.MAX_VALUE : searchParams.limit();
+    var result = new ArrayList<BreedDto>();
+    for (BreedDto breed : candidates) {
+      if (result.size() >= limit) {
+        break;
+      }
+      if (name != null && !breed.name().toUpperCase(Locale.ROOT).contains(name)) {
+        continue;
+      }
+      if (cursor != null && !isAfter(breed, cursor)) {
+        continue;
+      }
+      result.add(breed);
+    }
+    return result;
+  }
+
+  /**
+   * Gets the number of breeds found by ID in the cache.
+   *
+   * @return the number of hits
+   */
+  public long hits() {
+    return hits.sum();
+  }
+
+  /**
+   * Gets the number of breed IDs, that were not found in the cache.
+   *
+   * @return the number of misses
+   */
+  public long misses() {
+    return misses.sum();
+  }
+
+  /**
+   * Gets the share of breed IDs that were found in the cache.
+   *
+   * @return the hit rate between 0 and 1, or 1 if no breed has been looked up yet
+   */
+  public double hitRate() {
+    long hitCount = hits.sum();
+    long total = hitCount + misses.sum();
+    return total == 0 ? 1.0 : (double) hitCount / total;
+  }
+
+  private Snapshot current() {
+    var current = snapshot;
+    if (current == null) {
+      reload();
+      current = snapshot;
+    }
+    return current;
+  }
+
+  private static boolean isAfter(BreedDto breed, PageCursor cursor) {
+    int byName = breed.name().compareTo(cursor.sortKey());
+    return byName > 0 || (byName == 0 && breed.id() > cursor.id());
+  }
+
+  /**
+   * Immutable set of all breeds at one point in time.
+   * Breeds are found by ID with a binary search over a sorted array of primitive IDs,
+   * which avoids boxing the IDs and needs less memory than a hash map.
+   */
+  private static final class Snapshot {
+    private final long version;
+    private final long loadedAt = System.nanoTime();
+    private final long[] ids;
+    private final BreedDto[] byId;
+    private final List<BreedDto> byName;
+    private final TrigramIndex nameIndex = new TrigramIndex();
+
+    private Snapshot(long version, Collection<BreedDto> breeds) {
+      this.version = version;
+      this.byId = breeds.toArray(BreedDto[]::new);
+      Arrays.sort(byId, Comparator.comparingLong(BreedDto::id));
+      this.ids = Arrays.stream(byId).mapToLong(BreedDto::id).toArray();
+      this.byName = breeds.stream().sorted(BY_NAME_AND_ID).toList();
+      nameIndex.rebuild(breeds.stream().collect(Collectors.toMap(BreedDto::id, BreedDto::name)));
+    }
+
+    private BreedDto get(long id) {
+      int index = Arrays.binarySearch(ids, id);
+      return index < 0 ? null : byId[index];
+    }
+  }
+}
@@ -2,6 +2,7 @@ package at.ac.tuwien.sepr.assignment.individual.service;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import java.util.Set;
 import java.util.stream.Stream;
 
@@ -27,10 +28,19 @@ public interface BreedService {
 
   /**
    * Retrieve all stored breeds, that match the given parameters.
-   * The parameters may include a limit on the amount of results to return.
+   * The parameters may include a limit on the amount of results to return
+   * and the cursor of the last breed of the previous page; breeds are ordered by name and ID.
    *
    * @param searchParams parameters to search breeds by
    * @return a stream of breeds matching the parameters
+   * @throws ValidationException if the limit is not positive or the cursor is malformed
    */
-  Stream<BreedDto> search(BreedSearchDto searchParams);
+  Stream<BreedDto> search(BreedSearchDto searchParams) throws ValidationException;
+
+  /**
+   * Get the share of breeds looked up by ID, that were served from memory without reloading the breeds.
+   *
+   * @return the hit rate of the breed cache between 0 and 1
+   */
+  double cacheHitRate();
 }
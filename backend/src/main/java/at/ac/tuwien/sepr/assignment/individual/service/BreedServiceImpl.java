@@ -2,13 +2,17 @@ package at.ac.tuwien.sepr.assignment.individual.service;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepr.assignment.individual.mapper.BreedMapper;
 import at.ac.tuwien.sepr.assignment.individual.persistence.BreedDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.DataResetEvent;
 import java.lang.invoke.MethodHandles;
 import java.util.Set;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 /**
@@ -17,41 +21,67 @@ import org.springframework.stereotype.Service;
 @Service
 public class BreedServiceImpl implements BreedService {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
-  private BreedDao dao;
-  private BreedMapper mapper;
+  private final BreedCache cache;
+  private final BreedValidator validator;
 
   /**
-   * Constructs a new BreedServiceImpl with the specified BreedDao and BreedMapper dependencies.
+   * Constructs a new BreedServiceImpl with the specified BreedDao, BreedMapper and BreedValidator dependencies.
    *
    * @param dao the BreedDao used by the BreedServiceImpl
    * @param mapper the BreedMapper used by the BreedServiceImpl
+   * @param validator the BreedValidator used by the BreedServiceImpl
    */
-  public BreedServiceImpl(BreedDao dao, BreedMapper mapper) {
-    this.dao = dao;
-    this.mapper = mapper;
+  public BreedServiceImpl(BreedDao dao, BreedMapper mapper, BreedValidator validator) {
+    this.cache = new BreedCache(() -> dao.allBreeds().stream()
+        .map(mapper::entityToDto)
+        .toList());
+    this.validator = validator;
   }
 
   @Override
   public Stream<BreedDto> allBreeds() {
     LOG.trace("allBreeds()");
-    return dao.allBreeds()
-        .stream()
-        .map(mapper::entityToDto);
+    return cache.all().stream();
   }
 
   @Override
   public Stream<BreedDto> findBreedsByIds(Set<Long> breedIds) {
     LOG.trace("findBreedsByIds({})", breedIds);
-    return dao.findBreedsById(breedIds)
-        .stream()
-        .map(mapper::entityToDto);
+    return cache.findByIds(breedIds).stream();
   }
 
   @Override
-  public Stream<BreedDto> search(BreedSearchDto searchParams) {
+  public Stream<BreedDto> search(BreedSearchDto searchParams) throws ValidationException {
     LOG.trace("search({})", searchParams);
-    return dao.search(searchParams)
-        .stream()
-        .map(mapper::entityToDto);
+    validator.validateForSearch(searchParams);
+    return cache.search(searchParams).stream();
+  }
+
+  /**
+   * Loads the breeds into the cache, once the application has started,
+   * so that the first request does not have to wait for it.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public void loadCache() {
+    LOG.trace("loadCache()");
+    if (cache.version() == 0) {
+      cache.reload();
+    }
+  }
+
+  /**
+   * Reloads the breeds into the cache, after they have been replaced in the persistent data store bypassing this service.
+   *
+   * @param event the event telling that the data has been replaced
+   */
+  @EventListener
+  public void onDataReset(DataResetEvent event) {
+    LOG.trace("onDataReset()");
+    cache.reload();
+  }
+
+  @Override
+  public double cacheHitRate() {
+    return cache.hitRate();
   }
 }
@@ -0,0 +1,51 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.List;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+/**
+ * Component responsible for validating breed search parameters.
+ */
+@Component
+public class BreedValidator {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  /**
+   * Default constructor for the BreedValidator class.
+   * No parameters are needed.
+   */
+  public BreedValidator() { }
+
+  /**
+   * Validates the search parameters before searching.
+   *
+   * @param searchParams The search parameters to validate.
+   * @throws ValidationException If the limit is not positive or the cursor is malformed.
+   */
+  public void validateForSearch(BreedSearchDto searchParams) throws ValidationException {
+    LOG.trace("validateForSearch({})", searchParams);
+    List<String> validationErrors = new ArrayList<>();
+
+    if (searchParams.limit() != null && searchParams.limit() <= 0) {
+      validationErrors.add("limit must be positive");
+    }
+    if (searchParams.cursor() != null) {
+      try {
+        PageCursor.decode(searchParams.cursor());
+      } catch (IllegalArgumentException e) {
+        validationErrors.add("cursor is not valid");
+      }
+    }
+
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of breed search parameters failed", validationErrors);
+    }
+  }
+}
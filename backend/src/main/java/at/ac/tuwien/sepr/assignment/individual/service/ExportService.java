@@ -0,0 +1,32 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.persistence.ExportSink;
+
+/**
+ * Service for full dumps of the horses, tournaments and participants.
+ * The rows are passed to the sink as they are read from the persistent data store, so a dump of any size uses constant memory.
+ * An {@link java.io.UncheckedIOException} thrown by these methods wraps an {@link java.io.IOException} of the sink.
+ */
+public interface ExportService {
+
+  /**
+   * Passes all horses, with the name of their breed, to the sink.
+   *
+   * @param sink the receiver of the rows
+   */
+  void exportHorses(ExportSink sink);
+
+  /**
+   * Passes all tournaments to the sink.
+   *
+   * @param sink the receiver of the rows
+   */
+  void exportTournaments(ExportSink sink);
+
+  /**
+   * Passes all participants of all tournaments, with the round they reached, to the sink.
+   *
+   * @param sink the receiver of the rows
+   */
+  void exportParticipants(ExportSink sink);
+}
@@ -0,0 +1,44 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.persistence.ExportDao;
+import at.ac.tuwien.sepr.assignment.individual.persistence.ExportSink;
+import java.lang.invoke.MethodHandles;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Implementation of the service for full dumps of the horses, tournaments and participants.
+ */
+@Service
+public class ExportServiceImpl implements ExportService {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private final ExportDao dao;
+
+  /**
+   * Constructs a new ExportServiceImpl with the provided ExportDao.
+   *
+   * @param dao the ExportDao the dumps are read with
+   */
+  public ExportServiceImpl(ExportDao dao) {
+    this.dao = dao;
+  }
+
+  @Override
+  public void exportHorses(ExportSink sink) {
+    LOG.trace("exportHorses()");
+    dao.exportHorses(sink);
+  }
+
+  @Override
+  public void exportTournaments(ExportSink sink) {
+    LOG.trace("exportTournaments()");
+    dao.exportTournaments(sink);
+  }
+
+  @Override
+  public void exportParticipants(ExportSink sink) {
+    LOG.trace("exportParticipants()");
+    dao.exportParticipants(sink);
+  }
+}
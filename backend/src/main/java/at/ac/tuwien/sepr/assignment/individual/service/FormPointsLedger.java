@@ -0,0 +1,184 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.entity.PointContribution;
+import java.lang.invoke.MethodHandles;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory ledger of the points every horse earned in tournaments: 1, 3, 5, ... points for reaching round 2, 3, 4, ...
+ * It is kept current by {@link #put}, whenever the result of a horse in a tournament is saved,
+ * so that the points of a horse never have to be summed up from all its results again.
+ *
+ * <p>The points of each horse are held as running sums over its results ordered by the end date of the tournament,
+ * so the points of any period, e.g. the last 12 months, are the difference of two running sums, found by binary search.
+ * Results leave a period just by its bounds moving on; they never have to be removed.
+ *
+ * <p>Reading never locks; every horse has an immutable set of results, that is replaced as a whole when one of them changes.
+ */
+public class FormPointsLedger {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int FORM_MONTHS = 12;
+
+  private final Supplier<Collection<PointContribution>> loader;
+  private volatile Map<Long, HorseResults> results;
+
+  /**
+   * Constructs a new, empty FormPointsLedger.
+   * The results are loaded on the first access, or when {@link #rebuild()} is called.
+   *
+   * @param loader loads the results of all horses in all tournaments from the persistent data store
+   */
+  public FormPointsLedger(Supplier<Collection<PointContribution>> loader) {
+    this.loader = loader;
+  }
+
+  /**
+   * Gets the points for reaching a round of a tournament.
+   *
+   * @param roundReached the round reached
+   * @return the points for reaching that round
+   */
+  public static int pointsFor(int roundReached) {
+    // 1, 3 and 5 points for reaching round 2, 3 and 4 of a bracket of eight, continued for larger brackets
+    return roundReached < 2 ? 0 : 2 * roundReached - 3;
+  }
+
+  /**
+   * Loads the results of all horses and replaces the ledger with them.
+   * The results are grouped by horse and summed up in parallel on the common fork/join pool,
+   * as this is independent for every horse.
+   *
+   * @return the number of horses that have points
+   */
+  public synchronized int rebuild() {
+    LOG.trace("rebuild()");
+    Map<Long, List<PointContribution>> byHorse = loader.get().parallelStream()
+        .filter(contribution -> pointsFor(contribution.roundReached()) > 0)
+        .collect(Collectors.groupingByConcurrent(PointContribution::horseId));
+    var rebuilt = new ConcurrentHashMap<Long, HorseResults>(byHorse.size() * 4 / 3 + 1);
+    byHorse.entrySet().parallelStream()
+        .forEach(entry -> rebuilt.put(entry.getKey(), HorseResults.of(entry.getValue())));
+    results = rebuilt;
+    LOG.debug("Rebuilt the points of {} horses", rebuilt.size());
+    return rebuilt.size();
+  }
+
+  /**
+   * Sets the result of a horse in a tournament, replacing its previous result in that tournament.
+   *
+   * @param horseId      the ID of the horse
+   * @param tournamentId the ID of the tournament
+   * @param endDate      the end date of the tournament
+   * @param roundReached the round the horse reached
+   */
+  public synchronized void put(long horseId, long tournamentId, LocalDate endDate, int roundReached) {
+    LOG.trace("put({}, {}, {}, {})", horseId, tournamentId, endDate, roundReached);
+    current().compute(horseId, (id, previous) -> {
+      var updated = (previous == null ? HorseResults.EMPTY : previous)
+          .with(new PointContribution(horseId, tournamentId, endDate, roundReached));
+      return updated.isEmpty() ? null : updated;
+    });
+  }
+
+  /**
+   * Gets the points a horse earned in the tournaments that ended in the 12 months up to and including the given date.
+   *
+   * @param horseId the ID of the horse
+   * @param date    the last day of the period
+   * @return the points of the horse
+   */
+  public int formPoints(long horseId, LocalDate date) {
+    var horse = current().get(horseId);
+    if (horse == null) {
+      return 0;
+    }
+    long to = date.plusDays(1).toEpochDay();
+    long from = date.minusMonths(FORM_MONTHS).plusDays(1).toEpochDay();
+    return horse.sumBefore(to) - horse.sumBefore(from);
+  }
+
+  private Map<Long, HorseResults> current() {
+    var current = results;
+    if (current == null) {
+      synchronized (this) {
+        if (results == null) {
+          rebuild();
+        }
+        current = results;
+      }
+    }
+    return current;
+  }
+
+  /**
+   * Immutable results of one horse that earned points, ordered by the end date of the tournament,
+   * with the running sum of the points before each result.
+   */
+  private static final class HorseResults {
+    private static final HorseResults EMPTY = new HorseResults(new PointContribution[0]);
+
+    private final PointContribution[] byEndDate;
+    private final long[] endDays;
+    private final int[] sumBefore;
+
+    private HorseResults(PointContribution[] byEndDate) {
+      this.byEndDate = byEndDate;
+      this.endDays = new long[byEndDate.length];
+      this.sumBefore = new int[byEndDate.length + 1];
+      for (int i = 0; i < byEndDate.length; i++) {
+        endDays[i] = byEndDate[i].endDate().toEpochDay();
+        sumBefore[i + 1] = sumBefore[i] + pointsFor(byEndDate[i].roundReached());
+      }
+    }
+
+    private static HorseResults of(Collection<PointContribution> contributions) {
+      var sorted = contributions.toArray(PointContribution[]::new);
+      Arrays.sort(sorted, Comparator.comparing(PointContribution::endDate));
+      return new HorseResults(sorted);
+    }
+
+    private boolean isEmpty() {
+      return byEndDate.length == 0;
+    }
+
+    private HorseResults with(PointContribution contribution) {
+      var updated = Arrays.stream(byEndDate)
+          .filter(existing -> existing.tournamentId() != contribution.tournamentId())
+          .collect(Collectors.toList());
+      if (pointsFor(contribution.roundReached()) > 0) {
+        updated.add(contribution);
+      }
+      return of(updated);
+    }
+
+    /**
+     * Sums up the points of the tournaments that ended before the given day.
+     *
+     * @param epochDay the day, from which on tournaments do not count
+     * @return the sum of the points
+     */
+    private int sumBefore(long epochDay) {
+      int low = 0;
+      int high = endDays.length;
+      while (low < high) {
+        int middle = (low + high) >>> 1;
+        if (endDays[middle] < epochDay) {
+          low = middle + 1;
+        } else {
+          high = middle;
+        }
+      }
+      return sumBefore[low];
+    }
+  }
+}
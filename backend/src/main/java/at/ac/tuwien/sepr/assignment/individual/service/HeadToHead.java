@@ -0,0 +1,270 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.entity.MatchResult;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * The wins and losses of every pair of horses against each other, from the results of the matches they played.
+ *
+ * <p>The records are held in an open-addressing hash table keyed by the two IDs of a pair, the lower one first,
+ * in parallel primitive arrays, so a pair costs a few array slots instead of a key object, a value object and a map entry.
+ * Looking up a pair is a hash and a short probe, independent of the number of matches the two horses played.
+ *
+ * <p>Saving a tournament or a single match again takes back its earlier results, which the caller reads before overwriting them,
+ * so no match is remembered here. The records have to be loaded with {@link #load()} before a change is written,
+ * so that loading them can not take the change into account on top of applying it.
+ * Pairs are never removed from the table; a pair whose matches were all taken back
+ * just has no wins, until {@link #rebuild()} builds the table anew.
+ */
+public class HeadToHead {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int INITIAL_CAPACITY = 1024;
+  /**
+   * Share of used slots above which the table is doubled, low enough to keep the probes short.
+   */
+  private static final double MAX_LOAD = 0.6;
+
+  private final Supplier<List<MatchResult>> loader;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // changed only while holding the write lock; null until loaded
+  private volatile Table table;
+
+  /**
+   * Constructs a new, empty HeadToHead.
+   * The matches are loaded on the first access, or when {@link #rebuild()} is called.
+   *
+   * @param loader loads the results of all matches
+   */
+  public HeadToHead(Supplier<List<MatchResult>> loader) {
+    this.loader = loader;
+  }
+
+  /**
+   * Builds the records of all pairs anew from the results of all matches.
+   *
+   * @return the number of pairs of horses that have played each other
+   */
+  public int rebuild() {
+    LOG.trace("rebuild()");
+    lock.writeLock().lock();
+    try {
+      replay();
+      LOG.debug("Rebuilt the head-to-head records of {} pairs", table.size);
+      return table.size;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Loads the records of all pairs, unless they are loaded already.
+   * Has to be called before a change of results is written, which is then passed to {@link #putTournament} or {@link #put}.
+   */
+  public void load() {
+    if (table == null) {
+      lock.writeLock().lock();
+      try {
+        if (table == null) {
+          replay();
+        }
+      } finally {
+        lock.writeLock().unlock();
+      }
+    }
+  }
+
+  /**
+   * Sets the results of all decided matches of a tournament, taking back the results it had before.
+   *
+   * @param tournamentId the ID of the tournament
+   * @param previous     the results of the decided matches of the tournament, as read before they were overwritten
+   * @param results      the results of all decided matches of the tournament
+   */
+  public void putTournament(long tournamentId, Collection<MatchResult> previous, Collection<MatchResult> results) {
+    LOG.trace("putTournament({}, {} previous results, {} results)", tournamentId, previous.size(), results.size());
+    lock.writeLock().lock();
+    try {
+      for (MatchResult match : previous) {
+        table.add(match.winnerId(), match.loserId(), -1);
+      }
+      for (MatchResult match : results) {
+        table.add(match.winnerId(), match.loserId(), 1);
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the result of a single match, taking back the result it had before.
+   *
+   * @param previous the result of the match, as read before it was overwritten, or null if it had not been decided
+   * @param result   the result of the match
+   */
+  public void put(MatchResult previous, MatchResult result) {
+    LOG.trace("put({}, {})", previous, result);
+    lock.writeLock().lock();
+    try {
+      if (previous != null) {
+        table.add(previous.winnerId(), previous.loserId(), -1);
+      }
+      table.add(result.winnerId(), result.loserId(), 1);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Gets the records of a horse against other ones.
+   *
+   * @param horseId     the ID of the horse
+   * @param opponentIds the IDs of the other horses
+   * @return the record of the horse against every other one, in the order of {@code opponentIds}
+   */
+  public List<Record> records(long horseId, Collection<Long> opponentIds) {
+    load();
+    lock.readLock().lock();
+    try {
+      var records = new ArrayList<Record>(opponentIds.size());
+      for (long opponentId : opponentIds) {
+        records.add(table.get(horseId, opponentId));
+      }
+      return records;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void replay() {
+    var history = loader.get();
+    var replayed = new Table(Math.max(INITIAL_CAPACITY, Integer.highestOneBit((int) (history.size() / MAX_LOAD)) * 2));
+    for (MatchResult match : history) {
+      replayed.add(match.winnerId(), match.loserId(), 1);
+    }
+    table = replayed;
+  }
+
+  /**
+   * The record of a horse against another one.
+   *
+   * @param wins   the number of matches the horse won against the other one
+   * @param losses the number of matches the horse lost against the other one
+   */
+  public record Record(int wins, int losses) {
+  }
+
+  /**
+   * Open-addressing hash table with linear probing from pairs of horse IDs to the wins of either horse against the other.
+   */
+  private static final class Table {
+    private long[] lowIds;
+    private long[] highIds;
+    // wins of the horse with the lower ID, and of the one with the higher ID
+    private int[] lowWins;
+    private int[] highWins;
+    private boolean[] used;
+    private int size;
+
+    private Table(int capacity) {
+      allocate(capacity);
+    }
+
+    private Record get(long horseId, long opponentId) {
+      long low = Math.min(horseId, opponentId);
+      long high = Math.max(horseId, opponentId);
+      int slot = find(low, high);
+      if (!used[slot]) {
+        return new Record(0, 0);
+      }
+      return horseId == low ? new Record(lowWins[slot], highWins[slot]) : new Record(highWins[slot], lowWins[slot]);
+    }
+
+    /**
+     * Adds a number of wins of one horse against another.
+     *
+     * @param winnerId the ID of the horse that won
+     * @param loserId  the ID of the horse that lost
+     * @param wins     the number of wins to add, negative to take wins back
+     */
+    private void add(long winnerId, long loserId, int wins) {
+      long low = Math.min(winnerId, loserId);
+      long high = Math.max(winnerId, loserId);
+      int slot = find(low, high);
+      if (!used[slot]) {
+        if (size + 1 > lowIds.length * MAX_LOAD) {
+          grow();
+          slot = find(low, high);
+        }
+        used[slot] = true;
+        lowIds[slot] = low;
+        highIds[slot] = high;
+        size++;
+      }
+      if (winnerId == low) {
+        lowWins[slot] += wins;
+      } else {
+        highWins[slot] += wins;
+      }
+    }
+
+    /**
+     * Finds the slot of a pair.
+     *
+     * @param low  the lower ID of the pair
+     * @param high the higher ID of the pair
+     * @return the slot holding the pair, or the free slot it would be put into
+     */
+    private int find(long low, long high) {
+      int mask = lowIds.length - 1;
+      int slot = hash(low, high) & mask;
+      while (used[slot] && (lowIds[slot] != low || highIds[slot] != high)) {
+        slot = (slot + 1) & mask;
+      }
+      return slot;
+    }
+
+    private void grow() {
+      var oldLowIds = lowIds;
+      var oldHighIds = highIds;
+      var oldLowWins = lowWins;
+      var oldHighWins = highWins;
+      var oldUsed = used;
+      allocate(oldLowIds.length * 2);
+      for (int i = 0; i < oldLowIds.length; i++) {
+        if (oldUsed[i]) {
+          int slot = find(oldLowIds[i], oldHighIds[i]);
+          used[slot] = true;
+          lowIds[slot] = oldLowIds[i];
+          highIds[slot] = oldHighIds[i];
+          lowWins[slot] = oldLowWins[i];
+          highWins[slot] = oldHighWins[i];
+        }
+      }
+    }
+
+    private void allocate(int capacity) {
+      lowIds = new long[capacity];
+      highIds = new long[capacity];
+      lowWins = new int[capacity];
+      highWins = new int[capacity];
+      used = new boolean[capacity];
+    }
+
+    private static int hash(long low, long high) {
+      // mixes both IDs, so that pairs of consecutive IDs are spread over the table
+      long h = low * 0x9E3779B97F4A7C15L + high;
+      h ^= h >>> 32;
+      h *= 0xD6E8FEB86659FD93L;
+      h ^= h >>> 32;
+      return (int) h;
+    }
+  }
+}
@@ -0,0 +1,367 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.entity.MatchResult;
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Elo ratings of the horses, from the results of the matches they played, with leaderboards of the best rated horses
+ * overall, per breed and per sex.
+ * Every match moves {@code K_FACTOR * (1 - expected score of the winner)} points from the loser to the winner.
+ *
+ * <p>Results saved later are applied on top of the current ratings, one match at a time; a changed result first takes back
+ * the points its earlier result moved. So the ratings can drift slightly from a replay in the order the matches were played,
+ * which {@link #rebuild()} does. That replay is parallel: every match is put on the level after the last matches of its two horses,
+ * so the matches of one level have no horse in common and are applied in parallel, while the matches of every horse are still
+ * applied in the order they were played.
+ *
+ * <p>The leaderboards are concurrent skip lists ordered by rating, so reading the best K horses walks K entries and never
+ * looks at the matches. Changes are written one at a time; reading never locks, but may miss the horse being changed at that moment.
+ */
+public class HorseRatings {
+  /**
+   * The rating of a horse that has not played a match yet.
+   */
+  public static final double INITIAL_RATING = 1500;
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final double K_FACTOR = 32;
+  /**
+   * Number of matches of a level of the replay, from which they are applied in parallel.
+   */
+  private static final int MIN_PARALLEL_LEVEL = 512;
+  private static final Comparator<Rating> BY_RATING = Comparator.comparingDouble(Rating::rating).reversed().thenComparingLong(Rating::horseId);
+
+  private final Supplier<List<MatchResult>> loader;
+  private volatile State state;
+
+  /**
+   * Constructs a new, empty HorseRatings.
+   * The matches are loaded on the first access, or when {@link #rebuild()} is called.
+   *
+   * @param loader loads the results of all matches, in the order they were played
+   */
+  public HorseRatings(Supplier<List<MatchResult>> loader) {
+    this.loader = loader;
+  }
+
+  /**
+   * Replays the results of all matches and replaces the ratings with the outcome.
+   *
+   * @return the number of horses that have played a match
+   */
+  public synchronized int rebuild() {
+    LOG.trace("rebuild()");
+    state = replay(loader.get());
+    LOG.debug("Rebuilt the ratings of {} horses", state.ratings.size());
+    return state.ratings.size();
+  }
+
+  /**
+   * Gets the best rated horses, optionally only those of a breed or sex.
+   *
+   * @param breedId the ID of the breed, or null for all breeds
+   * @param sex     the sex, or null for both
+   * @param limit   the number of horses to return at most
+   * @return the ratings of the horses, the best first
+   */
+  public List<Rating> top(Long breedId, Sex sex, int limit) {
+    var current = current();
+    NavigableSet<Rating> board = breedId != null ? current.byBreed.get(breedId) : sex != null ? current.bySex.get(sex) : current.overall;
+    if (board == null) {
+      return List.of();
+    }
+    return board.stream()
+        .filter(rating -> sex == null || rating.sex() == sex)
+        .limit(limit)
+        .toList();
+  }
+
+  /**
+   * Sets the results of all decided matches of a tournament, after its standings were saved as a whole.
+   * Matches that are not decided any more have their points taken back.
+   *
+   * @param tournamentId the ID of the tournament
+   * @param results      the results of all decided matches of the tournament
+   */
+  public synchronized void putTournament(long tournamentId, Collection<MatchResult> results) {
+    LOG.trace("putTournament({}, {} results)", tournamentId, results.size());
+    if (state == null) {
+      // the results are already saved, so loading the ratings takes them into account
+      rebuild();
+      return;
+    }
+    var decided = new HashSet<Long>();
+    for (MatchResult result : results) {
+      decided.add(matchKey(result.round(), result.slot()));
+    }
+    var matches = state.applied.getOrDefault(tournamentId, Map.of());
+    for (Long key : new ArrayList<>(matches.keySet())) {
+      if (!decided.contains(key)) {
+        takeBack(state, matches.remove(key));
+      }
+    }
+    for (MatchResult result : results) {
+      apply(state, result);
+    }
+  }
+
+  /**
+   * Sets the result of a single match.
+   *
+   * @param result the result of the match
+   */
+  public synchronized void put(MatchResult result) {
+    LOG.trace("put({})", result);
+    if (state == null) {
+      rebuild();
+      return;
+    }
+    apply(state, result);
+  }
+
+  private State current() {
+    var current = state;
+    if (current == null) {
+      synchronized (this) {
+        if (state == null) {
+          rebuild();
+        }
+        current = state;
+      }
+    }
+    return current;
+  }
+
+  private static long matchKey(int round, int slot) {
+    return (long) round << 32 | slot;
+  }
+
+  /**
+   * Gets the points the winner of a match takes from the loser.
+   *
+   * @param winner the rating of the winner before the match
+   * @param loser  the rating of the loser before the match
+   * @return the points, between 0 and {@link #K_FACTOR}
+   */
+  private static double points(double winner, double loser) {
+    double expected = 1 / (1 + Math.pow(10, (loser - winner) / 400));
+    return K_FACTOR * (1 - expected);
+  }
+
+  private static void apply(State state, MatchResult result) {
+    var matches = state.applied.computeIfAbsent(result.tournamentId(), id -> new HashMap<>());
+    long key = matchKey(result.round(), result.slot());
+    var previous = matches.get(key);
+    if (previous != null) {
+      if (previous.winnerId() == result.winnerId() && previous.loserId() == result.loserId()) {
+        return;
+      }
+      takeBack(state, previous);
+    }
+    var winner = state.rating(result.winnerId(), result.winnerSex(), result.winnerBreedId());
+    var loser = state.rating(result.loserId(), result.loserSex(), result.loserBreedId());
+    double points = points(winner.rating(), loser.rating());
+    state.replace(winner, new Rating(winner.horseId(), winner.sex(), winner.breedId(), winner.rating() + points, winner.matches() + 1));
+    state.replace(loser, new Rating(loser.horseId(), loser.sex(), loser.breedId(), loser.rating() - points, loser.matches() + 1));
+    matches.put(key, new Applied(result.winnerId(), result.loserId(), points));
+  }
+
+  private static void takeBack(State state, Applied applied) {
+    var winner = state.ratings.get(applied.winnerId());
+    var loser = state.ratings.get(applied.loserId());
+    state.replace(winner, new Rating(winner.horseId(), winner.sex(), winner.breedId(), winner.rating() - applied.points(), winner.matches() - 1));
+    state.replace(loser, new Rating(loser.horseId(), loser.sex(), loser.breedId(), loser.rating() + applied.points(), loser.matches() - 1));
+  }
+
+  /**
+   * Replays the results of all matches, applying the matches of one level in parallel.
+   *
+   * @param history the results of all matches, in the order they were played
+   * @return the ratings after the last match
+   */
+  private static State replay(List<MatchResult> history) {
+    int count = history.size();
+    var index = new HashMap<Long, Integer>();
+    var horses = new ArrayList<MatchResult>();
+    var isWinner = new ArrayList<Boolean>();
+    int[] winners = new int[count];
+    int[] losers = new int[count];
+    for (int i = 0; i < count; i++) {
+      var result = history.get(i);
+      winners[i] = index.computeIfAbsent(result.winnerId(), id -> horses.size());
+      setLastMatch(horses, isWinner, winners[i], result, true);
+      losers[i] = index.computeIfAbsent(result.loserId(), id -> horses.size());
+      setLastMatch(horses, isWinner, losers[i], result, false);
+    }
+
+    // the level of a match is one after the levels of the last matches of its two horses
+    int[] lastLevel = new int[horses.size()];
+    int[] level = new int[count];
+    int levels = 0;
+    for (int i = 0; i < count; i++) {
+      level[i] = Math.max(lastLevel[winners[i]], lastLevel[losers[i]]) + 1;
+      lastLevel[winners[i]] = level[i];
+      lastLevel[losers[i]] = level[i];
+      levels = Math.max(levels, level[i]);
+    }
+    int[] start = new int[levels + 2];
+    for (int i = 0; i < count; i++) {
+      start[level[i] + 1]++;
+    }
+    for (int l = 1; l < start.length; l++) {
+      start[l] += start[l - 1];
+    }
+    int[] order = new int[count];
+    int[] next = start.clone();
+    for (int i = 0; i < count; i++) {
+      order[next[level[i]]++] = i;
+    }
+
+    double[] ratings = new double[horses.size()];
+    Arrays.fill(ratings, INITIAL_RATING);
+    int[] played = new int[horses.size()];
+    double[] points = new double[count];
+    for (int l = 1; l <= levels; l++) {
+      var matches = IntStream.range(start[l], start[l + 1]);
+      if (start[l + 1] - start[l] >= MIN_PARALLEL_LEVEL) {
+        matches = matches.parallel();
+      }
+      // the matches of a level have no horse in common, so they write to distinct elements
+      matches.forEach(position -> {
+        int i = order[position];
+        points[i] = points(ratings[winners[i]], ratings[losers[i]]);
+        ratings[winners[i]] += points[i];
+        ratings[losers[i]] -= points[i];
+        played[winners[i]]++;
+        played[losers[i]]++;
+      });
+    }
+
+    var state = new State();
+    for (int i = 0; i < count; i++) {
+      var result = history.get(i);
+      state.applied.computeIfAbsent(result.tournamentId(), id -> new HashMap<>())
+          .put(matchKey(result.round(), result.slot()), new Applied(result.winnerId(), result.loserId(), points[i]));
+    }
+    IntStream.range(0, horses.size()).parallel().forEach(horse -> {
+      var last = horses.get(horse);
+      var rating = isWinner.get(horse)
+          ? new Rating(last.winnerId(), last.winnerSex(), last.winnerBreedId(), ratings[horse], played[horse])
+          : new Rating(last.loserId(), last.loserSex(), last.loserBreedId(), ratings[horse], played[horse]);
+      state.ratings.put(rating.horseId(), rating);
+      state.add(rating);
+    });
+    return state;
+  }
+
+  /**
+   * Remembers the last match of a horse, whose sex and breed are the ones the horse is rated with.
+   *
+   * @param horses   the last match of every horse, by its index
+   * @param isWinner whether every horse won its last match, by its index
+   * @param horse    the index of the horse
+   * @param result   the match
+   * @param won      whether the horse won the match
+   */
+  private static void setLastMatch(List<MatchResult> horses, List<Boolean> isWinner, int horse, MatchResult result, boolean won) {
+    if (horse == horses.size()) {
+      horses.add(result);
+      isWinner.add(won);
+    } else {
+      horses.set(horse, result);
+      isWinner.set(horse, won);
+    }
+  }
+
+  /**
+   * The rating of a horse.
+   *
+   * @param horseId the ID of the horse
+   * @param sex     the sex of the horse, as of its last match
+   * @param breedId the ID of the breed of the horse as of its last match, or null if it has none
+   * @param rating  the rating
+   * @param matches the number of matches the rating is based on
+   */
+  public record Rating(long horseId, Sex sex, Long breedId, double rating, int matches) {
+  }
+
+  /**
+   * The points a match moved from its loser to its winner.
+   */
+  private record Applied(long winnerId, long loserId, double points) {
+  }
+
+  /**
+   * The ratings of all horses, with the leaderboards and the points of every match applied to them.
+   * It is only changed while holding the lock of the HorseRatings, except for reading the leaderboards.
+   */
+  private static final class State {
+    private final Map<Long, Rating> ratings = new ConcurrentHashMap<>();
+    private final Map<Long, Map<Long, Applied>> applied = new HashMap<>();
+    private final NavigableSet<Rating> overall = new ConcurrentSkipListSet<>(BY_RATING);
+    private final Map<Long, NavigableSet<Rating>> byBreed = new ConcurrentHashMap<>();
+    private final Map<Sex, NavigableSet<Rating>> bySex = new ConcurrentHashMap<>();
+
+    private Rating rating(long horseId, Sex sex, Long breedId) {
+      var rating = ratings.get(horseId);
+      if (rating == null) {
+        return new Rating(horseId, sex, breedId, INITIAL_RATING, 0);
+      }
+      if (rating.sex() != sex || !Objects.equals(rating.breedId(), breedId)) {
+        // the horse was changed since its last match, so it moves to other leaderboards
+        var moved = new Rating(horseId, sex, breedId, rating.rating(), rating.matches());
+        replace(rating, moved);
+        return moved;
+      }
+      return rating;
+    }
+
+    private void replace(Rating previous, Rating next) {
+      remove(previous);
+      if (next.matches() > 0) {
+        ratings.put(next.horseId(), next);
+        add(next);
+      } else {
+        ratings.remove(next.horseId());
+      }
+    }
+
+    private void add(Rating rating) {
+      overall.add(rating);
+      bySex.computeIfAbsent(rating.sex(), sex -> new ConcurrentSkipListSet<>(BY_RATING)).add(rating);
+      if (rating.breedId() != null) {
+        byBreed.computeIfAbsent(rating.breedId(), breed -> new ConcurrentSkipListSet<>(BY_RATING)).add(rating);
+      }
+    }
+
+    private void remove(Rating rating) {
+      overall.remove(rating);
+      var sexBoard = bySex.get(rating.sex());
+      if (sexBoard != null) {
+        sexBoard.remove(rating);
+      }
+      if (rating.breedId() != null) {
+        var breedBoard = byBreed.get(rating.breedId());
+        if (breedBoard != null) {
+          breedBoard.remove(rating);
+        }
+      }
+    }
+  }
+}
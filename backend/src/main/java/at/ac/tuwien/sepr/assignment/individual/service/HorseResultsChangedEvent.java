@@ -0,0 +1,13 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import java.util.Set;
+
+/**
+ * Application event published after the participations of horses in tournaments have changed,
+ * i.e. after horses were entered into a tournament or the rounds they reached were saved.
+ * Listeners are called on the thread making the change, so they must not block.
+ *
+ * @param horseIds the IDs of the horses whose participations have changed
+ */
+public record HorseResultsChangedEvent(Set<Long> horseIds) {
+}
@@ -1,11 +1,18 @@
 package at.ac.tuwien.sepr.assignment.individual.service;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.CacheStatsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseImportRecordDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseImportResultDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseStatsDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
 import java.util.stream.Stream;
 
 /**
@@ -15,11 +22,31 @@ public interface HorseService {
   /**
    * Search for horses in the persistent data store matching all provided fields.
    * The name is considered a match, if the search string is a substring of the field in horse.
+   * The horses are ordered by name and ID, so that a page can be continued from the cursor of its last horse.
    *
    * @param searchParameters the search parameters to use in filtering.
    * @return the horses where the given fields match.
+   * @throws ValidationException if the limit is not positive or the cursor is malformed
    */
-  Stream<HorseListDto> search(HorseSearchDto searchParameters);
+  Stream<HorseListDto> search(HorseSearchDto searchParameters) throws ValidationException;
+
+  /**
+   * Get the counters of the cache of search results used by {@link #search(HorseSearchDto)}.
+   *
+   * @return the hits, misses and evictions of the search cache so far
+   */
+  CacheStatsDto searchCacheStats();
+
+  /**
+   * Search for horses in the persistent data store matching all provided fields, like {@link #search(HorseSearchDto)},
+   * but pass each horse to {@code action} as soon as it is read, instead of collecting the result first.
+   * Meant for large results, which are written out while they are read.
+   *
+   * @param searchParameters the search parameters to use in filtering.
+   * @param action the action to perform for each matching horse, in the order of the search.
+   * @throws ValidationException if the limit is not positive or the cursor is malformed
+   */
+  void searchEach(HorseSearchDto searchParameters, Consumer<HorseListDto> action) throws ValidationException;
 
   /**
    * Updates the horse with the ID given in {@code horse}
@@ -45,6 +72,26 @@ public interface HorseService {
    */
   HorseDetailDto getById(long id) throws NotFoundException;
 
+  /**
+   * Get the career of the horse with given ID in tournaments.
+   * The careers are cached until the participations of the horse change.
+   *
+   * @param id the ID of the horse
+   * @return the career of the horse with ID {@code id}
+   * @throws NotFoundException if the horse with the given ID does not exist in the persistent data store
+   */
+  HorseStatsDto getStats(long id) throws NotFoundException;
+
+  /**
+   * Get the careers of many horses in tournaments at once, like {@link #getStats(long)}.
+   * The careers that are not cached are read together in one query.
+   *
+   * @param ids the IDs of the horses
+   * @return the careers of those of the horses that exist, in the order of {@code ids}
+   * @throws ValidationException if no IDs or more than {@link HorseValidator#MAX_STATS_IDS} are given
+   */
+  Stream<HorseStatsDto> getStats(Collection<Long> ids) throws ValidationException;
+
   /**
    * Inserts a new horse into the persistent data store.
    *
@@ -56,6 +103,17 @@ public interface HorseService {
    */
   HorseDetailDto insert(HorseDetailDto horse) throws ConflictException, ValidationException;
 
+  /**
+   * Inserts many horses into the persistent data store at once.
+   * Each horse is validated and checked for conflicts like in {@link #insert(HorseDetailDto)},
+   * but a horse that is not correct does not stop the import of the others.
+   * A horse that is equal to one earlier in the import is a conflict as well.
+   *
+   * @param records the records read from the imported data
+   * @return the outcome of every record, in the order of {@code records}
+   */
+  List<HorseImportResultDto> importHorses(Stream<HorseImportRecordDto> records);
+
   /**
    * Deletes the horse with the given ID from the persistent data store.
    *
@@ -1,25 +1,37 @@
 package at.ac.tuwien.sepr.assignment.individual.service;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.CacheStatsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseImportRecordDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseImportResultDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
-import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseStatsDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.HorseStats;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepr.assignment.individual.mapper.HorseMapper;
+import at.ac.tuwien.sepr.assignment.individual.persistence.DataResetEvent;
 import at.ac.tuwien.sepr.assignment.individual.persistence.HorseDao;
+import at.ac.tuwien.sepr.assignment.individual.type.ImportStatus;
 import java.lang.invoke.MethodHandles;
-import java.util.Collections;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 /**
@@ -28,41 +40,90 @@ import org.springframework.stereotype.Service;
 @Service
 public class HorseServiceImpl implements HorseService {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  /**
+   * Maximum number of horses found by the name index, that are handed to the database as candidates.
+   * For names matching more horses than this, scanning is cheaper than a huge list of IDs.
+   */
+  private static final int MAX_NAME_INDEX_CANDIDATES = 1000;
+  /**
+   * Maximum number of search results held by the search cache.
+   * The front-end sends only a few distinct searches, so a small cache already catches most of them.
+   */
+  private static final int MAX_SEARCH_CACHE_SIZE = 256;
+  /**
+   * Time after which a cached search result is not used any more.
+   * Results are invalidated on every change made through this service anyway;
+   * this only bounds how long changes made bypassing it can go unnoticed.
+   */
+  private static final long MAX_SEARCH_CACHE_AGE_NANOS = TimeUnit.SECONDS.toNanos(30);
+  /**
+   * Maximum number of careers of horses held by the statistics cache.
+   */
+  private static final int MAX_STATS_CACHE_SIZE = 10_000;
+  /**
+   * Time after which a cached career is not used any more.
+   * Careers are invalidated whenever the participations of their horse change through the services anyway;
+   * this only bounds how long changes made bypassing them can go unnoticed.
+   */
+  private static final long MAX_STATS_CACHE_AGE_NANOS = TimeUnit.MINUTES.toNanos(10);
+  /**
+   * Number of imported horses that are checked for duplicates and inserted together.
+   */
+  private static final int IMPORT_CHUNK_SIZE = 1000;
+  private final TrigramIndex nameIndex = new TrigramIndex();
+  private final SearchResultCache<HorseSearchDto, List<HorseListDto>> searchCache =
+      new SearchResultCache<>(MAX_SEARCH_CACHE_SIZE, MAX_SEARCH_CACHE_AGE_NANOS);
+  private final SearchResultCache<Long, HorseStatsDto> statsCache = new SearchResultCache<>(MAX_STATS_CACHE_SIZE, MAX_STATS_CACHE_AGE_NANOS);
   private final HorseDao dao;
   private final HorseMapper mapper;
   private final HorseValidator validator;
   private final BreedService breedService;
+  private final ApplicationEventPublisher eventPublisher;
 
   /**
    * Constructor for the HorseServiceImpl class.
    * Initializes the service with the provided dependencies: dao, mapper, validator, and breedService.
+   * The breeds of the horses are read by the dao together with the horses.
    *
    * @param dao          The data access object for horses.
    * @param mapper       The mapper for converting between DTOs and entity objects.
    * @param validator    The validator for validating horse details.
-   * @param breedService The service for managing horse breeds.
+   * @param breedService The service for managing horse breeds, used to check the breeds of imported horses.
+   * @param eventPublisher Publishes the updates of horses to the services analyzing them.
    */
-  public HorseServiceImpl(HorseDao dao, HorseMapper mapper, HorseValidator validator, BreedService breedService) {
+  public HorseServiceImpl(HorseDao dao, HorseMapper mapper, HorseValidator validator, BreedService breedService,
+                          ApplicationEventPublisher eventPublisher) {
     this.dao = dao;
     this.mapper = mapper;
     this.validator = validator;
     this.breedService = breedService;
+    this.eventPublisher = eventPublisher;
   }
 
   @Override
-  public Stream<HorseListDto> search(HorseSearchDto searchParameters) {
+  public Stream<HorseListDto> search(HorseSearchDto searchParameters) throws ValidationException {
     LOG.trace("search({})", searchParameters);
-    var horses = dao.search(searchParameters);
-    // First get all breed ids…
-    var breeds = horses.stream()
-        .map(Horse::getBreedId)
-        .filter(Objects::nonNull)
-        .collect(Collectors.toUnmodifiableSet());
-    // … then get the breeds all at once.
-    var breedsPerId = breedMapForHorses(breeds);
+    validator.validateForSearch(searchParameters);
+    var normalized = searchParameters.normalized();
+    return searchCache.get(normalized, () -> dao.search(normalized, candidatesByName(normalized.name()))
+            .stream()
+            .map(mapper::entityToListDto)
+            .toList())
+        .stream();
+  }
+
+  @Override
+  public CacheStatsDto searchCacheStats() {
+    LOG.trace("searchCacheStats()");
+    return searchCache.stats();
+  }
 
-    return horses.stream()
-        .map(horse -> mapper.entityToListDto(horse, breedsPerId));
+  @Override
+  public void searchEach(HorseSearchDto searchParameters, Consumer<HorseListDto> action) throws ValidationException {
+    LOG.trace("searchEach({})", searchParameters);
+    validator.validateForSearch(searchParameters);
+    dao.searchEach(searchParameters, candidatesByName(searchParameters.name()),
+        horse -> action.accept(mapper.entityToListDto(horse)));
   }
 
 
@@ -71,17 +132,34 @@ public class HorseServiceImpl implements HorseService {
     LOG.trace("update({})", horse);
     validator.validateForUpdate(horse);
     var updatedHorse = dao.update(horse);
-    var breeds = breedMapForSingleHorse(updatedHorse);
-    return mapper.entityToDetailDto(updatedHorse, breeds);
+    nameIndex.put(updatedHorse.getId(), updatedHorse.getName());
+    searchCache.invalidateAll();
+    eventPublisher.publishEvent(new HorseUpdatedEvent(updatedHorse.getId()));
+    return mapper.entityToDetailDto(updatedHorse);
   }
 
 
   @Override
   public HorseDetailDto getById(long id) throws NotFoundException {
     LOG.trace("get({})", id);
-    Horse horse = dao.getById(id);
-    var breeds = breedMapForSingleHorse(horse);
-    return mapper.entityToDetailDto(horse, breeds);
+    return mapper.entityToDetailDto(dao.getById(id));
+  }
+
+  @Override
+  public HorseStatsDto getStats(long id) throws NotFoundException {
+    LOG.trace("getStats({})", id);
+    var stats = statsCache.getAll(List.of(id), this::loadStats).get(id);
+    if (stats == null) {
+      throw new NotFoundException("No horse with ID %d found".formatted(id));
+    }
+    return stats;
+  }
+
+  @Override
+  public Stream<HorseStatsDto> getStats(Collection<Long> ids) throws ValidationException {
+    LOG.trace("getStats({} ids)", ids == null ? 0 : ids.size());
+    validator.validateForStats(ids);
+    return statsCache.getAll(ids.stream().distinct().toList(), this::loadStats).values().stream();
   }
 
   @Override
@@ -89,8 +167,28 @@ public class HorseServiceImpl implements HorseService {
     LOG.trace("insert({})", horse);
     validator.validateForInsert(horse);
     var insertedHorse = dao.insert(horse);
-    var breeds = breedMapForSingleHorse(insertedHorse);
-    return mapper.entityToDetailDto(insertedHorse, breeds);
+    nameIndex.put(insertedHorse.getId(), insertedHorse.getName());
+    searchCache.invalidateAll();
+    return mapper.entityToDetailDto(insertedHorse);
+  }
+
+  @Override
+  public List<HorseImportResultDto> importHorses(Stream<HorseImportRecordDto> records) {
+    LOG.trace("importHorses()");
+    var results = new ArrayList<HorseImportResultDto>();
+    var chunk = new ArrayList<HorseImportRecordDto>(IMPORT_CHUNK_SIZE);
+    var iterator = records.iterator();
+    while (iterator.hasNext()) {
+      chunk.add(iterator.next());
+      if (chunk.size() == IMPORT_CHUNK_SIZE || !iterator.hasNext()) {
+        results.addAll(importChunk(chunk));
+        chunk.clear();
+      }
+    }
+    if (results.stream().anyMatch(result -> result.status() == ImportStatus.CREATED)) {
+      searchCache.invalidateAll();
+    }
+    return results;
   }
 
   @Override
@@ -98,28 +196,136 @@ public class HorseServiceImpl implements HorseService {
     LOG.trace("delete({})", id);
     validator.validateForDelete(id);
     dao.delete(id);
+    nameIndex.delete(id);
+    searchCache.invalidateAll();
+    statsCache.invalidate(id);
+  }
+
+  /**
+   * Builds the index of horse names from the persistent data store, once the application has started.
+   * Afterwards the index is kept current by {@link #insert}, {@link #update} and {@link #delete}.
+   */
+  @EventListener(ApplicationReadyEvent.class)
+  public synchronized void buildNameIndex() {
+    LOG.trace("buildNameIndex()");
+    if (!nameIndex.isBuilt()) {
+      nameIndex.rebuild(dao.findAllNames());
+    }
+  }
+
+  /**
+   * Imports one chunk of records: validates them, checks them for duplicates with one query and inserts the rest in one batch.
+   *
+   * @param chunk the records to import
+   * @return the outcome of every record, in the order of {@code chunk}
+   */
+  private List<HorseImportResultDto> importChunk(List<HorseImportRecordDto> chunk) {
+    LOG.trace("importChunk({} records)", chunk.size());
+    // the horses are validated independently of each other, so this is spread over all cores
+    List<List<String>> errors = chunk.parallelStream()
+        .map(record -> record.horse() == null ? record.errors() : validator.validateForImport(record.horse()))
+        .toList();
+    var breedIds = chunk.stream()
+        .map(HorseImportRecordDto::horse)
+        .filter(horse -> horse != null && horse.breed() != null)
+        .map(horse -> horse.breed().id())
+        .collect(Collectors.toSet());
+    var knownBreedIds = breedService.findBreedsByIds(breedIds)
+        .map(BreedDto::id)
+        .collect(Collectors.toSet());
+
+    var results = new HorseImportResultDto[chunk.size()];
+    var candidates = new ArrayList<Integer>();
+    for (int i = 0; i < chunk.size(); i++) {
+      var record = chunk.get(i);
+      if (!errors.get(i).isEmpty()) {
+        results[i] = new HorseImportResultDto(record.line(), ImportStatus.INVALID, null, errors.get(i));
+      } else if (record.horse().breed() != null && !knownBreedIds.contains(record.horse().breed().id())) {
+        results[i] = new HorseImportResultDto(record.line(), ImportStatus.CONFLICT, null, List.of("breed does not exist"));
+      } else {
+        candidates.add(i);
+      }
+    }
+
+    var candidateHorses = candidates.stream().map(i -> chunk.get(i).horse()).toList();
+    var duplicates = dao.findDuplicates(candidateHorses);
+    var toInsert = new ArrayList<Integer>();
+    for (int j = 0; j < candidates.size(); j++) {
+      int i = candidates.get(j);
+      if (duplicates.contains(j)) {
+        results[i] = new HorseImportResultDto(chunk.get(i).line(), ImportStatus.CONFLICT, null, List.of("The same horse was found."));
+      } else {
+        toInsert.add(i);
+      }
+    }
+
+    var ids = dao.insertAll(toInsert.stream().map(i -> chunk.get(i).horse()).toList());
+    for (int j = 0; j < toInsert.size(); j++) {
+      int i = toInsert.get(j);
+      Long id = ids.get(j);
+      if (id == null) {
+        results[i] = new HorseImportResultDto(chunk.get(i).line(), ImportStatus.CONFLICT, null, List.of("The same horse was found."));
+      } else {
+        results[i] = new HorseImportResultDto(chunk.get(i).line(), ImportStatus.CREATED, id, List.of());
+        nameIndex.put(id, chunk.get(i).horse().name());
+      }
+    }
+    return Arrays.asList(results);
+  }
+
+  /**
+   * Drops the cached search results and careers and rebuilds the index of horse names,
+   * after the horses in the persistent data store have been replaced bypassing this service.
+   *
+   * @param event the event telling that the data has been replaced
+   */
+  @EventListener
+  public synchronized void onDataReset(DataResetEvent event) {
+    LOG.trace("onDataReset()");
+    nameIndex.rebuild(dao.findAllNames());
+    searchCache.invalidateAll();
+    statsCache.invalidateAll();
+  }
+
+  /**
+   * Drops the cached careers of the horses whose participations in tournaments have changed.
+   *
+   * @param event the event telling which horses have changed
+   */
+  @EventListener
+  public void onHorseResultsChanged(HorseResultsChangedEvent event) {
+    LOG.trace("onHorseResultsChanged({} horses)", event.horseIds().size());
+    event.horseIds().forEach(statsCache::invalidate);
   }
 
   /**
-   * Maps breed IDs to their corresponding BreedDto objects for a single horse.
+   * Reads the careers of the given horses from the persistent data store, in one query.
    *
-   * @param horse The horse for which to map breed IDs.
-   * @return A map of breed IDs to BreedDto objects.
+   * @param ids the IDs of the horses
+   * @return the careers of those of the horses that exist, by the ID of the horse
    */
-  private Map<Long, BreedDto> breedMapForSingleHorse(Horse horse) {
-    LOG.trace("breedMapForSingleHorse({})", horse);
-    return breedMapForHorses(Collections.singleton(horse.getBreedId()));
+  private Map<Long, HorseStatsDto> loadStats(Set<Long> ids) {
+    return dao.findStats(ids).values().stream()
+        .collect(Collectors.toMap(HorseStats::horseId, mapper::entityToStatsDto));
   }
 
   /**
-   * Maps breed IDs to their corresponding BreedDto objects for a set of horses.
+   * Looks up the horses whose name contains {@code name} in the name index.
    *
-   * @param horse The set of horses for which to map breed IDs.
-   * @return A map of breed IDs to BreedDto objects.
+   * @param name the substring of the name to search for, may be null
+   * @return the IDs of the matching horses, or null if the index can not narrow down the search
    */
-  private Map<Long, BreedDto> breedMapForHorses(Set<Long> horse) {
-    LOG.trace("breedMapForHorses({})", horse);
-    return breedService.findBreedsByIds(horse)
-        .collect(Collectors.toUnmodifiableMap(BreedDto::id, Function.identity()));
+  private Set<Long> candidatesByName(String name) {
+    if (name == null) {
+      return null;
+    }
+    if (!nameIndex.isBuilt()) {
+      buildNameIndex();
+    }
+    var candidates = nameIndex.search(name);
+    if (candidates != null && candidates.size() > MAX_NAME_INDEX_CANDIDATES) {
+      return null;
+    }
+    return candidates;
   }
 }
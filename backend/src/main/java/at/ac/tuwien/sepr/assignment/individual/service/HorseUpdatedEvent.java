@@ -0,0 +1,10 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+/**
+ * Application event published after the data of a horse, e.g. its breed, sex or date of birth, has been updated.
+ * Listeners are called on the thread making the change, so they must not block.
+ *
+ * @param horseId the ID of the updated horse
+ */
+public record HorseUpdatedEvent(long horseId) {
+}
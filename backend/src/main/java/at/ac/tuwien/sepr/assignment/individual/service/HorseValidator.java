@@ -1,12 +1,16 @@
 package at.ac.tuwien.sepr.assignment.individual.service;
 
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import java.lang.invoke.MethodHandles;
 import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.List;
+import java.util.Objects;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -17,6 +21,10 @@ import org.springframework.stereotype.Component;
 @Component
 public class HorseValidator {
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  /**
+   * Maximum number of horses whose statistics can be asked for at once.
+   */
+  public static final int MAX_STATS_IDS = 1000;
 
   /**
    * Default constructor for the HorseValidator class.
@@ -58,6 +66,68 @@ public class HorseValidator {
     }
   }
 
+  /**
+   * Validates the horse details of a horse in a bulk import.
+   * Unlike {@link #validateForInsert(HorseDetailDto)}, the errors are returned instead of thrown,
+   * so that the horses of an import can be validated independently of each other.
+   *
+   * @param horse The horse details to validate.
+   * @return A list of validation errors, empty if the horse is valid.
+   */
+  public List<String> validateForImport(HorseDetailDto horse) {
+    LOG.trace("validateForImport({})", horse);
+    return validation(horse);
+  }
+
+  /**
+   * Validates the search parameters before searching.
+   *
+   * @param searchParameters The search parameters to validate.
+   * @throws ValidationException If the limit is not positive or the cursor is malformed.
+   */
+  public void validateForSearch(HorseSearchDto searchParameters) throws ValidationException {
+    LOG.trace("validateForSearch({})", searchParameters);
+    List<String> validationErrors = new ArrayList<>();
+
+    if (searchParameters.limit() != null && searchParameters.limit() <= 0) {
+      validationErrors.add("limit must be positive");
+    }
+    if (searchParameters.cursor() != null) {
+      try {
+        PageCursor.decode(searchParameters.cursor());
+      } catch (IllegalArgumentException e) {
+        validationErrors.add("cursor is not valid");
+      }
+    }
+
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of horse search parameters failed", validationErrors);
+    }
+  }
+
+  /**
+   * Validates the IDs of the horses whose statistics are asked for at once.
+   *
+   * @param ids The IDs of the horses.
+   * @throws ValidationException If no IDs or too many are given.
+   */
+  public void validateForStats(Collection<Long> ids) throws ValidationException {
+    LOG.trace("validateForStats({} ids)", ids == null ? 0 : ids.size());
+    List<String> validationErrors = new ArrayList<>();
+
+    if (ids == null || ids.isEmpty()) {
+      validationErrors.add("No IDs given");
+    } else if (ids.size() > MAX_STATS_IDS) {
+      validationErrors.add("At most %d IDs can be given".formatted(MAX_STATS_IDS));
+    } else if (ids.stream().anyMatch(Objects::isNull)) {
+      validationErrors.add("IDs must not be empty");
+    }
+
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of horse IDs for statistics failed", validationErrors);
+    }
+  }
+
   /**
    * Validates the input ID before deletion.
    *
@@ -0,0 +1,326 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.entity.ParticipationFact;
+import at.ac.tuwien.sepr.assignment.individual.type.ParticipationGrouping;
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+import java.lang.invoke.MethodHandles;
+import java.time.LocalDate;
+import java.time.Period;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory replica of the participations of horses in tournaments, stored column by column in primitive arrays,
+ * so that aggregates over all participations are answered without a query on the persistent data store.
+ *
+ * <p>Every participation is a row; the columns hold the epoch day the tournament started, the breed as an index into
+ * a dictionary of breed IDs, the sex, the age in years and the round reached. An aggregate splits the rows into chunks,
+ * which are scanned in parallel, each one in a plain loop over the arrays counting into an array of its own;
+ * the arrays of the chunks are summed up at the end.
+ *
+ * <p>Rows are changed by {@link #put(Collection)} with all participations of the changed tournaments, which replaces the rows
+ * of known participants in place and appends the others. Participants that were removed stay until {@link #rebuild()}.
+ */
+public class ParticipationColumns {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int INITIAL_CAPACITY = 1024;
+  /**
+   * Number of rows scanned by one task of an aggregate.
+   */
+  private static final int CHUNK_SIZE = 16_384;
+  /**
+   * Ages are grouped up to this many years; older horses are counted with this age.
+   */
+  private static final int MAX_AGE = 40;
+  private static final int NO_BREED = -1;
+  private static final Sex[] SEXES = Sex.values();
+
+  private final Supplier<List<ParticipationFact>> loader;
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  // all fields below are guarded by lock
+  private boolean loaded;
+  private int size;
+  private int[] startDays;
+  private short[] seasons;
+  private int[] breeds;
+  private byte[] sexes;
+  private byte[] ages;
+  private byte[] rounds;
+  // the highest round reached by any participant of the tournament of the row
+  private byte[] finalRounds;
+  private final Map<Long, Integer> rowOfParticipant = new HashMap<>();
+  private final Map<Long, Integer> breedIndex = new HashMap<>();
+  private final List<Long> breedIds = new ArrayList<>();
+  private int minSeason = Integer.MAX_VALUE;
+  private int maxSeason = Integer.MIN_VALUE;
+
+  /**
+   * Constructs a new, empty ParticipationColumns.
+   * The participations are loaded on the first aggregate, or when {@link #rebuild()} is called.
+   *
+   * @param loader loads all participations
+   */
+  public ParticipationColumns(Supplier<List<ParticipationFact>> loader) {
+    this.loader = loader;
+    allocate(INITIAL_CAPACITY);
+  }
+
+  /**
+   * Replaces all rows with the participations read by the loader.
+   *
+   * @return the number of participations
+   */
+  public int rebuild() {
+    LOG.trace("rebuild()");
+    lock.writeLock().lock();
+    try {
+      load();
+      LOG.debug("Rebuilt the columns of {} participations", size);
+      return size;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Sets the rows of the given participations, which must be all participations of their tournaments,
+   * so that the final round of every tournament is known.
+   *
+   * @param facts the participations of the changed tournaments
+   */
+  public void put(Collection<ParticipationFact> facts) {
+    LOG.trace("put({} facts)", facts.size());
+    lock.writeLock().lock();
+    try {
+      if (!loaded) {
+        // the changes are already saved, so loading the rows takes them into account
+        load();
+        return;
+      }
+      append(facts);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Counts the participations and the matches played and won, per group.
+   * Only participations of which the first round has been drawn are counted.
+   *
+   * @param groupBy   the attribute the participations are grouped by
+   * @param breedId   the ID of the breed the horses must be of, or null for all breeds
+   * @param sex       the sex the horses must be of, or null for both
+   * @param startFrom the earliest start date of the tournaments, or null for no limit
+   * @param startTo   the latest start date of the tournaments, or null for no limit
+   * @return the counts of the groups that have participations, ordered by the value of the grouping attribute, horses without a breed last
+   */
+  public List<Aggregate> aggregate(ParticipationGrouping groupBy, Long breedId, Sex sex, LocalDate startFrom, LocalDate startTo) {
+    LOG.trace("aggregate({}, {}, {}, {}, {})", groupBy, breedId, sex, startFrom, startTo);
+    ensureLoaded();
+    lock.readLock().lock();
+    try {
+      Integer breed = breedId == null ? null : breedIndex.get(breedId);
+      if (breedId != null && breed == null) {
+        return List.of();
+      }
+      var filter = new Filter(
+          startFrom == null ? Integer.MIN_VALUE : (int) startFrom.toEpochDay(),
+          startTo == null ? Integer.MAX_VALUE : (int) startTo.toEpochDay(),
+          breed == null ? Integer.MIN_VALUE : breed,
+          sex == null ? -1 : sex.ordinal(),
+          breedIds.size(),
+          minSeason);
+      int groups = groupCount(groupBy);
+      int rows = size;
+      int chunks = (rows + CHUNK_SIZE - 1) / CHUNK_SIZE;
+      // three counters per group: participations, matches played, matches won
+      long[] counts = IntStream.range(0, chunks).parallel().collect(
+          () -> new long[groups * 3],
+          (acc, chunk) -> scan(acc, chunk * CHUNK_SIZE, Math.min(rows, (chunk + 1) * CHUNK_SIZE), groupBy, filter),
+          ParticipationColumns::addTo);
+      var aggregates = new ArrayList<Aggregate>();
+      for (int group = 0; group < groups; group++) {
+        if (counts[group * 3] > 0) {
+          aggregates.add(new Aggregate(groupKey(groupBy, group), counts[group * 3], counts[group * 3 + 1], counts[group * 3 + 2]));
+        }
+      }
+      if (groupBy == ParticipationGrouping.BREED) {
+        // the breeds are numbered in the order they were first seen
+        aggregates.sort(Comparator.comparing(aggregate -> (Long) aggregate.key(), Comparator.nullsLast(Comparator.naturalOrder())));
+      }
+      return aggregates;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private void ensureLoaded() {
+    lock.readLock().lock();
+    try {
+      if (loaded) {
+        return;
+      }
+    } finally {
+      lock.readLock().unlock();
+    }
+    lock.writeLock().lock();
+    try {
+      if (!loaded) {
+        load();
+      }
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  private void load() {
+    final var facts = loader.get();
+    size = 0;
+    rowOfParticipant.clear();
+    breedIndex.clear();
+    breedIds.clear();
+    minSeason = Integer.MAX_VALUE;
+    maxSeason = Integer.MIN_VALUE;
+    allocate(Math.max(INITIAL_CAPACITY, facts.size()));
+    append(facts);
+    loaded = true;
+  }
+
+  private void append(Collection<ParticipationFact> facts) {
+    var finalRoundOf = new HashMap<Long, Integer>();
+    for (ParticipationFact fact : facts) {
+      finalRoundOf.merge(fact.tournamentId(), fact.roundReached(), Math::max);
+    }
+    for (ParticipationFact fact : facts) {
+      Integer row = rowOfParticipant.get(fact.participantId());
+      if (row == null) {
+        if (size == rounds.length) {
+          grow();
+        }
+        row = size++;
+        rowOfParticipant.put(fact.participantId(), row);
+      }
+      int season = fact.startDate().getYear();
+      startDays[row] = (int) fact.startDate().toEpochDay();
+      seasons[row] = (short) season;
+      breeds[row] = fact.breedId() == null ? NO_BREED : breedIndex.computeIfAbsent(fact.breedId(), id -> {
+        breedIds.add(id);
+        return breedIds.size() - 1;
+      });
+      sexes[row] = (byte) fact.sex().ordinal();
+      ages[row] = (byte) Math.max(0, Math.min(MAX_AGE, Period.between(fact.dateOfBirth(), fact.startDate()).getYears()));
+      rounds[row] = (byte) fact.roundReached();
+      finalRounds[row] = finalRoundOf.get(fact.tournamentId()).byteValue();
+      minSeason = Math.min(minSeason, season);
+      maxSeason = Math.max(maxSeason, season);
+    }
+  }
+
+  /**
+   * Counts the rows of one chunk into the counters of their groups.
+   *
+   * @param counts  the counters, three per group
+   * @param from    the first row of the chunk
+   * @param to      the row after the last one of the chunk
+   * @param groupBy the attribute the rows are grouped by
+   * @param filter  the conditions the rows must meet
+   */
+  private void scan(long[] counts, int from, int to, ParticipationGrouping groupBy, Filter filter) {
+    for (int row = from; row < to; row++) {
+      int round = rounds[row];
+      if (round == 0
+          || startDays[row] < filter.fromDay() || startDays[row] > filter.toDay()
+          || (filter.breed() != Integer.MIN_VALUE && breeds[row] != filter.breed())
+          || (filter.sex() >= 0 && sexes[row] != filter.sex())) {
+        continue;
+      }
+      int group = switch (groupBy) {
+        case BREED -> breeds[row] == NO_BREED ? filter.noBreedGroup() : breeds[row];
+        case SEX -> sexes[row];
+        case AGE -> ages[row];
+        case SEASON -> seasons[row] - filter.firstSeason();
+      };
+      // a horse won every round it reached after the first, and lost one match unless it reached the final round
+      int won = round - 1;
+      int lost = round < finalRounds[row] ? 1 : 0;
+      counts[group * 3]++;
+      counts[group * 3 + 1] += won + lost;
+      counts[group * 3 + 2] += won;
+    }
+  }
+
+  private int groupCount(ParticipationGrouping groupBy) {
+    return switch (groupBy) {
+      case BREED -> breedIds.size() + 1;
+      case SEX -> SEXES.length;
+      case AGE -> MAX_AGE + 1;
+      case SEASON -> maxSeason < minSeason ? 0 : maxSeason - minSeason + 1;
+    };
+  }
+
+  private Object groupKey(ParticipationGrouping groupBy, int group) {
+    return switch (groupBy) {
+      case BREED -> group == breedIds.size() ? null : breedIds.get(group);
+      case SEX -> SEXES[group];
+      case AGE -> group;
+      case SEASON -> minSeason + group;
+    };
+  }
+
+  private static void addTo(long[] counts, long[] other) {
+    for (int i = 0; i < counts.length; i++) {
+      counts[i] += other[i];
+    }
+  }
+
+  private void allocate(int capacity) {
+    startDays = new int[capacity];
+    seasons = new short[capacity];
+    breeds = new int[capacity];
+    sexes = new byte[capacity];
+    ages = new byte[capacity];
+    rounds = new byte[capacity];
+    finalRounds = new byte[capacity];
+  }
+
+  private void grow() {
+    int capacity = rounds.length * 2;
+    startDays = Arrays.copyOf(startDays, capacity);
+    seasons = Arrays.copyOf(seasons, capacity);
+    breeds = Arrays.copyOf(breeds, capacity);
+    sexes = Arrays.copyOf(sexes, capacity);
+    ages = Arrays.copyOf(ages, capacity);
+    rounds = Arrays.copyOf(rounds, capacity);
+    finalRounds = Arrays.copyOf(finalRounds, capacity);
+  }
+
+  /**
+   * The counts of one group of participations.
+   *
+   * @param key            the value of the grouping attribute: the ID of the breed (null for no breed), the {@link Sex},
+   *                       the age in years or the year
+   * @param participations the number of participations
+   * @param matches        the number of matches played
+   * @param matchesWon     the number of matches won
+   */
+  public record Aggregate(Object key, long participations, long matches, long matchesWon) {
+  }
+
+  /**
+   * The conditions the rows of an aggregate must meet, and the values the groups are numbered by,
+   * copied out of the fields so that the scanning loop reads nothing but the columns.
+   */
+  private record Filter(int fromDay, int toDay, int breed, int sex, int noBreedGroup, int firstSeason) {
+  }
+}
@@ -0,0 +1,215 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.CacheStatsDto;
+import java.lang.invoke.MethodHandles;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Bounded in-memory cache of search results, or of other results loaded by key.
+ * Holds at most {@code maxSize} results, evicting the least recently used one first,
+ * and evicts results older than {@code maxAgeNanos} when they are next asked for.
+ *
+ * <p>If a result is asked for while it is already being loaded, the caller waits for that load
+ * instead of starting another one, so identical concurrent misses cause a single query.
+ *
+ * @param <K> the type of the search parameters, which must implement equals and hashCode
+ * @param <V> the type of the search results, which must not be modified after they are cached
+ */
+public class SearchResultCache<K, V> {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+  private final int maxSize;
+  private final long maxAgeNanos;
+  // access order, so that the eldest entry is the least recently used one; guarded by this
+  private final LinkedHashMap<K, Entry<V>> entries = new LinkedHashMap<>(16, 0.75f, true);
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructs a new, empty SearchResultCache.
+   *
+   * @param maxSize     the maximum number of results held
+   * @param maxAgeNanos the time in nanoseconds after which a result is not used any more
+   */
+  public SearchResultCache(int maxSize, long maxAgeNanos) {
+    this.maxSize = maxSize;
+    this.maxAgeNanos = maxAgeNanos;
+  }
+
+  /**
+   * Gets the result for the given search parameters, loading it if it is not cached.
+   * If the load fails, the exception is thrown to every caller waiting for it, and nothing is cached.
+   *
+   * @param key    the search parameters
+   * @param loader loads the result for {@code key}
+   * @return the result for {@code key}
+   */
+  public V get(K key, Supplier<V> loader) {
+    LOG.trace("get({})", key);
+    Entry<V> entry;
+    boolean load = false;
+    synchronized (this) {
+      entry = entries.get(key);
+      if (entry != null && System.nanoTime() - entry.createdAt > maxAgeNanos) {
+        entries.remove(key);
+        evictions.increment();
+        entry = null;
+      }
+      if (entry != null) {
+        hits.increment();
+      } else {
+        misses.increment();
+        entry = new Entry<>(new CompletableFuture<>(), System.nanoTime());
+        entries.put(key, entry);
+        evictOverSize();
+        load = true;
+      }
+    }
+    if (load) {
+      try {
+        entry.result.complete(loader.get());
+      } catch (RuntimeException e) {
+        entry.result.completeExceptionally(e);
+        synchronized (this) {
+          entries.remove(key, entry);
+        }
+      }
+    }
+    try {
+      return entry.result.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Gets the results for many keys at once, loading all that are not cached together.
+   * Keys the loader finds no result for are missing from the returned map, and are not cached.
+   *
+   * @param keys   the keys
+   * @param loader loads the results for the keys that are not cached, in one go
+   * @return the results, by key, in the order of {@code keys}
+   */
+  public Map<K, V> getAll(Collection<K> keys, Function<Set<K>, Map<K, V>> loader) {
+    LOG.trace("getAll({} keys)", keys.size());
+    Map<K, Entry<V>> found = new LinkedHashMap<>();
+    Map<K, Entry<V>> loading = new HashMap<>();
+    synchronized (this) {
+      for (K key : keys) {
+        var entry = entries.get(key);
+        if (entry != null && System.nanoTime() - entry.createdAt > maxAgeNanos) {
+          entries.remove(key);
+          evictions.increment();
+          entry = null;
+        }
+        if (entry != null) {
+          hits.increment();
+        } else {
+          misses.increment();
+          entry = new Entry<>(new CompletableFuture<>(), System.nanoTime());
+          entries.put(key, entry);
+          loading.put(key, entry);
+        }
+        found.put(key, entry);
+      }
+      evictOverSize();
+    }
+    if (!loading.isEmpty()) {
+      try {
+        var loaded = loader.apply(loading.keySet());
+        for (Map.Entry<K, Entry<V>> load : loading.entrySet()) {
+          var result = loaded.get(load.getKey());
+          load.getValue().result.complete(result);
+          if (result == null) {
+            synchronized (this) {
+              entries.remove(load.getKey(), load.getValue());
+            }
+          }
+        }
+      } catch (RuntimeException e) {
+        for (Map.Entry<K, Entry<V>> load : loading.entrySet()) {
+          load.getValue().result.completeExceptionally(e);
+          synchronized (this) {
+            entries.remove(load.getKey(), load.getValue());
+          }
+        }
+      }
+    }
+    Map<K, V> results = new LinkedHashMap<>();
+    for (Map.Entry<K, Entry<V>> entry : found.entrySet()) {
+      try {
+        var result = entry.getValue().result.join();
+        if (result != null) {
+          results.put(entry.getKey(), result);
+        }
+      } catch (CompletionException e) {
+        if (e.getCause() instanceof RuntimeException cause) {
+          throw cause;
+        }
+        throw e;
+      }
+    }
+    return results;
+  }
+
+  /**
+   * Removes the result for one key, because the data it was loaded from has changed.
+   * A load of it that is still running is not cached any more, when it finishes.
+   *
+   * @param key the key
+   */
+  public synchronized void invalidate(K key) {
+    LOG.trace("invalidate({})", key);
+    entries.remove(key);
+  }
+
+  /**
+   * Removes all results, because the data they were loaded from has changed.
+   * Loads that are still running are not cached any more, when they finish.
+   */
+  public synchronized void invalidateAll() {
+    LOG.trace("invalidateAll()");
+    entries.clear();
+  }
+
+  /**
+   * Gets the counters of this cache.
+   *
+   * @return the number of hits, misses and evictions so far, and the number of results held now
+   */
+  public CacheStatsDto stats() {
+    int size;
+    synchronized (this) {
+      size = entries.size();
+    }
+    return new CacheStatsDto(hits.sum(), misses.sum(), evictions.sum(), size);
+  }
+
+  private void evictOverSize() {
+    Iterator<Map.Entry<K, Entry<V>>> eldest = entries.entrySet().iterator();
+    while (entries.size() > maxSize && eldest.hasNext()) {
+      eldest.next();
+      eldest.remove();
+      evictions.increment();
+    }
+  }
+
+  private record Entry<V>(CompletableFuture<V> result, long createdAt) {
+  }
+}
@@ -0,0 +1,249 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.CacheStatsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
+import at.ac.tuwien.sepr.assignment.individual.exception.FatalException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import java.lang.invoke.MethodHandles;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory cache of the standings of tournaments, held together with their JSON serialization,
+ * so that answering a request from the cache just writes out one byte array.
+ *
+ * <p>Cached standings are versioned by the version of their tournament, which is stored with it and incremented by every save,
+ * so it tells clients whether the standings they already have are still current, whichever instance of the application they ask.
+ * If standings are asked for while they are already being loaded, the caller waits for that load
+ * instead of starting another one, so the concurrent misses for a tournament cause a single rebuild.
+ *
+ * <p>Changes of the standings go through {@link #update}, which writes them and caches the result,
+ * one change per tournament at a time. A load that was started before the change does not replace its result.
+ * Standings older than {@code maxAgeNanos} are loaded again, which bounds how long changes made bypassing this cache,
+ * e.g. to the names of the horses, can go unnoticed. Of more than {@code maxSize} tournaments, the oldest standings are evicted.
+ */
+public class StandingsCache {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int WRITE_LOCK_STRIPES = 64;
+
+  private final ObjectWriter writer;
+  private final int maxSize;
+  private final long maxAgeNanos;
+  private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+  private final Object[] writeLocks = new Object[WRITE_LOCK_STRIPES];
+  private final LongAdder hits = new LongAdder();
+  private final LongAdder misses = new LongAdder();
+  private final LongAdder evictions = new LongAdder();
+
+  /**
+   * Constructs a new, empty StandingsCache.
+   *
+   * @param writer      serializes the standings to JSON, as the REST endpoints do
+   * @param maxSize     the maximum number of tournaments whose standings are held
+   * @param maxAgeNanos the time in nanoseconds after which cached standings are not used any more
+   */
+  public StandingsCache(ObjectWriter writer, int maxSize, long maxAgeNanos) {
+    this.writer = writer;
+    this.maxSize = maxSize;
+    this.maxAgeNanos = maxAgeNanos;
+    for (int i = 0; i < WRITE_LOCK_STRIPES; i++) {
+      writeLocks[i] = new Object();
+    }
+  }
+
+  /**
+   * Gets the standings of a tournament, loading them if they are not cached.
+   * If the load fails, the exception is thrown to every caller waiting for it, and nothing is cached.
+   *
+   * @param id     the ID of the tournament
+   * @param loader loads the standings of the tournament
+   * @return the standings, their JSON serialization and their version
+   * @throws NotFoundException if the loader did not find the tournament
+   */
+  public Standings get(long id, Loader loader) throws NotFoundException {
+    LOG.trace("get({})", id);
+    var entry = entries.get(id);
+    if (entry != null && !isExpired(entry)) {
+      hits.increment();
+      return join(entry);
+    }
+    misses.increment();
+    var loading = new Entry(new CompletableFuture<>(), System.nanoTime());
+    boolean installed = entry == null ? entries.putIfAbsent(id, loading) == null : entries.replace(id, entry, loading);
+    if (!installed) {
+      // someone else started a load or changed the standings in the meantime
+      var current = entries.get(id);
+      return current != null ? join(current) : get(id, loader);
+    }
+    evictOverSize();
+    try {
+      loading.standings.complete(serialize(loader.load()));
+    } catch (NotFoundException | RuntimeException e) {
+      loading.standings.completeExceptionally(e);
+      entries.remove(id, loading);
+    }
+    return join(loading);
+  }
+
+  /**
+   * Changes the standings of a tournament and caches the changed standings.
+   * Changes of the same tournament are run one at a time, so the cache holds the result of the one that finished last.
+   *
+   * @param id      the ID of the tournament
+   * @param updater writes the change and returns the changed standings
+   * @return the changed standings, their JSON serialization and their new version
+   * @throws NotFoundException   if the updater did not find the tournament or one of its participants
+   * @throws ValidationException if the updater found the change not valid for the stored standings
+   * @throws ConflictException   if the updater found the standings changed since the change was based on them
+   */
+  public Standings update(long id, Updater updater) throws NotFoundException, ValidationException, ConflictException {
+    LOG.trace("update({})", id);
+    synchronized (writeLocks[Math.floorMod(Long.hashCode(id), WRITE_LOCK_STRIPES)]) {
+      TournamentStandingsDto changed;
+      try {
+        changed = updater.update();
+      } catch (NotFoundException | ValidationException | ConflictException | RuntimeException e) {
+        // the cached standings may be outdated, when the change failed because of a change made bypassing this cache
+        entries.remove(id);
+        throw e;
+      }
+      var standings = serialize(changed);
+      entries.put(id, new Entry(CompletableFuture.completedFuture(standings), System.nanoTime()));
+      evictOverSize();
+      return standings;
+    }
+  }
+
+  /**
+   * Gets the standings of a tournament, if they are cached and loaded already.
+   *
+   * @param id the ID of the tournament
+   * @return the cached standings, or null if there are none
+   */
+  public Standings cached(long id) {
+    var entry = entries.get(id);
+    if (entry == null || !entry.standings.isDone() || entry.standings.isCompletedExceptionally()) {
+      return null;
+    }
+    return entry.standings.join();
+  }
+
+  /**
+   * Removes all standings, because the data they were loaded from has changed.
+   * Loads that are still running are not cached any more, when they finish.
+   */
+  public void invalidateAll() {
+    LOG.trace("invalidateAll()");
+    entries.clear();
+  }
+
+  /**
+   * Gets the counters of this cache.
+   *
+   * @return the number of hits, misses and evictions so far, and the number of tournaments whose standings are held now
+   */
+  public CacheStatsDto stats() {
+    return new CacheStatsDto(hits.sum(), misses.sum(), evictions.sum(), entries.size());
+  }
+
+  private boolean isExpired(Entry entry) {
+    return System.nanoTime() - entry.createdAt > maxAgeNanos;
+  }
+
+  private Standings serialize(TournamentStandingsDto standings) {
+    try {
+      return new Standings(standings.version(), standings, writer.writeValueAsBytes(standings));
+    } catch (JsonProcessingException e) {
+      throw new FatalException("Standings of tournament %d can not be serialized".formatted(standings.id()), e);
+    }
+  }
+
+  private Standings join(Entry entry) throws NotFoundException {
+    try {
+      return entry.standings.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof NotFoundException cause) {
+        throw new NotFoundException(cause.getMessage(), cause);
+      }
+      if (e.getCause() instanceof RuntimeException cause) {
+        throw cause;
+      }
+      throw e;
+    }
+  }
+
+  /**
+   * Removes the standings that were loaded or changed longest ago, while more than {@code maxSize} tournaments are held.
+   * They are the ones closest to expiring anyway, while the standings just cached by the caller are the newest.
+   * Finding them takes a pass over all entries, which is only made when the cache is full.
+   */
+  private void evictOverSize() {
+    while (entries.size() > maxSize) {
+      Map.Entry<Long, Entry> oldest = null;
+      for (Map.Entry<Long, Entry> entry : entries.entrySet()) {
+        if (oldest == null || entry.getValue().createdAt - oldest.getValue().createdAt < 0) {
+          oldest = entry;
+        }
+      }
+      if (oldest == null) {
+        return;
+      }
+      // left alone, if it was replaced in the meantime, as it is not the oldest any more
+      if (entries.remove(oldest.getKey(), oldest.getValue())) {
+        evictions.increment();
+      }
+    }
+  }
+
+  /**
+   * Loads the standings of a tournament.
+   */
+  @FunctionalInterface
+  public interface Loader {
+    /**
+     * Loads the standings of a tournament.
+     *
+     * @return the standings
+     * @throws NotFoundException if the tournament is not found
+     */
+    TournamentStandingsDto load() throws NotFoundException;
+  }
+
+  /**
+   * Changes the standings of a tournament.
+   */
+  @FunctionalInterface
+  public interface Updater {
+    /**
+     * Writes a change of the standings of a tournament.
+     *
+     * @return the changed standings
+     * @throws NotFoundException   if the tournament or one of its participants is not found
+     * @throws ValidationException if the change is not valid for the stored standings
+     * @throws ConflictException   if the standings have changed since the change was based on them
+     */
+    TournamentStandingsDto update() throws NotFoundException, ValidationException, ConflictException;
+  }
+
+  /**
+   * Standings of a tournament, as held in the cache.
+   *
+   * @param version   the version of the standings, i.e. the version of the tournament they were read at
+   * @param standings the standings; they must not be modified
+   * @param json      the JSON serialization of the standings; it must not be modified
+   */
+  public record Standings(long version, TournamentStandingsDto standings, byte[] json) {
+  }
+
+  private record Entry(CompletableFuture<Standings> standings, long createdAt) {
+  }
+}
@@ -0,0 +1,13 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsDeltaDto;
+
+/**
+ * Application event published after the standings of a tournament have been saved.
+ * The events of a tournament are published in the order of its versions.
+ * Listeners are called on the thread saving the standings, so they must not block.
+ *
+ * @param delta the change of the standings
+ */
+public record StandingsSavedEvent(TournamentStandingsDeltaDto delta) {
+}
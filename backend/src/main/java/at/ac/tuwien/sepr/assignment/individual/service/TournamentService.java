@@ -1,15 +1,24 @@
 package at.ac.tuwien.sepr.assignment.individual.service;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.CacheStatsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HeadToHeadDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseRatingDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseRatingSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentMatchResultDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSimulationDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSimulationParamsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsJsonDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantsDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 
+import java.util.List;
 import java.util.stream.Stream;
 
 /**
@@ -20,11 +29,13 @@ public interface TournamentService {
   /**
    * Search for tournaments in the persistent data store matching all provided fields.
    * The name is considered a match, if the search string is a substring of the field in tournament.
+   * The tournaments are ordered by start date (latest first) and ID, so that a page can be continued from the cursor of its last tournament.
    *
    * @param searchParameters the search parameters to use in filtering.
    * @return the tournaments where the given fields match.
+   * @throws ValidationException if the limit is not positive or the cursor is malformed
    */
-  Stream<TournamentListDto> search(TournamentSearchDto searchParameters);
+  Stream<TournamentListDto> search(TournamentSearchDto searchParameters) throws ValidationException;
 
   /**
    * Inserts a new tournament into the persistent data store.
@@ -47,6 +58,24 @@ public interface TournamentService {
    */
   TournamentStandingsDto getStandings(Long id) throws NotFoundException, ValidationException;
 
+  /**
+   * Retrieves the standings of the tournament with the specified ID, already serialized to JSON.
+   * The standings are cached, so repeated requests for the same tournament neither query the persistent data store nor serialize them again.
+   *
+   * @param id The ID of the tournament.
+   * @return The standings of the tournament as JSON, with their version.
+   * @throws NotFoundException If the tournament with the given ID is not found.
+   * @throws ValidationException If the provided ID is not valid.
+   */
+  TournamentStandingsJsonDto getStandingsJson(Long id) throws NotFoundException, ValidationException;
+
+  /**
+   * Gets the counters of the cache of tournament standings.
+   *
+   * @return the number of hits, misses and evictions so far, and the number of tournaments whose standings are cached now
+   */
+  CacheStatsDto standingsCacheStats();
+
   /**
    * Retrieves the first-round standings of the tournament identified by the given ID.
    *
@@ -57,14 +86,85 @@ public interface TournamentService {
    */
   TournamentStandingsDto generateFirstRound(Long id) throws NotFoundException, ValidationException;
 
+  /**
+   * Estimates the chances of every participant of a tournament, by playing out its seeded first round many times,
+   * see {@link #generateFirstRound(Long)}. A match is won with a probability depending on the matches the two horses
+   * won and lost in the tournaments that ended before this one starts.
+   *
+   * @param id         The ID of the tournament.
+   * @param parameters The number of iterations and the time budget; defaults are used for those that are null.
+   * @return The probability of every participant to reach every round.
+   * @throws NotFoundException   If the tournament is not found.
+   * @throws ValidationException If the ID, the number of iterations or the time budget is not valid.
+   */
+  TournamentSimulationDto simulate(Long id, TournamentSimulationParamsDto parameters) throws NotFoundException, ValidationException;
+
   /**
    * Saves the standings of a tournament.
+   * They are only saved, if nobody else has saved the standings since the version they are based on.
    *
-   * @param updateParticipants The participants' standings to be saved.
+   * @param updateParticipants The participants' standings to be saved, and the version they are based on.
    * @param id The id of tournament.
-   * @return The updated standings of the tournament.
+   * @return The updated standings of the tournament, with their new version.
    * @throws NotFoundException   If a participant or tournament with some ID is not found.
-   * @throws ValidationException If the new round is not valid.
+   * @throws ValidationException If the new round is not valid, or the version is missing.
+   * @throws ConflictException   If the standings have been saved by someone else since the given version.
+   */
+  TournamentStandingsDto saveStanding(TournamentUpdateParticipantsDto updateParticipants, long id)
+      throws NotFoundException, ValidationException, ConflictException;
+
+  /**
+   * Records the winner of a single match, instead of saving the standings of all participants.
+   * Only the affected match and its two competitors are checked and written; the other matches are left as they are,
+   * so results of different matches of the same tournament can be recorded by different clients without conflicts.
+   *
+   * @param id     The ID of the tournament.
+   * @param round  The round of the match, counted from 1.
+   * @param slot   The slot of the match within its round, counted from 0.
+   * @param result The result of the match.
+   * @return The updated standings of the tournament, with their new version.
+   * @throws NotFoundException   If the tournament is not found.
+   * @throws ValidationException If the round, slot or result is not valid.
+   * @throws ConflictException   If the competitors of the match are not known yet, the winner is not one of them,
+   *                             or the match the winner goes on to has already been decided.
+   */
+  TournamentStandingsDto recordMatchResult(long id, int round, int slot, TournamentMatchResultDto result)
+      throws NotFoundException, ValidationException, ConflictException;
+
+  /**
+   * Gets the best rated horses, optionally only those of a breed or sex.
+   * The ratings are Elo ratings from the results of all matches, kept current with every save of standings or match result.
+   *
+   * @param parameters the breed, the sex and the number of horses, each of which may be null
+   * @return the ratings of the horses, the best first
+   * @throws ValidationException if the limit is not valid
+   */
+  Stream<HorseRatingDto> leaderboard(HorseRatingSearchDto parameters) throws ValidationException;
+
+  /**
+   * Replays the results of all matches in the order they were played, and replaces the ratings of all horses with the outcome.
+   *
+   * @return the number of horses that have played a match
+   */
+  int rebuildRatings();
+
+  /**
+   * Gets the records of a horse against other horses, from all matches they played against each other.
+   * The records are kept in memory and current with every save of standings or match result,
+   * so every other horse costs a lookup of constant time.
+   *
+   * @param horseId     the ID of the horse
+   * @param opponentIds the IDs of the other horses
+   * @return the record of the horse against every other horse, in the order of {@code opponentIds}
+   * @throws ValidationException if no other horses or too many are given
+   */
+  Stream<HeadToHeadDto> headToHead(long horseId, List<Long> opponentIds) throws ValidationException;
+
+  /**
+   * Rebuilds the ledger of the points of all horses from the results in the persistent data store,
+   * e.g. after they have been changed bypassing this service.
+   *
+   * @return the number of horses that have points
    */
-  TournamentStandingsDto saveStanding(TournamentUpdateParticipantsDto updateParticipants, long id) throws NotFoundException, ValidationException;
+  int rebuildFormPoints();
 }
@@ -1,21 +1,47 @@
 package at.ac.tuwien.sepr.assignment.individual.service;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.CacheStatsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HeadToHeadDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseRatingDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseRatingSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailsDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentMatchResultDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSimulationDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSimulationEntrantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSimulationParamsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsDeltaDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsJsonDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantsDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.entity.MatchRecord;
+import at.ac.tuwien.sepr.assignment.individual.entity.MatchResult;
+import at.ac.tuwien.sepr.assignment.individual.entity.Participant;
+import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
 import at.ac.tuwien.sepr.assignment.individual.mapper.TournamentMapper;
+import at.ac.tuwien.sepr.assignment.individual.persistence.DataResetEvent;
 import at.ac.tuwien.sepr.assignment.individual.persistence.TournamentDao;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
 import org.springframework.stereotype.Service;
 
 import java.lang.invoke.MethodHandles;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 import java.util.stream.Stream;
 
 /**
@@ -28,23 +54,44 @@ public class TournamentServiceImpl implements TournamentService {
   private final TournamentDao dao;
   private final TournamentValidator validator;
   private final TournamentMapper mapper;
+  private final FormPointsLedger formPoints;
+  private final HorseRatings ratings;
+  private final HeadToHead headToHead;
+  private final StandingsCache standingsCache;
+  private final ApplicationEventPublisher eventPublisher;
+  private final TournamentSimulator simulator;
 
   /**
    * Constructs a new TournamentServiceImpl with the provided dependencies.
    *
-   * @param dao       the TournamentDao used for data access
-   * @param validator the TournamentValidator used for input validation
-   * @param mapper    the TournamentMapper used for mapping entities to DTOs
+   * @param dao            the TournamentDao used for data access
+   * @param validator      the TournamentValidator used for input validation
+   * @param mapper         the TournamentMapper used for mapping entities to DTOs
+   * @param formPoints     the ledger of the points of all horses
+   * @param ratings        the ratings of all horses
+   * @param headToHead     the head-to-head records of all pairs of horses
+   * @param standingsCache the cache of the standings of tournaments
+   * @param simulator      the simulator of tournaments
+   * @param eventPublisher publishes the changes of the standings to the clients following them
    */
-  public TournamentServiceImpl(TournamentDao dao, TournamentValidator validator, TournamentMapper mapper) {
+  public TournamentServiceImpl(TournamentDao dao, TournamentValidator validator, TournamentMapper mapper, FormPointsLedger formPoints,
+                               HorseRatings ratings, HeadToHead headToHead, StandingsCache standingsCache, TournamentSimulator simulator,
+                               ApplicationEventPublisher eventPublisher) {
     this.dao = dao;
     this.validator = validator;
     this.mapper = mapper;
+    this.formPoints = formPoints;
+    this.ratings = ratings;
+    this.headToHead = headToHead;
+    this.standingsCache = standingsCache;
+    this.simulator = simulator;
+    this.eventPublisher = eventPublisher;
   }
 
   @Override
-  public Stream<TournamentListDto> search(TournamentSearchDto searchParameters) {
+  public Stream<TournamentListDto> search(TournamentSearchDto searchParameters) throws ValidationException {
     LOG.trace("search({})", searchParameters);
+    validator.validateForSearch(searchParameters);
     var tournaments = dao.search(searchParameters);
 
     return tournaments.stream()
@@ -56,36 +103,271 @@ public class TournamentServiceImpl implements TournamentService {
     LOG.trace("insert({})", tournament);
     validator.validateForInsert(tournament);
     var insertedTournament = dao.insert(tournament);
-    return mapper.entityToDetailDto(insertedTournament);
+    var details = mapper.entityToDetailDto(insertedTournament);
+    publishResultsChanged(details.participants());
+    return details;
   }
 
   @Override
   public TournamentStandingsDto getStandings(Long id) throws NotFoundException, ValidationException {
     LOG.trace("get standing with({})", id);
     validator.validateId(id);
-    var tournament = dao.getTournamentById(id);
-    var participants = dao.getParticipantsByTournamentId(id);
-    tournament.setParticipants(participants);
-    return mapper.tournamentDetailsDtoToStandingsDto(mapper.entityToDetailDto(tournament));
+    return standingsCache.get(id, () -> loadStandings(id)).standings();
+  }
+
+  @Override
+  public TournamentStandingsJsonDto getStandingsJson(Long id) throws NotFoundException, ValidationException {
+    LOG.trace("getStandingsJson({})", id);
+    validator.validateId(id);
+    var standings = standingsCache.get(id, () -> loadStandings(id));
+    return new TournamentStandingsJsonDto(standings.version(), standings.json());
+  }
+
+  @Override
+  public CacheStatsDto standingsCacheStats() {
+    LOG.trace("standingsCacheStats()");
+    return standingsCache.stats();
   }
 
   @Override
   public TournamentStandingsDto generateFirstRound(Long id) throws NotFoundException, ValidationException {
     LOG.trace("generateFirstRound for({})", id);
     validator.validateId(id);
-    var tournament = dao.getTournamentById(id);
-    var participants = dao.getParticipantsForFirstRound(id);
-    tournament.setParticipants(participants);
-    return mapper.tournamentDetailsDtoToStandingsDtoFirstRound(mapper.entityToDetailDto(tournament));
+    return mapper.tournamentDetailsDtoToStandingsDtoFirstRound(mapper.entityToDetailDto(seededTournament(id)));
   }
 
   @Override
-  public TournamentStandingsDto saveStanding(TournamentUpdateParticipantsDto updateParticipants, long id) throws NotFoundException, ValidationException {
+  public TournamentSimulationDto simulate(Long id, TournamentSimulationParamsDto parameters) throws NotFoundException, ValidationException {
+    LOG.trace("simulate({}, {})", id, parameters);
+    validator.validateId(id);
+    validator.validateForSimulation(parameters);
+    var tournament = seededTournament(id);
+    var participants = tournament.getParticipants();
+    var records = new HashMap<Long, MatchRecord>();
+    for (MatchRecord record : dao.findMatchRecords(Arrays.stream(participants).map(Participant::getHorseId).toList(), tournament.getStartDate())) {
+      records.put(record.horseId(), record);
+    }
+    double[] strengths = new double[participants.length];
+    for (int entry = 0; entry < participants.length; entry++) {
+      var record = records.get(participants[entry].getHorseId());
+      // smoothed ratio of matches won to matches lost, so that horses without results are of equal strength
+      strengths[entry] = record == null ? 1 : (record.won() + 1.0) / (record.lost() + 1.0);
+    }
+    var outcome = simulator.simulate(strengths,
+        parameters.iterations() != null ? parameters.iterations() : TournamentSimulator.DEFAULT_ITERATIONS,
+        TimeUnit.MILLISECONDS.toNanos(parameters.maxMillis() != null ? parameters.maxMillis() : TournamentSimulator.DEFAULT_MILLIS));
+    var entrants = new TournamentSimulationEntrantDto[participants.length];
+    for (int entry = 0; entry < participants.length; entry++) {
+      double[] reachingRound = new double[outcome.rounds()];
+      for (int round = 1; round <= reachingRound.length; round++) {
+        reachingRound[round - 1] = outcome.probability(entry, round);
+      }
+      entrants[entry] = new TournamentSimulationEntrantDto(participants[entry].getId(), participants[entry].getHorseId(),
+          participants[entry].getName(), entry, reachingRound);
+    }
+    return new TournamentSimulationDto(id, outcome.iterations(), entrants);
+  }
+
+  @Override
+  public TournamentStandingsDto saveStanding(TournamentUpdateParticipantsDto updateParticipants, long id)
+      throws NotFoundException, ValidationException, ConflictException {
     LOG.trace("participants to update({})", updateParticipants);
-    validator.validateParticipants(updateParticipants.participants());
+    validator.validateParticipants(updateParticipants, dao.getParticipantsByTournamentId(id).length);
+    return standingsCache.update(id, () -> {
+      final var previous = standingsCache.cached(id);
+      // the matches are rebuilt from the standings, so their earlier results are read first to be taken back
+      headToHead.load();
+      final var previousResults = dao.findMatchResults(id);
+      var tournament = dao.updateParticipants(id, updateParticipants.version(), updateParticipants.participants());
+      for (Participant participant : tournament.getParticipants()) {
+        formPoints.put(participant.getHorseId(), id, tournament.getEndDate(), participant.getRoundReached());
+      }
+      var results = dao.findMatchResults(id);
+      ratings.putTournament(id, results);
+      headToHead.putTournament(id, previousResults, results);
+      var standings = mapper.tournamentDetailsDtoToStandingsDto(mapper.entityToDetailDto(tournament));
+      // published while the standings cache holds the tournament, so that the events are in the order of the versions
+      var delta = delta(previous != null ? previous.standings() : null, standings);
+      eventPublisher.publishEvent(new StandingsSavedEvent(delta));
+      publishResultsChanged(delta.participants());
+      return standings;
+    }).standings();
+  }
+
+  @Override
+  public TournamentStandingsDto recordMatchResult(long id, int round, int slot, TournamentMatchResultDto result)
+      throws NotFoundException, ValidationException, ConflictException {
+    LOG.trace("recordMatchResult({}, {}, {}, {})", id, round, slot, result);
+    validator.validateMatchResult(round, slot, result);
+    return standingsCache.update(id, () -> {
+      final var previous = standingsCache.cached(id);
+      headToHead.load();
+      final var previousMatch = decidedMatch(id, round, slot);
+      var tournament = dao.recordMatchWinner(id, round, slot, result.winnerId());
+      for (Participant participant : tournament.getParticipants()) {
+        formPoints.put(participant.getHorseId(), id, tournament.getEndDate(), participant.getRoundReached());
+      }
+      var match = dao.findMatchResult(id, round, slot);
+      ratings.put(match);
+      headToHead.put(previousMatch, match);
+      var changed = mapper.entityToDetailDto(tournament).participants();
+      // the cached standings are changed in memory, if nobody else saved the tournament in between
+      var standings = previous != null && previous.standings().version() == tournament.getVersion() - 1
+          ? mapper.standingsWithChangedParticipants(previous.standings(), changed, tournament.getVersion())
+          : loadStandings(id);
+      eventPublisher.publishEvent(new StandingsSavedEvent(new TournamentStandingsDeltaDto(id, tournament.getVersion(), changed)));
+      publishResultsChanged(changed);
+      return standings;
+    }).standings();
+  }
+
+  @Override
+  public Stream<HorseRatingDto> leaderboard(HorseRatingSearchDto parameters) throws ValidationException {
+    LOG.trace("leaderboard({})", parameters);
+    validator.validateForLeaderboard(parameters);
+    int limit = parameters.limit() != null ? parameters.limit() : HorseRatingSearchDto.DEFAULT_LIMIT;
+    return ratings.top(parameters.breedId(), parameters.sex(), limit).stream()
+        .map(rating -> new HorseRatingDto(rating.horseId(), rating.sex(), rating.breedId(), rating.rating(), rating.matches()));
+  }
+
+  @Override
+  public Stream<HeadToHeadDto> headToHead(long horseId, List<Long> opponentIds) throws ValidationException {
+    LOG.trace("headToHead({}, {} opponents)", horseId, opponentIds == null ? 0 : opponentIds.size());
+    validator.validateForHeadToHead(opponentIds);
+    var records = headToHead.records(horseId, opponentIds);
+    return IntStream.range(0, records.size())
+        .mapToObj(i -> new HeadToHeadDto(horseId, opponentIds.get(i), records.get(i).wins(), records.get(i).losses()));
+  }
+
+  @Override
+  public int rebuildRatings() {
+    LOG.trace("rebuildRatings()");
+    return ratings.rebuild();
+  }
+
+  @Override
+  public int rebuildFormPoints() {
+    LOG.trace("rebuildFormPoints()");
+    return formPoints.rebuild();
+  }
+
+  /**
+   * Rebuilds the ledger of points, the ratings and the head-to-head records, and drops the cached standings,
+   * after the results in the persistent data store have been replaced bypassing this service.
+   *
+   * @param event the event telling that the data has been replaced
+   */
+  @EventListener
+  public void onDataReset(DataResetEvent event) {
+    LOG.trace("onDataReset()");
+    formPoints.rebuild();
+    ratings.rebuild();
+    headToHead.rebuild();
+    standingsCache.invalidateAll();
+  }
+
+  /**
+   * Gets the result of a match, which is overwritten when it is recorded again.
+   *
+   * @param id    the ID of the tournament
+   * @param round the round of the match
+   * @param slot  the slot of the match within its round
+   * @return the result of the match, or null if it has not been decided
+   */
+  private MatchResult decidedMatch(long id, int round, int slot) {
+    try {
+      return dao.findMatchResult(id, round, slot);
+    } catch (NotFoundException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Loads the standings of a tournament from the persistent data store.
+   *
+   * @param id the ID of the tournament
+   * @return the standings of the tournament
+   * @throws NotFoundException if the tournament is not found
+   */
+  private TournamentStandingsDto loadStandings(long id) throws NotFoundException {
     var tournament = dao.getTournamentById(id);
-    var newParticipants = dao.updateParticipants(updateParticipants.participants());
-    tournament.setParticipants(newParticipants);
+    var participants = dao.getParticipantsByTournamentId(id);
+    tournament.setParticipants(participants);
     return mapper.tournamentDetailsDtoToStandingsDto(mapper.entityToDetailDto(tournament));
   }
+
+  /**
+   * Tells the listeners, e.g. the cache of the careers of horses, that the participations of the given participants have changed.
+   *
+   * @param participants the changed participants
+   */
+  private void publishResultsChanged(TournamentDetailParticipantDto[] participants) {
+    if (participants.length > 0) {
+      eventPublisher.publishEvent(new HorseResultsChangedEvent(
+          Arrays.stream(participants).map(TournamentDetailParticipantDto::horseId).collect(Collectors.toSet())));
+    }
+  }
+
+  /**
+   * Finds the participants whose entry number or round reached differs between two versions of the standings.
+   *
+   * @param previous the standings before the save, or null if they are not known
+   * @param saved    the standings after the save
+   * @return the change of the standings; all participants, if the previous standings are not of the version before the saved ones
+   */
+  private TournamentStandingsDeltaDto delta(TournamentStandingsDto previous, TournamentStandingsDto saved) {
+    if (previous == null || previous.version() != saved.version() - 1) {
+      return new TournamentStandingsDeltaDto(saved.id(), saved.version(), saved.participants());
+    }
+    var before = new HashMap<Long, TournamentDetailParticipantDto>();
+    for (TournamentDetailParticipantDto participant : previous.participants()) {
+      before.put(participant.id(), participant);
+    }
+    var changed = Arrays.stream(saved.participants())
+        .filter(participant -> {
+          var old = before.get(participant.id());
+          return old == null
+              || !Objects.equals(old.entryNumber(), participant.entryNumber())
+              || !Objects.equals(old.roundReached(), participant.roundReached());
+        })
+        .toArray(TournamentDetailParticipantDto[]::new);
+    return new TournamentStandingsDeltaDto(saved.id(), saved.version(), changed);
+  }
+
+  /**
+   * Loads a tournament with its participants, seeded for the first round by their points.
+   *
+   * @param id the ID of the tournament
+   * @return the tournament, with its participants ordered by their entry number
+   * @throws NotFoundException if the tournament is not found
+   */
+  private Tournament seededTournament(long id) throws NotFoundException {
+    var tournament = dao.getTournamentById(id);
+    var participants = dao.getParticipantsByTournamentId(id);
+    // a tournament counts, if it ended in the 12 calendar months up to and including the month this tournament starts in
+    var lastDay = tournament.getStartDate().withDayOfMonth(1).plusMonths(1).minusDays(1);
+    for (Participant participant : participants) {
+      participant.setPoints(formPoints.formPoints(participant.getHorseId(), lastDay));
+    }
+    return tournament.setParticipants(seed(participants));
+  }
+
+  /**
+   * Ranks the participants by their points, and by name among equal points,
+   * and assigns their entry numbers for the first round by the standard bracket placement, see {@link Bracket#entryPositions(int)}.
+   *
+   * @param participants the participants, with their points set
+   * @return the participants, ordered by their entry number
+   */
+  private Participant[] seed(Participant[] participants) {
+    LOG.trace("seed({} participants)", participants.length);
+    Arrays.sort(participants, Comparator.comparingInt(Participant::getPoints).reversed().thenComparing(Participant::getName));
+    int[] positions = Bracket.entryPositions(participants.length);
+    var seeded = new Participant[participants.length];
+    for (int seed = 0; seed < participants.length; seed++) {
+      participants[seed].setEntryNumber(positions[seed]);
+      seeded[positions[seed]] = participants[seed];
+    }
+    return seeded;
+  }
 }
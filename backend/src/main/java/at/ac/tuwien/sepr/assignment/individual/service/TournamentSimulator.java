@@ -0,0 +1,176 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import java.lang.invoke.MethodHandles;
+import java.util.SplittableRandom;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Monte-Carlo simulation of a single-elimination bracket, played out many times to estimate the chances of every entrant.
+ * Every match is won by one of its two competitors with a probability proportional to their strengths,
+ * i.e. {@code a} beats {@code b} with probability {@code strength(a) / (strength(a) + strength(b))}.
+ *
+ * <p>The iterations are split into tasks on a fork/join pool, down to {@link #LEAF_ITERATIONS} iterations per task.
+ * Every task has its own random number generator, split from the one of the task that forked it,
+ * and counts into its own arrays, which are summed up when the tasks are joined, so the tasks share no mutable state.
+ * All tasks stop at the same deadline, so the simulation takes at most about as long as its time budget.
+ */
+public class TournamentSimulator implements AutoCloseable {
+  /**
+   * The number of times a bracket is played out, if not given otherwise.
+   */
+  public static final long DEFAULT_ITERATIONS = 1_000_000;
+  /**
+   * The largest number of times a bracket can be played out.
+   */
+  public static final long MAX_ITERATIONS = 100_000_000;
+  /**
+   * The time budget of a simulation in milliseconds, if not given otherwise.
+   */
+  public static final long DEFAULT_MILLIS = 2_000;
+  /**
+   * The largest time budget of a simulation in milliseconds.
+   */
+  public static final long MAX_MILLIS = 30_000;
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final long LEAF_ITERATIONS = 8192;
+  /**
+   * Number of iterations between two looks at the clock, so that reading it costs next to nothing.
+   */
+  private static final long DEADLINE_CHECK_INTERVAL = 256;
+
+  private final ForkJoinPool pool;
+
+  /**
+   * Constructs a new TournamentSimulator.
+   *
+   * @param pool the pool the simulations are run on
+   */
+  public TournamentSimulator(ForkJoinPool pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Plays out a bracket the given number of times, or as many times as the time budget allows.
+   *
+   * @param strengths  the strengths of the entrants, by entry position; their number is the size of the bracket, a power of two
+   * @param iterations the number of times the bracket is played out at most
+   * @param maxNanos   the time budget in nanoseconds
+   * @return the number of times every entrant reached every round
+   */
+  public Outcome simulate(double[] strengths, long iterations, long maxNanos) {
+    LOG.trace("simulate({} entrants, {}, {})", strengths.length, iterations, maxNanos);
+    long deadline = System.nanoTime() + maxNanos;
+    var counts = pool.invoke(new Simulation(strengths, Bracket.rounds(strengths.length), iterations, deadline, new SplittableRandom()));
+    LOG.debug("Played out a bracket of {} entrants {} times", strengths.length, counts.played);
+    return new Outcome(counts.played, counts.reached, Bracket.rounds(strengths.length) + 1);
+  }
+
+  /**
+   * Shuts down the pool the simulations are run on; simulations that are running are finished.
+   */
+  @Override
+  public void close() {
+    LOG.trace("close()");
+    pool.shutdown();
+  }
+
+  /**
+   * The counts of a simulation.
+   *
+   * @param iterations the number of times the bracket was played out
+   * @param reached    the number of times an entrant reached a round, at the index {@code entry * rounds + round - 1}
+   * @param rounds     the number of rounds that can be reached, including the one reached by winning the final
+   */
+  public record Outcome(long iterations, long[] reached, int rounds) {
+
+    /**
+     * Gets the share of the iterations in which an entrant reached a round.
+     *
+     * @param entry the entry position of the entrant
+     * @param round the round, counted from 1
+     * @return the probability of reaching the round, or 0 if no iteration was played
+     */
+    public double probability(int entry, int round) {
+      return iterations == 0 ? 0 : (double) reached[entry * rounds + round - 1] / iterations;
+    }
+  }
+
+  private static final class Counts {
+    private long played;
+    private final long[] reached;
+
+    private Counts(int size, int rounds) {
+      reached = new long[size * (rounds + 1)];
+    }
+
+    private Counts add(Counts other) {
+      played += other.played;
+      for (int i = 0; i < reached.length; i++) {
+        reached[i] += other.reached[i];
+      }
+      return this;
+    }
+  }
+
+  private static final class Simulation extends RecursiveTask<Counts> {
+    private final double[] strengths;
+    private final int rounds;
+    private final long iterations;
+    private final long deadline;
+    private final SplittableRandom random;
+
+    private Simulation(double[] strengths, int rounds, long iterations, long deadline, SplittableRandom random) {
+      this.strengths = strengths;
+      this.rounds = rounds;
+      this.iterations = iterations;
+      this.deadline = deadline;
+      this.random = random;
+    }
+
+    @Override
+    protected Counts compute() {
+      if (iterations <= LEAF_ITERATIONS) {
+        return play();
+      }
+      long half = iterations / 2;
+      var forked = new Simulation(strengths, rounds, half, deadline, random.split());
+      forked.fork();
+      var counts = new Simulation(strengths, rounds, iterations - half, deadline, random).compute();
+      return counts.add(forked.join());
+    }
+
+    private Counts play() {
+      int size = strengths.length;
+      int stride = rounds + 1;
+      var counts = new Counts(size, rounds);
+      int[] alive = new int[size];
+      while (counts.played < iterations) {
+        if (counts.played % DEADLINE_CHECK_INTERVAL == 0 && System.nanoTime() - deadline > 0) {
+          break;
+        }
+        for (int entry = 0; entry < size; entry++) {
+          alive[entry] = entry;
+        }
+        for (int round = 1, remaining = size; remaining > 1; round++, remaining /= 2) {
+          for (int match = 0; match < remaining / 2; match++) {
+            int first = alive[2 * match];
+            int second = alive[2 * match + 1];
+            int winner = random.nextDouble() * (strengths[first] + strengths[second]) < strengths[first] ? first : second;
+            alive[match] = winner;
+            // the winner of a match of this round reaches the next one
+            counts.reached[winner * stride + round]++;
+          }
+        }
+        counts.played++;
+      }
+      // every entrant plays the first round
+      for (int entry = 0; entry < size; entry++) {
+        counts.reached[entry * stride] = counts.played;
+      }
+      return counts;
+    }
+  }
+}
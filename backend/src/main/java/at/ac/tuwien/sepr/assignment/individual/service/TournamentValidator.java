@@ -1,8 +1,14 @@
 package at.ac.tuwien.sepr.assignment.individual.service;
 
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseRatingSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSelectionDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentMatchResultDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSimulationParamsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantsDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -10,9 +16,11 @@ import org.springframework.stereotype.Component;
 
 import java.lang.invoke.MethodHandles;
 import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.Objects;
 
 /**
  * Component for validating tournament-related data
@@ -21,6 +29,14 @@ import java.util.List;
 public class TournamentValidator {
 
   private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  /**
+   * The largest number of horses on a leaderboard.
+   */
+  public static final int MAX_LEADERBOARD_LIMIT = 1000;
+  /**
+   * The largest number of horses the record of a horse can be asked for against at once.
+   */
+  public static final int MAX_HEAD_TO_HEAD_OPPONENTS = 1000;
 
   /**
    * Default constructor for the TournamentValidator class.
@@ -47,6 +63,32 @@ public class TournamentValidator {
     }
   }
 
+  /**
+   * Validates the search parameters before searching.
+   *
+   * @param searchParameters the search parameters to be validated
+   * @throws ValidationException if the limit is not positive or the cursor is malformed
+   */
+  public void validateForSearch(TournamentSearchDto searchParameters) throws ValidationException {
+    LOG.trace("validateForSearch({})", searchParameters);
+    List<String> validationErrors = new ArrayList<>();
+
+    if (searchParameters.limit() != null && searchParameters.limit() <= 0) {
+      validationErrors.add("limit must be positive");
+    }
+    if (searchParameters.cursor() != null) {
+      try {
+        LocalDate.parse(PageCursor.decode(searchParameters.cursor()).sortKey());
+      } catch (IllegalArgumentException | DateTimeParseException e) {
+        validationErrors.add("cursor is not valid");
+      }
+    }
+
+    if (!validationErrors.isEmpty()) {
+      throw new ValidationException("Validation of tournament search parameters failed", validationErrors);
+    }
+  }
+
   /**
    * Validates the provided tournament data for insertion.
    *
@@ -83,8 +125,8 @@ public class TournamentValidator {
       errors.add("end date is bevor start date");
     }
 
-    if (tournament.participants().length != 8) {
-      errors.add("tournament must have 8 participants");
+    if (!Bracket.isValidSize(tournament.participants().length)) {
+      errors.add("tournament must have a power of two participants, between " + Bracket.MIN_SIZE + " and " + Bracket.MAX_SIZE);
     }
 
     if (tournament.startDate().compareTo(LocalDate.of(1894, 1, 1)) < 0) {
@@ -93,28 +135,134 @@ public class TournamentValidator {
 
     return errors;
   }
+  /**
+   * Validates the parameters of a leaderboard of ratings.
+   *
+   * @param parameters the parameters to be validated
+   * @throws ValidationException if the limit is not positive or larger than {@link #MAX_LEADERBOARD_LIMIT}
+   */
+  public void validateForLeaderboard(HorseRatingSearchDto parameters) throws ValidationException {
+    LOG.trace("validateForLeaderboard({})", parameters);
+    List<String> errors = new ArrayList<>();
+
+    if (parameters.limit() != null && (parameters.limit() <= 0 || parameters.limit() > MAX_LEADERBOARD_LIMIT)) {
+      errors.add("limit must be between 1 and " + MAX_LEADERBOARD_LIMIT);
+    }
+
+    if (!errors.isEmpty()) {
+      throw new ValidationException("Validation of leaderboard parameters failed", errors);
+    }
+  }
 
   /**
-   * Validates an array of tournament participants.
+   * Validates the other horses the record of a horse is asked for against.
    *
-   * @param participants The array of tournament participants to validate.
-   * @throws ValidationException If any participant's roundReached is not within the valid range (1-4).
+   * @param opponentIds the IDs of the other horses
+   * @throws ValidationException if no IDs, empty ones or more than {@link #MAX_HEAD_TO_HEAD_OPPONENTS} are given
    */
-  public void validateParticipants(TournamentDetailParticipantDto[] participants) throws ValidationException {
-    LOG.trace("validateParticipants({})", Arrays.toString(participants));
+  public void validateForHeadToHead(List<Long> opponentIds) throws ValidationException {
+    LOG.trace("validateForHeadToHead({})", opponentIds);
     List<String> errors = new ArrayList<>();
 
-    int[] count = new int[5];
+    if (opponentIds == null || opponentIds.isEmpty()) {
+      errors.add("No opponents given");
+    } else if (opponentIds.size() > MAX_HEAD_TO_HEAD_OPPONENTS) {
+      errors.add("At most " + MAX_HEAD_TO_HEAD_OPPONENTS + " opponents can be given");
+    } else if (opponentIds.stream().anyMatch(Objects::isNull)) {
+      errors.add("Opponents must not be empty");
+    }
+
+    if (!errors.isEmpty()) {
+      throw new ValidationException("Validation of head-to-head parameters failed", errors);
+    }
+  }
+
+  /**
+   * Validates the budget of a simulation of a tournament.
+   *
+   * @param parameters the number of iterations and the time budget, each of which may be null
+   * @throws ValidationException if the number of iterations or the time budget is not positive or too large
+   */
+  public void validateForSimulation(TournamentSimulationParamsDto parameters) throws ValidationException {
+    LOG.trace("validateForSimulation({})", parameters);
+    List<String> errors = new ArrayList<>();
+
+    if (parameters.iterations() != null && (parameters.iterations() <= 0 || parameters.iterations() > TournamentSimulator.MAX_ITERATIONS)) {
+      errors.add("iterations must be between 1 and " + TournamentSimulator.MAX_ITERATIONS);
+    }
+    if (parameters.maxMillis() != null && (parameters.maxMillis() <= 0 || parameters.maxMillis() > TournamentSimulator.MAX_MILLIS)) {
+      errors.add("maxMillis must be between 1 and " + TournamentSimulator.MAX_MILLIS);
+    }
+
+    if (!errors.isEmpty()) {
+      throw new ValidationException("Validation of simulation parameters failed", errors);
+    }
+  }
+
+  /**
+   * Validates the result of a single match.
+   * Whether the match exists in the bracket of the tournament, and whether the winner competes in it, is checked when it is recorded.
+   *
+   * @param round  The round of the match, counted from 1.
+   * @param slot   The slot of the match within its round, counted from 0.
+   * @param result The result of the match.
+   * @throws ValidationException If the round or slot can not exist in any bracket, or the winner is missing.
+   */
+  public void validateMatchResult(int round, int slot, TournamentMatchResultDto result) throws ValidationException {
+    LOG.trace("validateMatchResult({}, {}, {})", round, slot, result);
+    List<String> errors = new ArrayList<>();
+
+    if (round < 1 || round > Bracket.rounds(Bracket.MAX_SIZE)) {
+      errors.add("round " + round + " is not valid, it must be between 1 and " + Bracket.rounds(Bracket.MAX_SIZE));
+    } else if (slot < 0 || slot >= Bracket.MAX_SIZE >> round) {
+      errors.add("slot " + slot + " is not valid in round " + round);
+    }
+    if (result == null || result.winnerId() == null) {
+      errors.add("winnerId is missing");
+    }
+
+    if (!errors.isEmpty()) {
+      throw new ValidationException("Validation of match result failed", errors);
+    }
+  }
+
+  /**
+   * Validates standings to be saved against the bracket of the tournament.
+   * The participants must be all participants of the tournament, each of them once,
+   * and the version the standings are based on must be given, so that a save can not overwrite another one unnoticed.
+   *
+   * @param standings The standings to validate.
+   * @param fieldSize The number of participants the tournament has, i.e. the size of its bracket.
+   * @throws ValidationException If the version is missing, not every participant of the tournament is given exactly once,
+   *                             any participant's roundReached is not within the valid range (0 to the number of rounds + 1),
+   *                             or more participants reached a round than the bracket allows.
+   */
+  public void validateParticipants(TournamentUpdateParticipantsDto standings, int fieldSize) throws ValidationException {
+    LOG.trace("validateParticipants({}, {})", standings, fieldSize);
+    List<String> errors = new ArrayList<>();
+
+    if (standings.version() == null) {
+      errors.add("version of the standings the changes are based on is missing");
+    }
+    TournamentDetailParticipantDto[] participants = standings.participants();
+    if (participants.length != fieldSize) {
+      errors.add("all " + fieldSize + " participants of the tournament must be given, but " + participants.length + " are");
+    }
+    if (Arrays.stream(participants).map(TournamentDetailParticipantDto::id).distinct().count() != participants.length) {
+      errors.add("every participant must be given only once");
+    }
+
+    int[] count = new int[Bracket.rounds(fieldSize) + 2];
     for (TournamentDetailParticipantDto participant : participants) {
       int roundReached = participant.roundReached();
-      if (roundReached > 4 || roundReached < 0) {
+      if (roundReached >= count.length || roundReached < 0) {
         errors.add("roundReached: " + participant.roundReached() + " for participant with id: " + participant.id() + " is not valid");
       } else {
         count[roundReached]++;
       }
     }
 
-    errors.addAll(validateForRounds(count));
+    errors.addAll(validateForRounds(fieldSize, count));
 
     if (!errors.isEmpty()) {
       throw new ValidationException("Validation of participants for update failed", errors);
@@ -123,30 +271,22 @@ public class TournamentValidator {
 
   /**
    * Validates the number of participants staying for each round of the tournament.
+   * Every round halves the number of participants that can reach the next one.
    *
+   * @param size  The number of participants of the tournament.
    * @param count An array representing the number of participants staying for each round.
    * @return A list of errors encountered during validation.
    */
-  private List<String> validateForRounds(int[] count) {
+  private List<String> validateForRounds(int size, int[] count) {
 
-    LOG.trace("validate({})", Arrays.toString(count));
+    LOG.trace("validate({}, {})", size, Arrays.toString(count));
 
     List<String> errors = new ArrayList<>();
 
-    if (count[4] > 1) {
-      errors.add("invalid number of horses, which stay for round 4");
-    }
-    if (count[3] > 2) {
-      errors.add("invalid number of horses, which stay for round 3");
-    }
-    if (count[2] > 4) {
-      errors.add("invalid number of horses, which stay for round 2");
-    }
-    if (count[1] > 8) {
-      errors.add("invalid number of horses, which stay for round 1");
-    }
-    if (count[0] > 8) {
-      errors.add("invalid number of horses, which stay for round 0");
+    for (int round = count.length - 1; round >= 0; round--) {
+      if (count[round] > Bracket.maxReaching(size, round)) {
+        errors.add("invalid number of horses, which stay for round " + round);
+      }
     }
     return errors;
   }
@@ -0,0 +1,180 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * In-memory inverted index from the trigrams of names to the IDs of the named rows.
+ * Answers case-insensitive substring queries by intersecting the posting lists of the trigrams of the query,
+ * so that only rows containing every trigram of the query are considered, instead of scanning all rows.
+ *
+ * <p>Queries shorter than three characters cannot be answered by the index; the caller has to fall back to scanning.
+ */
+public class TrigramIndex {
+  private static final Logger LOG = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+  private static final int GRAM_LENGTH = 3;
+
+  private final Map<String, Set<Long>> postings = new HashMap<>();
+  private final Map<Long, String> names = new HashMap<>();
+  private final ReadWriteLock lock = new ReentrantReadWriteLock();
+  private volatile boolean built = false;
+
+  /**
+   * Default constructor for the TrigramIndex class.
+   * The index is empty and not built until {@link #rebuild(Map)} is called.
+   */
+  public TrigramIndex() { }
+
+  /**
+   * Checks whether the index has been built yet.
+   *
+   * @return true if {@link #rebuild(Map)} has been called, false otherwise.
+   */
+  public boolean isBuilt() {
+    return built;
+  }
+
+  /**
+   * Replaces the content of the index with the given names.
+   *
+   * @param namesById the names to index, identified by the ID of their row
+   */
+  public void rebuild(Map<Long, String> namesById) {
+    LOG.trace("rebuild({} names)", namesById.size());
+    lock.writeLock().lock();
+    try {
+      postings.clear();
+      names.clear();
+      namesById.forEach(this::add);
+      built = true;
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Adds the name of a row to the index, replacing the previously indexed name of that row.
+   *
+   * @param id   the ID of the row
+   * @param name the name of the row
+   */
+  public void put(long id, String name) {
+    LOG.trace("put({}, {})", id, name);
+    lock.writeLock().lock();
+    try {
+      remove(id);
+      add(id, name);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Removes the name of a row from the index.
+   *
+   * @param id the ID of the row
+   */
+  public void delete(long id) {
+    LOG.trace("delete({})", id);
+    lock.writeLock().lock();
+    try {
+      remove(id);
+    } finally {
+      lock.writeLock().unlock();
+    }
+  }
+
+  /**
+   * Finds the IDs of all indexed rows, whose name contains {@code query}, ignoring case.
+   *
+   * @param query the substring to search for
+   * @return the IDs of the matching rows, or null if the query is too short to be answered by the index
+   */
+  public Set<Long> search(String query) {
+    LOG.trace("search({})", query);
+    String normalized = normalize(query);
+    if (normalized.length() < GRAM_LENGTH) {
+      return null;
+    }
+    lock.readLock().lock();
+    try {
+      List<Set<Long>> lists = new ArrayList<>();
+      for (String gram : grams(normalized)) {
+        Set<Long> list = postings.get(gram);
+        if (list == null) {
+          return Set.of();
+        }
+        lists.add(list);
+      }
+      // intersect starting from the shortest posting list, so that the candidate set only shrinks
+      lists.sort(Comparator.comparingInt(Set::size));
+      Set<Long> result = new HashSet<>();
+      for (Long id : lists.get(0)) {
+        if (isInAll(id, lists) && normalize(names.get(id)).contains(normalized)) {
+          result.add(id);
+        }
+      }
+      return result;
+    } finally {
+      lock.readLock().unlock();
+    }
+  }
+
+  private static boolean isInAll(Long id, List<Set<Long>> lists) {
+    for (int i = 1; i < lists.size(); i++) {
+      if (!lists.get(i).contains(id)) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  private void add(long id, String name) {
+    if (name == null) {
+      return;
+    }
+    names.put(id, name);
+    for (String gram : grams(normalize(name))) {
+      postings.computeIfAbsent(gram, g -> new HashSet<>()).add(id);
+    }
+  }
+
+  private void remove(long id) {
+    String name = names.remove(id);
+    if (name == null) {
+      return;
+    }
+    for (String gram : grams(normalize(name))) {
+      Set<Long> list = postings.get(gram);
+      if (list != null) {
+        list.remove(id);
+        if (list.isEmpty()) {
+          postings.remove(gram);
+        }
+      }
+    }
+  }
+
+  private static String normalize(String value) {
+    return value.toUpperCase(Locale.ROOT);
+  }
+
+  private static Set<String> grams(String normalized) {
+    Set<String> grams = new HashSet<>();
+    for (int i = 0; i + GRAM_LENGTH <= normalized.length(); i++) {
+      grams.add(normalized.substring(i, i + GRAM_LENGTH));
+    }
+    return grams;
+  }
+}
@@ -0,0 +1,21 @@
+package at.ac.tuwien.sepr.assignment.individual.type;
+
+/**
+ * Outcome of importing a single record of a bulk import.
+ */
+public enum ImportStatus {
+  /**
+   * The record was stored.
+   */
+  CREATED,
+
+  /**
+   * The record could not be read or is in itself incorrect (no name, name too long, …).
+   */
+  INVALID,
+
+  /**
+   * The record is in conflict with the data currently in the system (the same horse exists, breed does not exist, …).
+   */
+  CONFLICT
+}
@@ -0,0 +1,26 @@
+package at.ac.tuwien.sepr.assignment.individual.type;
+
+/**
+ * Enum representing the attribute by which participations in tournaments are grouped for analysis.
+ */
+public enum ParticipationGrouping {
+  /**
+   * Groups by the breed of the horse.
+   */
+  BREED,
+
+  /**
+   * Groups by the sex of the horse.
+   */
+  SEX,
+
+  /**
+   * Groups by the age of the horse in full years at the start of the tournament.
+   */
+  AGE,
+
+  /**
+   * Groups by the season, i.e. the year the tournament started in.
+   */
+  SEASON
+}
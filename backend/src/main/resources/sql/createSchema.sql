@@ -33,3 +33,53 @@ CREATE TABLE IF NOT EXISTS participant
     entry_number BIGINT NOT NULL,
     round_reached BIGINT NOT NULL
 );
+
+-- case-folded copy of the name, so that the name search of horses does not have to apply UPPER() on every row;
+-- it is not indexed, as the name search matches substrings, whose leading wildcard no index can serve;
+-- the trigram index of the service narrows the horses down to candidate IDs instead
+ALTER TABLE horse ADD COLUMN IF NOT EXISTS name_upper VARCHAR(255) GENERATED ALWAYS AS (UPPER(name));
+-- databases created by earlier versions of this script have such an index, which only slows down writes
+DROP INDEX IF EXISTS horse_name_upper;
+
+-- indexes backing the keyset pagination of the search endpoints
+CREATE INDEX IF NOT EXISTS horse_name_id ON horse (name, id);
+-- indexes backing the search filters of horses; breed_id is already indexed by its foreign key constraint
+CREATE INDEX IF NOT EXISTS horse_date_of_birth ON horse (date_of_birth);
+CREATE INDEX IF NOT EXISTS horse_sex_date_of_birth ON horse (sex, date_of_birth);
+CREATE INDEX IF NOT EXISTS tournament_start_date_id ON tournament (start_date DESC, id DESC);
+-- version of a tournament, incremented on every save of its standings, so that a save based on outdated standings is detected
+ALTER TABLE tournament ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT 0;
+-- duration of a tournament, whose maximum turns the date overlap search into a bounded range of the index on start_date
+ALTER TABLE tournament ADD COLUMN IF NOT EXISTS duration_days INT GENERATED ALWAYS AS (DATEDIFF(DAY, start_date, end_date));
+CREATE INDEX IF NOT EXISTS tournament_duration_days ON tournament (duration_days);
+
+-- SHA-256 of the data identifying a horse or tournament, kept current by the database on every write;
+-- the unique indexes turn the check for an equal horse or tournament into a single index probe.
+-- The name goes last, as it is the only part that can contain the separator, so that different data never give the same text.
+ALTER TABLE horse ADD COLUMN IF NOT EXISTS fingerprint BINARY(32) GENERATED ALWAYS AS (HASH('SHA-256',
+  CAST(sex AS VARCHAR) || '|' || CAST(date_of_birth AS VARCHAR)
+  || '|' || COALESCE(CAST(height AS VARCHAR), '') || '|' || COALESCE(CAST(weight AS VARCHAR), '')
+  || '|' || COALESCE(CAST(breed_id AS VARCHAR), '') || '|' || name));
+ALTER TABLE tournament ADD COLUMN IF NOT EXISTS fingerprint BINARY(32) GENERATED ALWAYS AS (HASH('SHA-256',
+  CAST(start_date AS VARCHAR) || '|' || CAST(end_date AS VARCHAR) || '|' || name));
+CREATE UNIQUE INDEX IF NOT EXISTS horse_fingerprint ON horse (fingerprint);
+CREATE UNIQUE INDEX IF NOT EXISTS tournament_fingerprint ON tournament (fingerprint);
+
+-- indexes backing the seeding of the first round, which sums up the points of all participations of the horses of a tournament
+CREATE INDEX IF NOT EXISTS participant_id_horse ON participant (id_horse, tournament_id);
+CREATE INDEX IF NOT EXISTS tournament_end_date ON tournament (end_date);
+
+-- the decided matches of the brackets; the match in slot s of round r is played by the winners of the slots 2s and 2s + 1 of round r - 1,
+-- or, in round 1, by the participants at the entry numbers 2s and 2s + 1, so recording one result only reads and writes a few rows
+CREATE TABLE IF NOT EXISTS tournament_match
+(
+  tournament_id BIGINT NOT NULL REFERENCES tournament(id),
+  round INT NOT NULL,
+  slot INT NOT NULL,
+  winner_id BIGINT NOT NULL REFERENCES participant(id),
+  PRIMARY KEY (tournament_id, round, slot)
+);
+-- the competitor that lost the match, so that the history of all matches can be replayed for the ratings of the horses
+ALTER TABLE tournament_match ADD COLUMN IF NOT EXISTS loser_id BIGINT REFERENCES participant(id);
+-- finds the two participants of a match of the first round by their entry numbers
+CREATE INDEX IF NOT EXISTS participant_tournament_entry_number ON participant (tournament_id, entry_number);
@@ -1,4 +1,5 @@
 BEGIN;
+DELETE FROM tournament_match;
 DELETE FROM participant;
 DELETE FROM tournament;
 DELETE FROM horse;
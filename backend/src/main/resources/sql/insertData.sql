@@ -2,6 +2,7 @@
 -- the IDs are hardcoded to enable references between further test data
 -- negative IDs are used to not interfere with user-entered data and allow clean deletion of test data
 
+DELETE FROM tournament_match WHERE tournament_id < 0;
 DELETE FROM participant WHERE id < 0;
 DELETE FROM tournament WHERE id < 0;
 DELETE FROM horse WHERE id < 0;
@@ -0,0 +1,161 @@
+package at.ac.tuwien.sepr.assignment.individual.mapper;
+
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsTreeDto;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Objects;
+import java.util.Random;
+
+/**
+ * Benchmark comparing the flat standings tree of {@link TournamentMapper} with the nested tree it replaced,
+ * for brackets of 8 to 1024 entrants. For every size both trees are checked to be equal first.
+ *
+ * <p>It is not run by the tests; run its {@code main} method on the test class path, e.g. from the IDE.
+ * The time of a build is the average over many builds, after the JIT compiler has warmed up.
+ */
+public final class StandingsTreeBenchmark {
+  private static final long WARMUP_NANOS = 2_000_000_000L;
+  private static final long MEASURE_NANOS = 2_000_000_000L;
+
+  private static volatile Object sink;
+
+  private StandingsTreeBenchmark() { }
+
+  /**
+   * Runs the benchmark and prints the average time per build and per build and serialization.
+   *
+   * @param args not used
+   * @throws IOException if a tree cannot be serialized
+   */
+  public static void main(String[] args) throws IOException {
+    var mapper = new TournamentMapper();
+    ObjectWriter writer = new ObjectMapper().registerModule(new JavaTimeModule()).writer();
+    System.out.printf("%8s %16s %16s %20s %20s%n", "entrants", "nested ns/build", "flat ns/build", "nested ns/build+json", "flat ns/build+json");
+    for (int size = 8; size <= 1024; size *= 2) {
+      var tournament = new TournamentDetailsDto(-1L, "benchmark", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), playedBracket(size, new Random(size)), 0);
+      if (!sameTree(nestedTree(tournament.participants(), 0), mapper.tournamentDetailsDtoToStandingsDto(tournament).tree().toTree())) {
+        throw new IllegalStateException("The trees for " + size + " entrants differ");
+      }
+      double nested = measure(() -> sink = nestedTree(tournament.participants(), 0));
+      double flat = measure(() -> sink = mapper.tournamentDetailsDtoToStandingsDto(tournament));
+      double nestedJson = measure(() -> sink = writer.writeValueAsBytes(nestedTree(tournament.participants(), 0)));
+      double flatJson = measure(() -> sink = writer.writeValueAsBytes(mapper.tournamentDetailsDtoToStandingsDto(tournament).tree()));
+      System.out.printf("%8d %16.0f %16.0f %20.0f %20.0f%n", size, nested, flat, nestedJson, flatJson);
+    }
+  }
+
+  private static double measure(Action action) throws IOException {
+    long warmupEnd = System.nanoTime() + WARMUP_NANOS;
+    while (System.nanoTime() < warmupEnd) {
+      action.run();
+    }
+    long runs = 0;
+    long start = System.nanoTime();
+    long elapsed;
+    do {
+      action.run();
+      runs++;
+      elapsed = System.nanoTime() - start;
+    } while (elapsed < MEASURE_NANOS);
+    return (double) elapsed / runs;
+  }
+
+  /**
+   * Creates the participants of a bracket, in which all rounds have been played with random winners.
+   *
+   * @param size   the number of entrants, a power of two
+   * @param random the source of the winners
+   * @return the participants, ordered by their entry number
+   */
+  private static TournamentDetailParticipantDto[] playedBracket(int size, Random random) {
+    int[] roundReached = new int[size];
+    int[] alive = new int[size];
+    for (int i = 0; i < size; i++) {
+      alive[i] = i;
+    }
+    int round = 1;
+    for (int remaining = size; remaining > 1; remaining /= 2) {
+      for (int i = 0; i < remaining / 2; i++) {
+        boolean firstWins = random.nextBoolean();
+        int winner = firstWins ? alive[2 * i] : alive[2 * i + 1];
+        roundReached[firstWins ? alive[2 * i + 1] : alive[2 * i]] = round;
+        alive[i] = winner;
+      }
+      round++;
+    }
+    roundReached[alive[0]] = round;
+    var participants = new TournamentDetailParticipantDto[size];
+    for (int i = 0; i < size; i++) {
+      participants[i] = new TournamentDetailParticipantDto((long) -i, (long) -i, "Horse " + i, LocalDate.of(2015, 1, 1), i, roundReached[i]);
+    }
+    return participants;
+  }
+
+  private static boolean sameTree(TournamentStandingsTreeDto nested, TournamentStandingsTreeDto flat) {
+    if (!Objects.equals(nested.thisParticipant(), flat.thisParticipant())) {
+      return false;
+    }
+    if (nested.branches() == null || flat.branches() == null) {
+      return nested.branches() == flat.branches();
+    }
+    return sameTree(nested.branches()[0], flat.branches()[0]) && sameTree(nested.branches()[1], flat.branches()[1]);
+  }
+
+  /**
+   * The nested tree builder that {@link TournamentMapper} used before, kept as the baseline of the benchmark.
+   *
+   * @param participants the participants
+   * @param option       0 for the standings, 1 for the first round
+   * @return the root of the tree
+   */
+  private static TournamentStandingsTreeDto nestedTree(TournamentDetailParticipantDto[] participants, int option) {
+    TournamentStandingsTreeDto[] trees = new TournamentStandingsTreeDto[participants.length];
+    for (TournamentDetailParticipantDto participant : participants) {
+      if (participant.entryNumber() != -1) {
+        trees[participant.entryNumber()] = new TournamentStandingsTreeDto(participant, null);
+      }
+    }
+    for (int i = 0; i < participants.length; i++) {
+      if (trees[i] == null) {
+        if (participants[i].roundReached() == option) {
+          trees[i] = new TournamentStandingsTreeDto(null, null);
+        } else if (participants[i].entryNumber() == -1) {
+          trees[i] = new TournamentStandingsTreeDto(participants[i], null);
+        } else {
+          int newKey = participants[i].entryNumber();
+          while (participants[newKey].entryNumber() != -1) {
+            newKey = participants[newKey].entryNumber();
+          }
+          trees[i] = new TournamentStandingsTreeDto(participants[newKey].roundReached() == option ? null : participants[newKey], null);
+        }
+      }
+    }
+    while (trees.length > 1) {
+      TournamentStandingsTreeDto[] nextRound = new TournamentStandingsTreeDto[trees.length / 2];
+      for (int i = 0; i < nextRound.length; i++) {
+        TournamentStandingsTreeDto[] branches = {trees[i * 2], trees[i * 2 + 1]};
+        TournamentDetailParticipantDto first = branches[0].thisParticipant();
+        TournamentDetailParticipantDto second = branches[1].thisParticipant();
+        TournamentDetailParticipantDto winner = null;
+        if (first != null && second != null && first.roundReached() < second.roundReached()) {
+          winner = second;
+        } else if (first != null && second != null && first.roundReached() > second.roundReached()) {
+          winner = first;
+        }
+        nextRound[i] = new TournamentStandingsTreeDto(winner, branches);
+      }
+      trees = nextRound;
+    }
+    return trees[0];
+  }
+
+  @FunctionalInterface
+  private interface Action {
+    void run() throws IOException;
+  }
+}
@@ -5,6 +5,7 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 
 import at.ac.tuwien.sepr.assignment.individual.TestBase;
 import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
 import at.ac.tuwien.sepr.assignment.individual.entity.Horse;
@@ -14,6 +15,7 @@ import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
@@ -38,7 +40,7 @@ public class HorseDaoTest extends TestBase {
 
   @Test
   public void searchByBreedWelFindsThreeHorses() {
-    var searchDto = new HorseSearchDto(null, null, null, null, "Wel", null);
+    var searchDto = new HorseSearchDto(null, null, null, null, "Wel", null, null);
     var horses = horseDao.search(searchDto);
     assertNotNull(horses);
     assertThat(horses)
@@ -51,7 +53,8 @@ public class HorseDaoTest extends TestBase {
                 .setDateOfBirth(LocalDate.of(2018, 10, 10))
                 .setHeight(1.62f)
                 .setWeight(670)
-                .setBreedId(-19L),
+                .setBreedId(-19L)
+                .setBreedName("Welsh Cob"),
             (new Horse())
                 .setId(-21L)
                 .setName("Bella")
@@ -59,7 +62,8 @@ public class HorseDaoTest extends TestBase {
                 .setDateOfBirth(LocalDate.of(2003, 7, 6))
                 .setHeight(1.50f)
                 .setWeight(580)
-                .setBreedId(-19L),
+                .setBreedId(-19L)
+                .setBreedName("Welsh Cob"),
             (new Horse())
                 .setId(-2L)
                 .setName("Hugo")
@@ -67,7 +71,8 @@ public class HorseDaoTest extends TestBase {
                 .setDateOfBirth(LocalDate.of(2020, 2, 20))
                 .setHeight(1.20f)
                 .setWeight(320)
-                .setBreedId(-20L));
+                .setBreedId(-20L)
+                .setBreedName("Welsh Pony"));
   }
 
   @Test
@@ -75,7 +80,7 @@ public class HorseDaoTest extends TestBase {
     var searchDto = new HorseSearchDto(null, null,
         LocalDate.of(2017, 3, 5),
         LocalDate.of(2018, 10, 10),
-        null, null);
+        null, null, null);
     var horses = horseDao.search(searchDto);
     assertNotNull(horses);
     assertThat(horses)
@@ -89,7 +94,8 @@ public class HorseDaoTest extends TestBase {
                 .setDateOfBirth(LocalDate.of(2018, 8, 19))
                 .setHeight(1.42f)
                 .setWeight(480)
-                .setBreedId(-6L),
+                .setBreedId(-6L)
+                .setBreedName("Dartmoor Pony"),
             (new Horse())
                 .setId(-26L)
                 .setName("Daisy")
@@ -97,7 +103,8 @@ public class HorseDaoTest extends TestBase {
                 .setDateOfBirth(LocalDate.of(2017, 12, 1))
                 .setHeight(1.28f)
                 .setWeight(340)
-                .setBreedId(-9L),
+                .setBreedId(-9L)
+                .setBreedName("Hanoverian"),
             (new Horse())
                 .setId(-31L)
                 .setName("Leo")
@@ -105,7 +112,8 @@ public class HorseDaoTest extends TestBase {
                 .setDateOfBirth(LocalDate.of(2017, 3, 5))
                 .setHeight(1.70f)
                 .setWeight(720)
-                .setBreedId(-8L),
+                .setBreedId(-8L)
+                .setBreedName("Haflinger"),
             (new Horse())
                 .setId(-32L)
                 .setName("Luna")
@@ -113,7 +121,19 @@ public class HorseDaoTest extends TestBase {
                 .setDateOfBirth(LocalDate.of(2018, 10, 10))
                 .setHeight(1.62f)
                 .setWeight(670)
-                .setBreedId(-19L));
+                .setBreedId(-19L)
+                .setBreedName("Welsh Cob"));
+  }
+
+  @Test
+  public void searchByNameAndSexCombinesFiltersAndMatchesWildcardsLiterally() {
+    var bellas = horseDao.search(new HorseSearchDto("bEL", Sex.FEMALE, null, null, null, null, null));
+    assertThat(bellas)
+        .extracting(Horse::getId)
+        .containsExactlyInAnyOrder(-3L, -9L, -21L);
+
+    var wildcards = horseDao.search(new HorseSearchDto("_", null, null, null, null, null, null));
+    assertThat(wildcards).isEmpty();
   }
 
   @Test
@@ -178,6 +198,28 @@ public class HorseDaoTest extends TestBase {
                     .setWeight(720));
   }
 
+  @Test
+  public void findDuplicatesFindsStoredAndRepeatedHorsesByFingerprint() {
+    var stored = new HorseDetailDto(null, "Wendy", Sex.FEMALE, LocalDate.of(2019, 8, 5), 1.4f, 380, new BreedDto(-15L, null));
+    var storedWithOtherBreed = new HorseDetailDto(null, "Wendy", Sex.FEMALE, LocalDate.of(2019, 8, 5), 1.4f, 380, null);
+    var fresh = new HorseDetailDto(null, "Alex", Sex.MALE, LocalDate.of(2017, 3, 5), 1.70f, 720, null);
+
+    var duplicates = horseDao.findDuplicates(List.of(stored, storedWithOtherBreed, fresh, fresh));
+
+    assertThat(duplicates).containsExactlyInAnyOrder(0, 3);
+  }
+
+  @Test
+  public void insertedHorseIsReturnedWithTheNameOfItsBreed() throws ConflictException {
+    var insertHorse = new HorseDetailDto(null, "Alex", Sex.MALE,
+            LocalDate.of(2017, 3, 5),
+            1.70f, 720,
+            new BreedDto(-3L, null));
+    var horse = horseDao.insert(insertHorse);
+    assertThat(horse.getBreedId()).isEqualTo(-3L);
+    assertThat(horse.getBreedName()).isEqualTo("Arabian");
+  }
+
   @Test
   public void testDeleteHorseWithInvalidId() {
     assertThrows(NotFoundException.class, () -> {
@@ -0,0 +1,42 @@
+package at.ac.tuwien.sepr.assignment.individual.persistence;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.persistence.impl.StreamingJdbcTemplate;
+import java.sql.Connection;
+import java.sql.SQLException;
+import org.h2.engine.SessionLocal;
+import org.h2.jdbc.JdbcConnection;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Test class for the {@link StreamingJdbcTemplate} class.
+ */
+@ActiveProfiles({"test", "datagen"})
+// enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+@SpringBootTest
+public class StreamingJdbcTemplateTest extends TestBase {
+  @Autowired
+  StreamingJdbcTemplate streaming;
+
+  @Autowired
+  JdbcTemplate jdbcTemplate;
+
+  @Test
+  public void onlyTheStreamingTemplatesExecuteQueriesLazily() {
+    assertThat(streaming.getJdbcTemplate().execute((ConnectionCallback<Boolean>) StreamingJdbcTemplateTest::isLazy)).isTrue();
+    // the connection goes back to the pool with the setting switched off again
+    assertThat(jdbcTemplate.execute((ConnectionCallback<Boolean>) StreamingJdbcTemplateTest::isLazy)).isFalse();
+  }
+
+  private static boolean isLazy(Connection connection) throws SQLException {
+    // the setting is not listed in the information schema, only the session of the embedded database knows it
+    return ((SessionLocal) connection.unwrap(JdbcConnection.class).getSession()).isLazyQueryExecution();
+  }
+}
@@ -1,18 +1,29 @@
 package at.ac.tuwien.sepr.assignment.individual.persistence;
 
 import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSelectionDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.entity.MatchRecord;
 import at.ac.tuwien.sepr.assignment.individual.entity.Participant;
 import at.ac.tuwien.sepr.assignment.individual.entity.Tournament;
+import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 /**
  * Test class for the {@link TournamentDao} class.
@@ -39,6 +50,78 @@ public class TournamentDaoTest extends TestBase {
 
   }
 
+  @Test
+  public void insertingAnEqualTournamentIsAConflict() {
+    var tournament = new TournamentCreateDto("tournament1", LocalDate.of(2023, 12, 12), LocalDate.of(2023, 12, 13), new HorseSelectionDto[0]);
+    assertThrows(ConflictException.class, () -> tournamentDao.insert(tournament));
+  }
+
+  @Test
+  public void insertingATournamentWithAMissingHorseLeavesNoTournamentBehind() {
+    var tournament = new TournamentCreateDto("incomplete", LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 2), new HorseSelectionDto[] {
+        new HorseSelectionDto(-1L, "Wendy", LocalDate.of(2019, 8, 5)),
+        new HorseSelectionDto(999L, "Nobody", LocalDate.of(2019, 8, 5))
+    });
+    assertThrows(DataIntegrityViolationException.class, () -> tournamentDao.insert(tournament));
+    assertThat(tournamentDao.search(new TournamentSearchDto("incomplete", null, null, null, null))).isEmpty();
+  }
+
+  @Test
+  public void updatingAMissingParticipantLeavesTheOthersUnchanged() throws NotFoundException {
+    var participants = new TournamentDetailParticipantDto[] {
+        new TournamentDetailParticipantDto(-1L, -1L, "Wendy", LocalDate.of(2019, 8, 5), 0, 1),
+        new TournamentDetailParticipantDto(999L, -2L, "Hugo", LocalDate.of(2020, 2, 20), 1, 1)
+    };
+    assertThrows(NotFoundException.class, () -> tournamentDao.updateParticipants(-1L, 0L, participants));
+    assertThat(tournamentDao.getParticipantsByTournamentId(-1L))
+        .contains(new Participant(-1L, -1L, "Wendy", LocalDate.of(2019, 8, 5), -1, 3));
+  }
+
+  @Test
+  public void updatingParticipantsOfAnOutdatedVersionIsAConflict() throws NotFoundException, ValidationException, ConflictException {
+    var participants = Arrays.stream(tournamentDao.getParticipantsByTournamentId(-1L))
+        .map(p -> new TournamentDetailParticipantDto(p.getId(), p.getHorseId(), p.getName(), p.getDateOfBirth(), p.getEntryNumber(), p.getRoundReached()))
+        .toArray(TournamentDetailParticipantDto[]::new);
+
+    var saved = tournamentDao.updateParticipants(-1L, 0L, participants);
+
+    assertThat(saved.getVersion()).isEqualTo(1L);
+    assertThrows(ConflictException.class, () -> tournamentDao.updateParticipants(-1L, 0L, participants));
+    assertThat(tournamentDao.getTournamentById(-1L).getVersion()).isEqualTo(1L);
+  }
+
+  @Test
+  public void updatingOnlySomeParticipantsIsInvalidAndLeavesTheStandingsUnchanged() throws NotFoundException {
+    var participants = Arrays.stream(tournamentDao.getParticipantsByTournamentId(-1L))
+        .limit(2)
+        .map(p -> new TournamentDetailParticipantDto(p.getId(), p.getHorseId(), p.getName(), p.getDateOfBirth(), p.getEntryNumber(), 0))
+        .toArray(TournamentDetailParticipantDto[]::new);
+
+    assertThrows(ValidationException.class, () -> tournamentDao.updateParticipants(-1L, 0L, participants));
+    assertThrows(ValidationException.class, () -> tournamentDao.updateParticipants(-1L, 0L, new TournamentDetailParticipantDto[0]));
+    assertThat(tournamentDao.getParticipantsByTournamentId(-1L))
+        .extracting(Participant::getRoundReached)
+        .containsExactlyInAnyOrder(3, 1, 2, 1, 4, 1, 2, 1);
+    assertThat(tournamentDao.getTournamentById(-1L).getVersion()).isEqualTo(0L);
+  }
+
+  @Test
+  public void matchRecordsCountTheMatchesOfTournamentsEndedBeforeTheDate() {
+    assertThat(tournamentDao.findMatchRecords(List.of(-5L, -1L, -8L, -9L), LocalDate.of(2024, 1, 1)))
+        .containsExactlyInAnyOrder(new MatchRecord(-5L, 3, 0), new MatchRecord(-1L, 2, 1), new MatchRecord(-8L, 0, 1));
+    assertThat(tournamentDao.findMatchRecords(List.of(-5L, -1L), LocalDate.of(2023, 12, 13))).isEmpty();
+  }
+
+  @Test
+  public void searchByDatesFindsTournamentsOverlappingThePeriod() throws ConflictException {
+    // starts long before the period, so it is only found if the longest duration is taken into account
+    tournamentDao.insert(new TournamentCreateDto("season", LocalDate.of(2020, 1, 1), LocalDate.of(2023, 12, 31), new HorseSelectionDto[0]));
+    var found = tournamentDao.search(new TournamentSearchDto(null, LocalDate.of(2023, 12, 13), LocalDate.of(2023, 12, 20), null, null));
+    assertThat(found)
+        .extracting(Tournament::getName)
+        .containsExactly("tournament1", "season");
+  }
+
   @Test
   public void testGetParticipantsByTournamentIdWithValidId() throws NotFoundException {
     long id = -1L;
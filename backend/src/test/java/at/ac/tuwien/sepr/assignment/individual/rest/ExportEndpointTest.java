@@ -0,0 +1,109 @@
+package at.ac.tuwien.sepr.assignment.individual.rest;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.zip.GZIPInputStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.web.WebAppConfiguration;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.context.WebApplicationContext;
+import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+
+/**
+ * Test class for the {@link ExportEndpoint} class.
+ */
+@ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+@SpringBootTest
+@EnableWebMvc
+@WebAppConfiguration
+public class ExportEndpointTest extends TestBase {
+
+  @Autowired
+  private WebApplicationContext webAppContext;
+  private MockMvc mockMvc;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @BeforeEach
+  public void setup() {
+    this.mockMvc = MockMvcBuilders.webAppContextSetup(webAppContext).build();
+  }
+
+  @Test
+  public void exportingHorsesAsCsvWritesEveryHorseWithItsBreed() throws Exception {
+    String csv = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/exports/horses")
+            .accept(HorseEndpoint.CSV_VALUE))
+        .andExpect(status().isOk())
+        .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING))
+        .andReturn().getResponse().getContentAsString(StandardCharsets.UTF_8);
+
+    List<String> lines = csv.lines().toList();
+    assertThat(lines)
+        .hasSize(1 + 32)
+        .startsWith("id,name,sex,dateOfBirth,height,weight,breedId,breedName")
+        .contains("-32,Luna,FEMALE,2018-10-10,1.62,670.00,-19,Welsh Cob");
+  }
+
+  @Test
+  public void gzipIsOnlyUsedWithAQualityAboveZero() throws Exception {
+    for (String refused : List.of("gzip;q=0.0", "gzip; q=0.000, deflate", "gzip;Q=0")) {
+      mockMvc
+          .perform(MockMvcRequestBuilders
+              .get("/exports/tournaments")
+              .header(HttpHeaders.ACCEPT_ENCODING, refused))
+          .andExpect(status().isOk())
+          .andExpect(header().doesNotExist(HttpHeaders.CONTENT_ENCODING));
+    }
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/exports/tournaments")
+            .header(HttpHeaders.ACCEPT_ENCODING, "deflate, gzip;q=0.5"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"));
+  }
+
+  @Test
+  public void exportingParticipantsAsGzippedNdjsonWritesTheStandings() throws Exception {
+    var response = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/exports/participants")
+            .accept(HorseEndpoint.NDJSON_VALUE)
+            .header(HttpHeaders.ACCEPT_ENCODING, "gzip, deflate"))
+        .andExpect(status().isOk())
+        .andExpect(header().string(HttpHeaders.CONTENT_ENCODING, "gzip"))
+        .andReturn().getResponse();
+
+    byte[] ndjson;
+    try (var gzip = new GZIPInputStream(new ByteArrayInputStream(response.getContentAsByteArray()))) {
+      ndjson = gzip.readAllBytes();
+    }
+    List<JsonNode> participants = objectMapper.readerFor(JsonNode.class).<JsonNode>readValues(ndjson).readAll();
+    assertThat(participants).hasSize(40);
+    assertThat(participants)
+        .filteredOn(participant -> participant.get("horseId").asLong() == -32L && participant.get("tournamentId").asLong() == -5L)
+        .singleElement()
+        .satisfies(participant -> {
+          assertThat(participant.get("horseName").asText()).isEqualTo("Luna");
+          assertThat(participant.get("roundReached").isNumber()).isTrue();
+          assertThat(participant.get("entryNumber").asLong()).isEqualTo(-1L);
+        });
+  }
+}
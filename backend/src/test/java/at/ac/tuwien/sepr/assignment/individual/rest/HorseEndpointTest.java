@@ -6,19 +6,27 @@ import static org.junit.jupiter.api.Assertions.assertNotNull;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.CachesDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseImportResultDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
 import at.ac.tuwien.sepr.assignment.individual.service.HorseService;
+import at.ac.tuwien.sepr.assignment.individual.type.ImportStatus;
 import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.zip.GZIPOutputStream;
 
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.web.WebAppConfiguration;
@@ -40,6 +48,7 @@ public class HorseEndpointTest extends TestBase {
   @Autowired
   private WebApplicationContext webAppContext;
   private MockMvc mockMvc;
+  @Autowired
   private HorseService horseService;
 
   @Autowired
@@ -139,6 +148,151 @@ public class HorseEndpointTest extends TestBase {
                 "Welsh Cob"));
   }
 
+  @Test
+  public void pagingThroughAllHorsesWithCursorReturnsEveryHorseOnce() throws Exception {
+    var horses = new ArrayList<HorseListDto>();
+    String cursor = null;
+    int pages = 0;
+    do {
+      var request = MockMvcRequestBuilders
+          .get("/horses")
+          .queryParam("limit", "10")
+          .accept(MediaType.APPLICATION_JSON);
+      if (cursor != null) {
+        request.queryParam("cursor", cursor);
+      }
+      var response = mockMvc.perform(request)
+          .andExpect(status().isOk())
+          .andReturn().getResponse();
+      objectMapper.readerFor(HorseListDto.class)
+          .<HorseListDto>readValues(response.getContentAsByteArray())
+          .forEachRemaining(horses::add);
+      cursor = response.getHeader(PageCursor.NEXT_PAGE_HEADER);
+      pages++;
+    } while (cursor != null);
+
+    assertThat(pages).isEqualTo(4);
+    assertThat(horses)
+        .hasSize(32)
+        .extracting(HorseListDto::id)
+        .doesNotHaveDuplicates();
+    assertThat(horses)
+        .extracting(HorseListDto::name)
+        .isSorted();
+  }
+
+  @Test
+  public void streamingSearchReturnsSameHorsesAsSearch() throws Exception {
+    var searched = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses")
+            .queryParam("sex", "FEMALE")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    var streamed = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/stream")
+            .queryParam("sex", "FEMALE")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    List<HorseListDto> expected = objectMapper.readerFor(HorseListDto.class)
+        .<HorseListDto>readValues(searched).readAll();
+    List<HorseListDto> horses = objectMapper.readerFor(HorseListDto.class)
+        .<HorseListDto>readValues(streamed).readAll();
+    assertThat(horses)
+        .isNotEmpty()
+        .containsExactlyElementsOf(expected)
+        .extracting(HorseListDto::sex)
+        .containsOnly(Sex.FEMALE);
+  }
+
+  @Test
+  public void streamingSearchWithMalformedCursorReturns422() throws Exception {
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses/stream")
+            .queryParam("cursor", "not a cursor")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  public void importingNdjsonReportsEveryRecord() throws Exception {
+    String ndjson = String.join("\n",
+        "{\"name\": \"Comet\", \"sex\": \"MALE\", \"dateOfBirth\": \"2015-04-01\", \"height\": 1.6, \"weight\": 500, \"breed\": {\"id\": -3}}",
+        "{\"name\": \"Comet\", \"sex\": \"MALE\", \"dateOfBirth\": \"2015-04-01\", \"height\": 1.6, \"weight\": 500, \"breed\": {\"id\": -3}}",
+        "{\"name\": \"Wendy\", \"sex\": \"FEMALE\", \"dateOfBirth\": \"2019-08-05\", \"height\": 1.4, \"weight\": 380, \"breed\": {\"id\": -15}}",
+        "",
+        "{\"name\": \"Tiny\", \"sex\": \"FEMALE\", \"dateOfBirth\": \"2015-04-01\", \"height\": 0.2, \"weight\": 500}",
+        "{\"name\": \"Nobody\", \"sex\": \"FEMALE\", \"dateOfBirth\": \"2015-04-01\", \"height\": 1.2, \"weight\": 500, \"breed\": {\"id\": -999}}",
+        "not json");
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/horses/import")
+            .contentType(HorseEndpoint.NDJSON_VALUE)
+            .content(ndjson)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    List<HorseImportResultDto> results = objectMapper.readerFor(HorseImportResultDto.class)
+        .<HorseImportResultDto>readValues(body).readAll();
+    assertThat(results)
+        .extracting(HorseImportResultDto::line, HorseImportResultDto::status)
+        .containsExactly(
+            tuple(1L, ImportStatus.CREATED),
+            tuple(2L, ImportStatus.CONFLICT),
+            tuple(3L, ImportStatus.CONFLICT),
+            tuple(5L, ImportStatus.INVALID),
+            tuple(6L, ImportStatus.CONFLICT),
+            tuple(7L, ImportStatus.INVALID));
+    assertThat(horseService.getById(results.get(0).id()))
+        .extracting(HorseDetailDto::name, horse -> horse.breed().name())
+        .containsExactly("Comet", "Arabian");
+  }
+
+  @Test
+  public void importingGzippedCsvCreatesHorses() throws Exception {
+    String csv = String.join("\n",
+        "name,sex,dateOfBirth,height,weight,breedId",
+        "\"Star, the Second\",FEMALE,2016-05-05,1.5,450,-1",
+        "Blaze,MALE,2014-01-01,1.7,600,");
+    var compressed = new ByteArrayOutputStream();
+    try (var gzip = new GZIPOutputStream(compressed)) {
+      gzip.write(csv.getBytes(StandardCharsets.UTF_8));
+    }
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .post("/horses/import")
+            .contentType(HorseEndpoint.CSV_VALUE)
+            .header(HttpHeaders.CONTENT_ENCODING, "gzip")
+            .content(compressed.toByteArray())
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+
+    List<HorseImportResultDto> results = objectMapper.readerFor(HorseImportResultDto.class)
+        .<HorseImportResultDto>readValues(body).readAll();
+    assertThat(results)
+        .extracting(HorseImportResultDto::line, HorseImportResultDto::status)
+        .containsExactly(tuple(2L, ImportStatus.CREATED), tuple(3L, ImportStatus.CREATED));
+    assertThat(horseService.getById(results.get(0).id()).name()).isEqualTo("Star, the Second");
+    assertThat(horseService.getById(results.get(1).id()).breed()).isNull();
+  }
+
+  @Test
+  public void searchWithMalformedCursorReturns422() throws Exception {
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses")
+            .queryParam("cursor", "not a cursor")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
   @Test
   public void testInsertWithValidData() throws Exception {
     HorseDetailDto insertHorse = new HorseDetailDto(null, "Alex", Sex.MALE,
@@ -209,6 +363,28 @@ public class HorseEndpointTest extends TestBase {
     assertNotNull(horseResult);
   }
 
+  @Test
+  public void cacheCountersCountTheHorseSearches() throws Exception {
+    // the counters of the caches are not reset between tests
+    long missesBefore = horseService.searchCacheStats().misses();
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/horses")
+            .queryParam("name", "cache counters")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk());
+
+    byte[] body = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/caches")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse().getContentAsByteArray();
+    var caches = objectMapper.readValue(body, CachesDto.class);
+    assertThat(caches.horseSearch().misses()).isEqualTo(missesBefore + 1);
+    assertThat(caches.breedHitRate()).isBetween(0.0, 1.0);
+    assertThat(caches.standings()).isNotNull();
+  }
   private String stringAsJson(final Object o) {
     try {
       return objectMapper.writeValueAsString(o);
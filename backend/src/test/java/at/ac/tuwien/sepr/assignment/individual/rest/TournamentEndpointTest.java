@@ -3,8 +3,15 @@ package at.ac.tuwien.sepr.assignment.individual.rest;
 import at.ac.tuwien.sepr.assignment.individual.TestBase;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.TournamentListDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentMatchResultDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantsDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepr.assignment.individual.service.HorseService;
 import at.ac.tuwien.sepr.assignment.individual.service.TournamentService;
 import at.ac.tuwien.sepr.assignment.individual.type.Sex;
@@ -13,20 +20,27 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.context.web.WebAppConfiguration;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockMvcRequestBuilders;
 import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
 import org.springframework.web.context.WebApplicationContext;
 import org.springframework.web.servlet.config.annotation.EnableWebMvc;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.time.LocalDate;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.tuple;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 /**
@@ -41,8 +55,12 @@ public class TournamentEndpointTest extends TestBase {
   @Autowired
   private WebApplicationContext webAppContext;
   private MockMvc mockMvc;
+  @Autowired
   private TournamentService tournamentService;
 
+  @Autowired
+  private StandingsSubscriptions subscriptions;
+
   @Autowired
   ObjectMapper objectMapper;
 
@@ -79,6 +97,210 @@ public class TournamentEndpointTest extends TestBase {
            tuple(-1L, "tournament1", LocalDate.of(2023, 12, 12), LocalDate.of(2023, 12, 13)));
   }
 
+  @Test
+  public void searchWithLimitReturnsLatestTournamentsAndCursorToTheRest() throws Exception {
+    var firstPage = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments")
+            .queryParam("limit", "3")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse();
+
+    List<TournamentListDto> first = objectMapper.readerFor(TournamentListDto.class)
+        .<TournamentListDto>readValues(firstPage.getContentAsByteArray()).readAll();
+    assertThat(first)
+        .extracting(TournamentListDto::id)
+        .containsExactly(-1L, -5L, -4L);
+
+    var cursor = firstPage.getHeader(PageCursor.NEXT_PAGE_HEADER);
+    assertThat(cursor).isNotNull();
+
+    var secondPage = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments")
+            .queryParam("limit", "3")
+            .queryParam("cursor", cursor)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse();
+
+    List<TournamentListDto> second = objectMapper.readerFor(TournamentListDto.class)
+        .<TournamentListDto>readValues(secondPage.getContentAsByteArray()).readAll();
+    assertThat(second)
+        .extracting(TournamentListDto::id)
+        .containsExactly(-2L, -3L);
+    assertThat(secondPage.getHeader(PageCursor.NEXT_PAGE_HEADER)).isNull();
+  }
+
+  @Test
+  public void standingsAreSentAgainOnlyWhenTheirVersionChanged() throws Exception {
+    var response = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/-1")
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isOk())
+        .andReturn().getResponse();
+    var standings = objectMapper.readTree(response.getContentAsByteArray());
+    assertThat(standings.get("id").asLong()).isEqualTo(-1L);
+    assertThat(standings.get("participants")).hasSize(8);
+    assertThat(standings.get("tree").get("branches")).hasSize(2);
+
+    // the tag is the version of the tournament, so it does not change when the cached standings are loaded again
+    var entityTag = response.getHeader(HttpHeaders.ETAG);
+    assertThat(entityTag).isEqualTo("\"" + standings.get("version").asLong() + "\"");
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/-1")
+            .header(HttpHeaders.IF_NONE_MATCH, entityTag)
+            .accept(MediaType.APPLICATION_JSON))
+        .andExpect(status().isNotModified());
+  }
+
+  @Test
+  public void savingStandingsOfAnOutdatedVersionReturnsTheCurrentStandings() throws Exception {
+    var standings = tournamentService.getStandings(-2L);
+    var update = new TournamentUpdateParticipantsDto(standings.participants(), standings.version());
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(stringAsJson(update)))
+        .andExpect(status().isOk());
+
+    var conflict = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(stringAsJson(update)))
+        .andExpect(status().isConflict())
+        .andReturn().getResponse();
+    var current = objectMapper.readTree(conflict.getContentAsByteArray());
+    assertThat(current.get("version").asLong()).isEqualTo(standings.version() + 1);
+    assertThat(current.get("participants")).hasSize(8);
+  }
+
+  @Test
+  public void savingStandingsGivingAParticipantTwiceIsUnprocessable() throws Exception {
+    var standings = tournamentService.getStandings(-2L);
+    var participants = standings.participants().clone();
+    participants[1] = participants[0];
+    var invalid = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-2")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(stringAsJson(new TournamentUpdateParticipantsDto(participants, standings.version()))))
+        .andExpect(status().isUnprocessableEntity())
+        .andReturn().getResolvedException();
+    assertThat(invalid).hasMessageContaining("every participant must be given only once");
+    assertThat(tournamentService.getStandings(-2L).version()).isEqualTo(standings.version());
+  }
+
+  @Test
+  public void recordingTheWinnerOfAMatchNotDrawnYetIsAConflict() throws Exception {
+    var drawn = tournamentService.generateFirstRound(-2L).participants();
+    var result = stringAsJson(new TournamentMatchResultDto(drawn[0].id()));
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-2/matches/1/0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(result))
+        .andExpect(status().isConflict());
+
+    tournamentService.saveStanding(new TournamentUpdateParticipantsDto(drawn, tournamentService.getStandings(-2L).version()), -2L);
+    var standings = mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-2/matches/1/0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(result))
+        .andExpect(status().isOk())
+        .andReturn().getResponse();
+    var winner = objectMapper.readTree(standings.getContentAsByteArray()).get("tree").get("branches").get(0).get("branches").get(0);
+    assertThat(winner.get("thisParticipant").get("id").asLong()).isEqualTo(drawn[0].id());
+
+    mockMvc
+        .perform(MockMvcRequestBuilders
+            .put("/tournaments/standings/-2/matches/0/0")
+            .contentType(MediaType.APPLICATION_JSON)
+            .content(result))
+        .andExpect(status().isUnprocessableEntity());
+  }
+
+  @Test
+  public void followersOfTheStandingsReceiveTheChangeOfEverySave() throws Exception {
+    var stream = mockMvc
+        .perform(MockMvcRequestBuilders
+            .get("/tournaments/standings/-1/events")
+            .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(request().asyncStarted())
+        .andReturn().getResponse();
+
+    // Luna is knocked out in round 2 instead of winning
+    var participants = Arrays.stream(tournamentService.getStandings(-1L).participants())
+        .map(p -> p.horseId() != -5L ? p : new TournamentDetailParticipantDto(p.id(), p.horseId(), p.name(), p.dateOfBirth(), p.entryNumber(), 2))
+        .toArray(TournamentDetailParticipantDto[]::new);
+    tournamentService.saveStanding(new TournamentUpdateParticipantsDto(participants, tournamentService.getStandings(-1L).version()), -1L);
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!stream.getContentAsString().contains("event:delta") && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    var events = stream.getContentAsString();
+    assertThat(events).startsWith("event:standings\ndata:{\"id\":-1,");
+    var deltaData = events.substring(events.indexOf("data:", events.indexOf("event:delta")) + "data:".length());
+    var delta = objectMapper.readTree(deltaData.lines().findFirst().orElseThrow());
+    assertThat(delta.get("version").asLong()).isEqualTo(1L);
+    assertThat(delta.get("participants")).hasSize(1);
+    assertThat(delta.get("participants").get(0).get("roundReached").asInt()).isEqualTo(2);
+  }
+
+  @Test
+  public void savesWhileFollowingStartsAreSentAfterTheStandings() throws Exception {
+    // the save happens after the standings the stream starts with are read, and before they are sent
+    var joining = MockMvcBuilders.standaloneSetup(new JoiningEndpoint(() -> {
+      var standings = tournamentService.getStandingsJson(-1L).json();
+      var participants = Arrays.stream(tournamentService.getStandings(-1L).participants())
+          .map(p -> p.horseId() != -5L ? p : new TournamentDetailParticipantDto(p.id(), p.horseId(), p.name(), p.dateOfBirth(), p.entryNumber(), 2))
+          .toArray(TournamentDetailParticipantDto[]::new);
+      try {
+        tournamentService.saveStanding(new TournamentUpdateParticipantsDto(participants, tournamentService.getStandings(-1L).version()), -1L);
+      } catch (ConflictException e) {
+        throw new IllegalStateException(e);
+      }
+      return standings;
+    })).build();
+    var stream = joining
+        .perform(MockMvcRequestBuilders
+            .get("/joining")
+            .accept(MediaType.TEXT_EVENT_STREAM))
+        .andExpect(request().asyncStarted())
+        .andReturn().getResponse();
+
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+    while (!stream.getContentAsString().contains("event:delta") && System.nanoTime() < deadline) {
+      Thread.sleep(10);
+    }
+    var events = stream.getContentAsString();
+    assertThat(events).startsWith("event:standings\ndata:{\"id\":-1,");
+    assertThat(events).contains("event:delta\nid:1\n");
+  }
+
+  /**
+   * Opens a stream of the standings of tournament -1, reading its standings with the given reader.
+   */
+  @RestController
+  private final class JoiningEndpoint {
+    private final StandingsSubscriptions.StandingsReader standings;
+
+    private JoiningEndpoint(StandingsSubscriptions.StandingsReader standings) {
+      this.standings = standings;
+    }
+
+    @GetMapping("/joining")
+    public SseEmitter join() throws NotFoundException, ValidationException {
+      return subscriptions.subscribe(-1L, standings);
+    }
+  }
 
   private String stringAsJson(final Object o) {
     try {
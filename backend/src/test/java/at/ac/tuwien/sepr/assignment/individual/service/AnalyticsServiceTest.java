@@ -0,0 +1,75 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.ParticipationStatsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.ParticipationStatsSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantsDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import at.ac.tuwien.sepr.assignment.individual.type.ParticipationGrouping;
+import at.ac.tuwien.sepr.assignment.individual.type.Sex;
+import java.time.LocalDate;
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Test class for the {@link AnalyticsServiceImpl} class.
+ */
+@ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+@SpringBootTest
+public class AnalyticsServiceTest extends TestBase {
+
+  @Autowired
+  AnalyticsService analyticsService;
+
+  @Autowired
+  TournamentService tournamentService;
+
+  @Autowired
+  HorseService horseService;
+
+  @Test
+  public void participationsOfTheFirstTournamentCountItsMatches() throws ValidationException {
+    var stats = analyticsService.participationStats(
+        new ParticipationStatsSearchDto(ParticipationGrouping.SEASON, null, null, LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 31))).toList();
+
+    // rounds 3, 1, 2, 1, 4, 1, 2, 1: seven matches won, and everyone but the winner lost one
+    assertThat(stats).containsExactly(new ParticipationStatsDto("2023", 8, 14, 7, 0.5));
+  }
+
+  @Test
+  public void reportsFollowSavedStandingsAndUpdatedHorses() throws ValidationException, NotFoundException, ConflictException {
+    // Luna is knocked out in round 2 instead of winning, so the final of the tournament is round 3
+    var participants = Arrays.stream(tournamentService.getStandings(-1L).participants())
+        .map(p -> p.horseId() != -5L ? p : new TournamentDetailParticipantDto(p.id(), p.horseId(), p.name(), p.dateOfBirth(), p.entryNumber(), 2))
+        .toArray(TournamentDetailParticipantDto[]::new);
+    tournamentService.saveStanding(new TournamentUpdateParticipantsDto(participants, tournamentService.getStandings(-1L).version()), -1L);
+    var luna = horseService.getById(-5L);
+    var sex = luna.sex() == Sex.MALE ? Sex.FEMALE : Sex.MALE;
+    horseService.update(new HorseDetailDto(luna.id(), luna.name(), sex, luna.dateOfBirth(), luna.height(), luna.weight(), luna.breed()));
+
+    var search = new ParticipationStatsSearchDto(ParticipationGrouping.SEX, null, sex, LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 31));
+    var incremental = analyticsService.participationStats(search).toList();
+    analyticsService.rebuildParticipationStats();
+    var rebuilt = analyticsService.participationStats(search).toList();
+
+    assertThat(incremental).isEqualTo(rebuilt);
+    assertThat(analyticsService.participationStats(
+        new ParticipationStatsSearchDto(ParticipationGrouping.SEASON, null, null, LocalDate.of(2023, 12, 1), LocalDate.of(2023, 12, 31))))
+        .containsExactly(new ParticipationStatsDto("2023", 8, 12, 5, 5 / 12.0));
+  }
+
+  @Test
+  public void reportWithoutGroupingIsNotValid() {
+    assertThrows(ValidationException.class, () -> analyticsService.participationStats(new ParticipationStatsSearchDto(null, null, null, null, null)));
+  }
+}
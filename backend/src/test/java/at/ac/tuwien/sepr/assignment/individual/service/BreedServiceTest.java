@@ -0,0 +1,53 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.BreedSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.PageCursor;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Test class for the {@link BreedServiceImpl} class.
+ */
+@ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+@SpringBootTest
+public class BreedServiceTest extends TestBase {
+
+  @Autowired
+  BreedService breedService;
+
+  @Test
+  public void searchByNamePagesThroughMatchingBreedsInOrder() throws ValidationException {
+    var firstPage = breedService.search(new BreedSearchDto("pony", 2, null)).toList();
+    assertThat(firstPage)
+        .extracting(BreedDto::id, BreedDto::name)
+        .containsExactly(tuple(-5L, "Connemara Pony"), tuple(-6L, "Dartmoor Pony"));
+
+    var last = firstPage.get(1);
+    var secondPage = breedService.search(new BreedSearchDto("pony", 2, new PageCursor(last.name(), last.id()).encode())).toList();
+    assertThat(secondPage)
+        .extracting(BreedDto::id, BreedDto::name)
+        .containsExactly(tuple(-15L, "Shetland Pony"), tuple(-20L, "Welsh Pony"));
+  }
+
+  @Test
+  public void findingExistingBreedsByIdsIsCountedAsHits() {
+    breedService.findBreedsByIds(Set.of(-1L));
+    double hitRateBefore = breedService.cacheHitRate();
+
+    var breeds = breedService.findBreedsByIds(Set.of(-1L, -3L, -11L)).toList();
+
+    assertThat(breeds)
+        .extracting(BreedDto::name)
+        .containsExactlyInAnyOrder("Andalusian", "Arabian", "Lipizzaner");
+    assertThat(breedService.cacheHitRate()).isGreaterThanOrEqualTo(hitRateBefore);
+  }
+}
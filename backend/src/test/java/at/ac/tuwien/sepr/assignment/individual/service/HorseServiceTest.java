@@ -8,12 +8,15 @@ import at.ac.tuwien.sepr.assignment.individual.TestBase;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseDetailDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseListDto;
 import at.ac.tuwien.sepr.assignment.individual.dto.HorseSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseStatsDto;
 import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
 import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
 import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
 import at.ac.tuwien.sepr.assignment.individual.rest.HorseEndpoint;
 import at.ac.tuwien.sepr.assignment.individual.type.Sex;
 import java.time.LocalDate;
+import java.util.List;
+import java.util.stream.LongStream;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -31,8 +34,8 @@ public class HorseServiceTest extends TestBase {
   HorseService horseService;
 
   @Test
-  public void searchByBreedWelFindsThreeHorses() {
-    var searchDto = new HorseSearchDto(null, null, null, null, "Wel", null);
+  public void searchByBreedWelFindsThreeHorses() throws ValidationException {
+    var searchDto = new HorseSearchDto(null, null, null, null, "Wel", null, null);
     var horses = horseService.search(searchDto);
     assertNotNull(horses);
     // We don't have height and weight of the horses here, so no reason to test for them.
@@ -47,11 +50,11 @@ public class HorseServiceTest extends TestBase {
   }
 
   @Test
-  public void searchByBirthDateBetween2017And2018ReturnsFourHorses() {
+  public void searchByBirthDateBetween2017And2018ReturnsFourHorses() throws ValidationException {
     var searchDto = new HorseSearchDto(null, null,
         LocalDate.of(2017, 3, 5),
         LocalDate.of(2018, 10, 10),
-        null, null);
+        null, null, null);
     var horses = horseService.search(searchDto);
     assertNotNull(horses);
     assertThat(horses)
@@ -68,6 +71,65 @@ public class HorseServiceTest extends TestBase {
                 "Welsh Cob"));
   }
 
+  @Test
+  public void searchByNameFollowsInsertUpdateAndDelete() throws ValidationException, ConflictException, NotFoundException {
+    var byName = new HorseSearchDto("orr", null, null, null, null, null, null);
+    HorseDetailDto insertHorse = new HorseDetailDto(null, "Zorro", Sex.MALE,
+            LocalDate.of(2017, 3, 5),
+            1.70f, 720,
+            null);
+    var horse = horseService.insert(insertHorse);
+    assertThat(horseService.search(byName))
+        .extracting(HorseListDto::name)
+        .containsExactly("Zorro");
+
+    horseService.update(new HorseDetailDto(horse.id(), "Zeus", Sex.MALE,
+            LocalDate.of(2017, 3, 5),
+            1.70f, 720,
+            null));
+    assertThat(horseService.search(byName)).isEmpty();
+    assertThat(horseService.search(new HorseSearchDto("zeu", null, null, null, null, null, null)))
+        .extracting(HorseListDto::id)
+        .containsExactly(horse.id());
+
+    horseService.delete(horse.id());
+    assertThat(horseService.search(new HorseSearchDto("zeu", null, null, null, null, null, null))).isEmpty();
+  }
+
+  @Test
+  public void repeatedSearchIsAnsweredFromCacheUntilAHorseIsInserted() throws ValidationException, ConflictException {
+    var first = horseService.search(new HorseSearchDto("bel", Sex.FEMALE, null, null, null, null, null)).toList();
+    var before = horseService.searchCacheStats();
+    // differs only in case, so it is the same search
+    var second = horseService.search(new HorseSearchDto("BEL", Sex.FEMALE, null, null, null, null, null)).toList();
+    var after = horseService.searchCacheStats();
+    assertThat(second).isEqualTo(first);
+    assertThat(after.hits()).isEqualTo(before.hits() + 1);
+    assertThat(after.misses()).isEqualTo(before.misses());
+
+    horseService.insert(new HorseDetailDto(null, "Belinda", Sex.FEMALE,
+            LocalDate.of(2017, 3, 5),
+            1.70f, 720,
+            null));
+    assertThat(horseService.search(new HorseSearchDto("bel", Sex.FEMALE, null, null, null, null, null)))
+        .extracting(HorseListDto::name)
+        .hasSize(first.size() + 1)
+        .contains("Belinda");
+    assertThat(horseService.searchCacheStats().misses()).isEqualTo(after.misses() + 1);
+  }
+
+  @Test
+  public void careersOfManyHorsesAreReadTogetherAndLeaveOutUnknownHorses() throws ValidationException, NotFoundException {
+    var stats = horseService.getStats(List.of(-5L, -999L, -20L)).toList();
+
+    assertThat(stats).extracting(HorseStatsDto::horseId).containsExactly(-5L, -20L);
+    assertThat(stats.get(1).tournaments()).isZero();
+    assertThat(stats.get(1).firstTournament()).isNull();
+    assertThat(horseService.getStats(-5L)).isEqualTo(stats.get(0));
+    assertThrows(NotFoundException.class, () -> horseService.getStats(-999L));
+    assertThrows(ValidationException.class, () -> horseService.getStats(LongStream.range(0, 1001).boxed().toList()));
+  }
+
   @Test
   public void testInsertWithLongName() {
     HorseDetailDto horseForInsert = new HorseDetailDto(32L, "a".repeat(256), Sex.MALE,
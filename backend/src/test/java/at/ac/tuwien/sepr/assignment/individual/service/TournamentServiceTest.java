@@ -0,0 +1,308 @@
+package at.ac.tuwien.sepr.assignment.individual.service;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
+import static org.assertj.core.api.Assertions.within;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import at.ac.tuwien.sepr.assignment.individual.TestBase;
+import at.ac.tuwien.sepr.assignment.individual.dto.HeadToHeadDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseRatingDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseRatingSearchDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.HorseSelectionDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentCreateDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentDetailParticipantDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentMatchResultDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentSimulationParamsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentStandingsDto;
+import at.ac.tuwien.sepr.assignment.individual.dto.TournamentUpdateParticipantsDto;
+import at.ac.tuwien.sepr.assignment.individual.exception.ConflictException;
+import at.ac.tuwien.sepr.assignment.individual.exception.NotFoundException;
+import at.ac.tuwien.sepr.assignment.individual.exception.ValidationException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.LongStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Test class for the {@link TournamentServiceImpl} class.
+ */
+@ActiveProfiles({"test", "datagen"}) // enable "test" spring profile during test execution in order to pick up configuration from application-test.yml
+@SpringBootTest
+public class TournamentServiceTest extends TestBase {
+
+  @Autowired
+  TournamentService tournamentService;
+
+  @Autowired
+  HorseService horseService;
+
+  @Autowired
+  FormPointsLedger formPoints;
+
+  @Autowired
+  ObjectMapper objectMapper;
+
+  @Test
+  public void firstRoundIsSeededByThePointsOfTheLastTwelveMonths() throws NotFoundException, ValidationException {
+    var standings = tournamentService.generateFirstRound(-1L);
+    assertThat(standings.participants())
+        .extracting(TournamentDetailParticipantDto::name)
+        .containsExactly("Luna", "Thunder", "Rocky", "Apollo", "Wendy", "Max", "Bella", "Hugo");
+  }
+
+  @Test
+  public void savedStandingsUpdateTheFormPointsOfTheHorse() throws NotFoundException, ValidationException, ConflictException {
+    assertThat(formPoints.formPoints(-5L, LocalDate.of(2023, 12, 31))).isEqualTo(5);
+
+    // Luna is knocked out in round 2 instead of winning
+    var participants = Arrays.stream(tournamentService.getStandings(-1L).participants())
+        .map(p -> p.horseId() != -5L ? p : new TournamentDetailParticipantDto(p.id(), p.horseId(), p.name(), p.dateOfBirth(), p.entryNumber(), 2))
+        .toArray(TournamentDetailParticipantDto[]::new);
+    saveStanding(-1L, participants);
+
+    assertThat(formPoints.formPoints(-5L, LocalDate.of(2023, 12, 31))).isEqualTo(1);
+    // the tournament ended on 2023-12-13, so it does not count any more 12 months later
+    assertThat(formPoints.formPoints(-5L, LocalDate.of(2024, 12, 13))).isEqualTo(0);
+  }
+
+  @Test
+  public void careerOfAHorseFollowsTheSavedStandings() throws NotFoundException, ValidationException, ConflictException {
+    var before = horseService.getStats(-5L);
+    assertThat(before.tournaments()).isEqualTo(1);
+    assertThat(before.bestRound()).isEqualTo(4);
+    assertThat(before.matchesWon()).isEqualTo(3);
+    assertThat(before.firstTournament()).isEqualTo(LocalDate.of(2023, 12, 12));
+
+    var participants = Arrays.stream(tournamentService.getStandings(-1L).participants())
+        .map(p -> p.horseId() != -5L ? p : new TournamentDetailParticipantDto(p.id(), p.horseId(), p.name(), p.dateOfBirth(), p.entryNumber(), 2))
+        .toArray(TournamentDetailParticipantDto[]::new);
+    saveStanding(-1L, participants);
+
+    var after = horseService.getStats(-5L);
+    assertThat(after.bestRound()).isEqualTo(2);
+    assertThat(after.matchesWon()).isEqualTo(1);
+  }
+
+  @Test
+  public void standingsAreCachedUntilTheyAreSaved() throws Exception {
+    // the counters of the cache are not reset between tests
+    long missesBefore = tournamentService.standingsCacheStats().misses();
+    var first = tournamentService.getStandingsJson(-2L);
+    var second = tournamentService.getStandingsJson(-2L);
+    assertThat(second.version()).isEqualTo(first.version());
+    assertThat(second.json()).isSameAs(first.json());
+
+    var saved = saveStanding(-2L, tournamentService.getStandings(-2L).participants());
+
+    var afterSave = tournamentService.getStandingsJson(-2L);
+    assertThat(afterSave.version()).isGreaterThan(first.version());
+    assertThat(afterSave.json()).isEqualTo(objectMapper.writeValueAsBytes(saved));
+    assertThat(tournamentService.standingsCacheStats().misses() - missesBefore).isEqualTo(1);
+  }
+
+  @Test
+  public void fullStandingsCacheEvictsTheOldestStandings() throws NotFoundException, ValidationException {
+    var first = tournamentService.getStandings(-1L);
+    var second = tournamentService.getStandings(-2L);
+    var third = tournamentService.getStandings(-3L);
+    var cache = new StandingsCache(objectMapper.writer(), 2, Long.MAX_VALUE);
+    cache.get(-1L, () -> first);
+    cache.get(-2L, () -> second);
+    // reading the older standings again does not make them any younger
+    cache.get(-1L, () -> first);
+    cache.get(-3L, () -> third);
+
+    assertThat(cache.cached(-1L)).isNull();
+    assertThat(cache.cached(-2L)).isNotNull();
+    assertThat(cache.cached(-3L)).isNotNull();
+    assertThat(cache.stats().evictions()).isEqualTo(1);
+  }
+
+  @Test
+  public void recordingAMatchMovesOnlyItsWinnerOn() throws NotFoundException, ValidationException, ConflictException {
+    var drawn = tournamentService.generateFirstRound(-2L).participants();
+    saveStanding(-2L, drawn);
+
+    var standings = tournamentService.recordMatchResult(-2L, 1, 0, new TournamentMatchResultDto(drawn[1].id()));
+
+    assertThat(roundsByEntryNumber(standings)).containsExactly(1, 2, 0, 0, 0, 0, 0, 0);
+    assertThat(standings.tree().toTree().branches()[0].branches()[0].thisParticipant().id()).isEqualTo(drawn[1].id());
+    // the winner of the other match of the semi-final is not known yet
+    assertThrows(ConflictException.class, () -> tournamentService.recordMatchResult(-2L, 2, 0, new TournamentMatchResultDto(drawn[1].id())));
+    assertThrows(ConflictException.class, () -> tournamentService.recordMatchResult(-2L, 1, 1, new TournamentMatchResultDto(drawn[1].id())));
+
+    // a result can be corrected, as long as the next match has not been played
+    standings = tournamentService.recordMatchResult(-2L, 1, 0, new TournamentMatchResultDto(drawn[0].id()));
+    tournamentService.recordMatchResult(-2L, 1, 1, new TournamentMatchResultDto(drawn[3].id()));
+    standings = tournamentService.recordMatchResult(-2L, 2, 0, new TournamentMatchResultDto(drawn[3].id()));
+    assertThat(roundsByEntryNumber(standings)).containsExactly(2, 1, 1, 3, 0, 0, 0, 0);
+    assertThrows(ConflictException.class, () -> tournamentService.recordMatchResult(-2L, 1, 0, new TournamentMatchResultDto(drawn[1].id())));
+  }
+
+  @Test
+  public void matchesDecidedBySavingTheStandingsAreKnownToTheNextMatch() throws NotFoundException, ValidationException, ConflictException {
+    var drawn = tournamentService.generateFirstRound(-3L).participants();
+    var played = Arrays.stream(drawn)
+        .map(p -> new TournamentDetailParticipantDto(p.id(), p.horseId(), p.name(), p.dateOfBirth(), p.entryNumber(),
+            p.entryNumber() < 2 ? 2 - p.entryNumber() : 0))
+        .toArray(TournamentDetailParticipantDto[]::new);
+    saveStanding(-3L, played);
+
+    tournamentService.recordMatchResult(-3L, 1, 1, new TournamentMatchResultDto(drawn[2].id()));
+    var standings = tournamentService.recordMatchResult(-3L, 2, 0, new TournamentMatchResultDto(drawn[2].id()));
+
+    assertThat(roundsByEntryNumber(standings)).containsExactly(2, 1, 3, 1, 0, 0, 0, 0);
+  }
+
+  @Test
+  public void ratingsFollowTheRecordedMatchesAndEqualAReplayOfThem() throws NotFoundException, ValidationException, ConflictException {
+    var drawn = tournamentService.generateFirstRound(-2L).participants();
+    saveStanding(-2L, drawn);
+    tournamentService.recordMatchResult(-2L, 1, 0, new TournamentMatchResultDto(drawn[0].id()));
+    tournamentService.recordMatchResult(-2L, 1, 1, new TournamentMatchResultDto(drawn[2].id()));
+    tournamentService.recordMatchResult(-2L, 2, 0, new TournamentMatchResultDto(drawn[0].id()));
+
+    var leaderboard = tournamentService.leaderboard(new HorseRatingSearchDto(null, null, null)).toList();
+    assertThat(leaderboard).hasSize(4);
+    assertThat(leaderboard.get(0).horseId()).isEqualTo(drawn[0].horseId());
+    assertThat(leaderboard.get(0).matches()).isEqualTo(2);
+    assertThat(leaderboard).extracting(HorseRatingDto::rating).isSortedAccordingTo(Comparator.reverseOrder());
+    assertThat(leaderboard.stream().mapToDouble(HorseRatingDto::rating).sum()).isCloseTo(4 * HorseRatings.INITIAL_RATING, within(1e-9));
+
+    assertThat(tournamentService.rebuildRatings()).isEqualTo(4);
+    assertThat(tournamentService.leaderboard(new HorseRatingSearchDto(null, null, null)).toList()).isEqualTo(leaderboard);
+    var sex = leaderboard.get(0).sex();
+    assertThat(tournamentService.leaderboard(new HorseRatingSearchDto(null, sex, 1)).toList()).containsExactly(leaderboard.get(0));
+  }
+
+  @Test
+  public void headToHeadRecordsFollowTheRecordedMatches() throws NotFoundException, ValidationException, ConflictException {
+    var drawn = tournamentService.generateFirstRound(-2L).participants();
+    saveStanding(-2L, drawn);
+    tournamentService.recordMatchResult(-2L, 1, 0, new TournamentMatchResultDto(drawn[1].id()));
+
+    var opponents = List.of(drawn[0].horseId(), drawn[2].horseId());
+    assertThat(tournamentService.headToHead(drawn[1].horseId(), opponents))
+        .extracting(HeadToHeadDto::opponentId, HeadToHeadDto::wins, HeadToHeadDto::losses)
+        .containsExactly(tuple(drawn[0].horseId(), 1, 0), tuple(drawn[2].horseId(), 0, 0));
+
+    // a corrected result replaces the earlier one
+    tournamentService.recordMatchResult(-2L, 1, 0, new TournamentMatchResultDto(drawn[0].id()));
+    assertThat(tournamentService.headToHead(drawn[1].horseId(), opponents).findFirst().orElseThrow())
+        .isEqualTo(new HeadToHeadDto(drawn[1].horseId(), drawn[0].horseId(), 0, 1));
+
+    // saving the drawn bracket again leaves no match decided
+    saveStanding(-2L, drawn);
+    assertThat(tournamentService.headToHead(drawn[0].horseId(), List.of(drawn[1].horseId())).findFirst().orElseThrow())
+        .isEqualTo(new HeadToHeadDto(drawn[0].horseId(), drawn[1].horseId(), 0, 0));
+  }
+
+  @Test
+  public void simulationGivesEveryRoundAsManyHorsesAsTheBracketAllows() throws NotFoundException, ValidationException {
+    var simulation = tournamentService.simulate(-2L, new TournamentSimulationParamsDto(200_000L, 10_000L));
+
+    assertThat(simulation.iterations()).isEqualTo(200_000L);
+    assertThat(simulation.entrants()).hasSize(8);
+    for (int round = 1; round <= 4; round++) {
+      int index = round - 1;
+      assertThat(Arrays.stream(simulation.entrants()).mapToDouble(entrant -> entrant.reachingRound()[index]).sum())
+          .isCloseTo(8 >> index, within(1e-9));
+    }
+    assertThat(simulation.entrants())
+        .allSatisfy(entrant -> assertThat(entrant.reachingRound()).isSortedAccordingTo(Comparator.reverseOrder()));
+  }
+
+  @Test
+  public void savedStandingsAreThoseOfTheStoredParticipants() throws NotFoundException, ValidationException, ConflictException {
+    // the horse and name given for Luna are not the ones she entered the tournament with
+    var participants = Arrays.stream(tournamentService.getStandings(-1L).participants())
+        .map(p -> p.horseId() != -5L ? p : new TournamentDetailParticipantDto(p.id(), -30L, "Impostor", p.dateOfBirth(), p.entryNumber(), 2))
+        .toArray(TournamentDetailParticipantDto[]::new);
+
+    var standings = saveStanding(-1L, participants);
+
+    assertThat(standings.participants())
+        .extracting(TournamentDetailParticipantDto::horseId, TournamentDetailParticipantDto::name, TournamentDetailParticipantDto::roundReached)
+        .contains(tuple(-5L, "Luna", 2))
+        .doesNotContain(tuple(-30L, "Impostor", 2));
+    assertThat(formPoints.formPoints(-5L, LocalDate.of(2023, 12, 31))).isEqualTo(1);
+    assertThat(formPoints.formPoints(-30L, LocalDate.of(2023, 12, 31))).isZero();
+  }
+
+  @Test
+  public void standingsWithoutAllParticipantsAreNotValid() throws NotFoundException, ValidationException {
+    var participants = tournamentService.getStandings(-1L).participants();
+    // half of the bracket, with rounds that would be valid for a tournament of four
+    var half = Arrays.copyOf(participants, 4);
+    assertThrows(ValidationException.class, () -> saveStanding(-1L, half));
+    assertThrows(ValidationException.class,
+        () -> saveStanding(-1L, new TournamentDetailParticipantDto[0]));
+  }
+
+  @Test
+  public void standingsWithoutTheirVersionAreNotValid() throws NotFoundException, ValidationException {
+    var participants = tournamentService.getStandings(-1L).participants();
+    assertThrows(ValidationException.class, () -> tournamentService.saveStanding(new TournamentUpdateParticipantsDto(participants, null), -1L));
+  }
+
+  @Test
+  public void simulationWithTooManyIterationsIsNotValid() {
+    assertThrows(ValidationException.class, () -> tournamentService.simulate(-2L, new TournamentSimulationParamsDto(1_000_000_000L, null)));
+  }
+
+  @Test
+  public void firstRoundOfSixteenPlacesEveryHorseOnceWithTheBestSeedFirst()
+      throws NotFoundException, ValidationException, ConflictException {
+    var created = tournamentService.insert(new TournamentCreateDto("qualifier", LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 9),
+        horses(-20, -5).toArray(HorseSelectionDto[]::new)));
+
+    var standings = tournamentService.generateFirstRound(created.id());
+
+    assertThat(standings.participants()).hasSize(16);
+    assertThat(standings.participants())
+        .extracting(TournamentDetailParticipantDto::entryNumber)
+        .containsExactlyElementsOf(IntStream.range(0, 16).boxed().toList());
+    // Luna is the only one with points
+    assertThat(standings.participants()[0].horseId()).isEqualTo(-5L);
+    assertThat(standings.tree().size()).isEqualTo(16);
+    assertThat(standings.tree().toTree().branches()[0].branches()[0].branches()[0].branches()).hasSize(2);
+  }
+
+  @Test
+  public void tournamentWithoutAPowerOfTwoParticipantsIsNotValid() {
+    var tournament = new TournamentCreateDto("qualifier", LocalDate.of(2024, 6, 1), LocalDate.of(2024, 6, 9),
+        horses(-16, -5).toArray(HorseSelectionDto[]::new));
+    assertThrows(ValidationException.class, () -> tournamentService.insert(tournament));
+  }
+
+  private TournamentStandingsDto saveStanding(long id, TournamentDetailParticipantDto[] participants)
+      throws NotFoundException, ValidationException, ConflictException {
+    return tournamentService.saveStanding(new TournamentUpdateParticipantsDto(participants, tournamentService.getStandings(id).version()), id);
+  }
+
+  private Stream<Integer> roundsByEntryNumber(TournamentStandingsDto standings) {
+    return Arrays.stream(standings.participants())
+        .sorted(Comparator.comparing(TournamentDetailParticipantDto::entryNumber))
+        .map(TournamentDetailParticipantDto::roundReached);
+  }
+
+  private Stream<HorseSelectionDto> horses(long fromId, long toId) {
+    return LongStream.rangeClosed(fromId, toId).mapToObj(id -> {
+      try {
+        var horse = horseService.getById(id);
+        return new HorseSelectionDto(horse.id(), horse.name(), horse.dateOfBirth());
+      } catch (NotFoundException e) {
+        throw new IllegalStateException(e);
+      }
+    });
+  }
+}
@@ -1,6 +1,5 @@
 import {Component, OnInit, ViewChild} from '@angular/core';
 import {
-  TournamentDetailParticipantDto,
   TournamentStandingsDto,
 } from "../../../dto/tournament";
 import {TournamentService} from "../../../service/tournament.service";
@@ -22,7 +21,6 @@ export class TournamentStandingsComponent implements OnInit {
   id = 0;
   generatedFirstRound: boolean = false;
   initialRoundNumber: number = 4;
-  updateParticipants: { participants: TournamentDetailParticipantDto[] }
   initialEntryNumber: number = 0;
   disabledBranches = false;
   complete: boolean = false;
@@ -35,9 +33,6 @@ export class TournamentStandingsComponent implements OnInit {
     private route: ActivatedRoute,
     private notification: ToastrService,
   ) {
-    this.updateParticipants = {
-      participants: []
-    };
   }
 
   public ifComplete() {
@@ -106,9 +101,12 @@ export class TournamentStandingsComponent implements OnInit {
     if (!this.standings) {
       return;
     }
-    this.updateParticipants.participants = this.standings.participants;
     let observable: Observable<TournamentStandingsDto>;
-    observable = this.service.saveStandings(this.standings.id, this.updateParticipants);
+    // the version the standings are based on, so that the save fails if someone else saved them in the meantime
+    observable = this.service.saveStandings(this.standings.id, {
+      participants: this.standings.participants,
+      version: this.standings.version
+    });
     observable.subscribe({
       next: data => {
         this.standings = data;
@@ -117,6 +115,12 @@ export class TournamentStandingsComponent implements OnInit {
         this.enableToGenerate = this.standingsBranch.checkDisabled();
         },
       error: error => {
+        if (error.status === 409) {
+          // someone else saved the standings in the meantime; show theirs, so the changes can be made on top of them
+          this.standings = error.error;
+          this.notification.warning('The standings were changed by someone else in the meantime. Please check them and save again.');
+          return;
+        }
         console.error('Error saving standings', error);
         this.notification.error(`Failed to saving the standings. ${error.error.message}`);
       }
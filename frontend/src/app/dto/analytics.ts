@@ -0,0 +1,33 @@
+import {Sex} from './sex';
+
+/**
+ * Attribute by which participations in tournaments are grouped.
+ */
+export enum ParticipationGrouping {
+  breed = 'BREED',
+  sex = 'SEX',
+  age = 'AGE',
+  season = 'SEASON',
+};
+
+/**
+ * Interface representing the parameters of a report over participations.
+ */
+export interface ParticipationStatsSearch {
+  groupBy: ParticipationGrouping;
+  breedId?: number;
+  sex?: Sex;
+  startFrom?: Date;
+  startTo?: Date;
+}
+
+/**
+ * Interface representing the counts of one group of participations.
+ */
+export interface ParticipationStats {
+  group: string | null;
+  participations: number;
+  matches: number;
+  matchesWon: number;
+  winRate: number;
+}
@@ -45,3 +45,15 @@ export interface HorseSelection {
     name: string;
     dateOfBirth: Date;
 }
+
+/**
+ * Interface representing the career of a horse in tournaments.
+ */
+export interface HorseStats {
+  horseId: number;
+  tournaments: number;
+  bestRound: number;
+  matchesWon: number;
+  firstTournament?: Date;
+  lastTournament?: Date;
+}
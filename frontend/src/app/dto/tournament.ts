@@ -68,6 +68,7 @@ export interface TournamentStandingsDto {
   name: string;
   participants: TournamentDetailParticipantDto[];
   tree: TournamentStandingsTreeDto;
+  version: number;
 }
 
 /**
@@ -75,4 +76,22 @@ export interface TournamentStandingsDto {
  */
 export interface TournamentUpdateParticipantsDto {
   participants: TournamentDetailParticipantDto[];
+  version: number;
+}
+
+/**
+ * Interface representing the result of a single match.
+ */
+export interface TournamentMatchResultDto {
+  winnerId: number;
+}
+
+/**
+ * Interface representing the record of a horse against another horse.
+ */
+export interface HeadToHeadDto {
+  horseId: number;
+  opponentId: number;
+  wins: number;
+  losses: number;
 }
@@ -0,0 +1,43 @@
+import {Injectable} from "@angular/core";
+import {HttpClient, HttpParams} from "@angular/common/http";
+import {environment} from "../../environments/environment";
+import {ParticipationStats, ParticipationStatsSearch} from "../dto/analytics";
+import {formatIsoDate} from "../util/date-helper";
+import {Observable} from "rxjs";
+
+const baseUri = environment.backendUrl + "/analytics";
+
+@Injectable({
+  providedIn: 'root'
+})
+export class AnalyticsService {
+
+  constructor(
+    private http: HttpClient
+  ) {
+  }
+
+  /**
+   * Counts the participations, matches and wins of horses in tournaments, grouped by breed, sex, age or season.
+   *
+   * @param search The grouping attribute, and the optional breed, sex and range of start dates to filter by.
+   * @returns      An Observable emitting the counts of every group that has participations.
+   */
+  public participationStats(search: ParticipationStatsSearch): Observable<ParticipationStats[]> {
+    let params = new HttpParams();
+    params = params.append("groupBy", search.groupBy);
+    if (search.breedId != null) {
+      params = params.append("breedId", search.breedId);
+    }
+    if (search.sex != null) {
+      params = params.append("sex", search.sex);
+    }
+    if (search.startFrom != null) {
+      params = params.append("startFrom", formatIsoDate(search.startFrom));
+    }
+    if (search.startTo != null) {
+      params = params.append("startTo", formatIsoDate(search.startTo));
+    }
+    return this.http.get<ParticipationStats[]>(`${baseUri}/participations`, { params });
+  }
+}
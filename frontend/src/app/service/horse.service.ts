@@ -2,7 +2,7 @@ import {HttpClient, HttpErrorResponse, HttpParams} from '@angular/common/http';
 import {Injectable} from '@angular/core';
 import {catchError, map, Observable, tap} from 'rxjs';
 import {environment} from 'src/environments/environment';
-import {Horse, HorseListDto} from '../dto/horse';
+import {Horse, HorseListDto, HorseStats} from '../dto/horse';
 import {HorseSearch} from '../dto/horse';
 import {formatIsoDate} from '../util/date-helper';
 
@@ -30,6 +30,27 @@ export class HorseService {
       }));
   }
 
+  /**
+   * Retrieves the career of a horse in tournaments.
+   *
+   * @param id The unique identifier of the horse.
+   * @returns  An Observable for the career of the horse.
+   */
+  getStats(id: number): Observable<HorseStats> {
+    return this.http.get<HorseStats>(`${baseUri}/${id}/stats`);
+  }
+
+  /**
+   * Retrieves the careers of many horses in tournaments at once.
+   * Horses that do not exist are left out.
+   *
+   * @param ids The unique identifiers of the horses.
+   * @returns   An Observable for the careers of the horses, in the order of the identifiers.
+   */
+  getStatsOfMany(ids: number[]): Observable<HorseStats[]> {
+    return this.http.get<HorseStats[]>(`${baseUri}/stats`, { params: new HttpParams().set('ids', ids.join(',')) });
+  }
+
   /**
    * Searches for horses based on the provided search parameters.
    *
@@ -4,9 +4,11 @@ import {environment} from '../../environments/environment';
 import {Observable, tap} from 'rxjs';
 import {formatIsoDate} from '../util/date-helper';
 import {
+  HeadToHeadDto,
   TournamentCreateDto, TournamentDetailDto,
   TournamentListDto,
   TournamentSearchParams,
+  TournamentMatchResultDto,
   TournamentStandingsDto, TournamentUpdateParticipantsDto
 } from "../dto/tournament";
 const baseUri = environment.backendUrl + '/tournaments';
@@ -94,4 +96,28 @@ export class TournamentService {
     return this.http.put<TournamentStandingsDto>(`${baseUri}/standings/${id}`, updateParticipants);
   }
 
+  /**
+   * Records the winner of a single match, without sending the standings of all participants.
+   *
+   * @param id     The unique identifier of the tournament.
+   * @param round  The round of the match, counted from 1.
+   * @param slot   The slot of the match within its round, counted from 0.
+   * @param result The participant that won the match.
+   * @returns      An Observable emitting the updated standings of the tournament.
+   */
+  public recordMatchResult(id: number, round: number, slot: number, result: TournamentMatchResultDto): Observable<TournamentStandingsDto> {
+    return this.http.put<TournamentStandingsDto>(`${baseUri}/standings/${id}/matches/${round}/${slot}`, result);
+  }
+
+  /**
+   * Retrieves the record of a horse against one or more other horses.
+   *
+   * @param horseId     The unique identifier of the horse.
+   * @param opponentIds The unique identifiers of the other horses.
+   * @returns           An Observable emitting the record against every other horse, in the order of the identifiers.
+   */
+  public headToHead(horseId: number, opponentIds: number[]): Observable<HeadToHeadDto[]> {
+    return this.http.get<HeadToHeadDto[]>(`${baseUri}/head-to-head/${horseId}`, { params: new HttpParams().set('opponents', opponentIds.join(',')) });
+  }
+
 }